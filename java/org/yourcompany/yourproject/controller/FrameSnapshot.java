@@ -0,0 +1,16 @@
+package org.yourcompany.yourproject.controller;
+
+import org.yourcompany.yourproject.model.GameSnapshot;
+
+/**
+ * シミュレーションスレッドが1フレーム進めるたびに公開する、両プレイヤーの描画用スナップショット。
+ * @param frame VersusManager のフレーム番号
+ */
+public record FrameSnapshot(long frame, GameSnapshot player1, GameSnapshot player2) {
+
+    /** manager の今の状態を写します (シミュレーションスレッドか、止まっているときの EDT から呼ぶこと)。 */
+    public static FrameSnapshot of(VersusManager manager) {
+        return new FrameSnapshot(manager.getFrame(),
+                GameSnapshot.of(manager.getPlayer1Logic()), GameSnapshot.of(manager.getPlayer2Logic()));
+    }
+}
@@ -1,9 +1,10 @@
 package org.yourcompany.yourproject.controller;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.util.concurrent.locks.LockSupport;
 
 import javax.swing.JOptionPane;
-import javax.swing.Timer;
+import javax.swing.SwingUtilities;
 
 import org.yourcompany.yourproject.config.KeyConfig;
 import org.yourcompany.yourproject.player.HumanPlayer;
@@ -11,13 +12,40 @@ import org.yourcompany.yourproject.player.InputState;
 import org.yourcompany.yourproject.player.Player;
 import org.yourcompany.yourproject.view.VersusGameFrame;
 
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
 public class GameController {
 
+    /**
+     * シミュレーションスレッドの1フレーム分の処理 (入力の反映と VersusManager.update) の JFR イベント。
+     */
+    @Name("obseris.GameUpdate")
+    @Label("Game Update")
+    @Category({"Obseris", "Game"})
+    @Description("One fixed-timestep simulation frame of GameController.updateGame")
+    @StackTrace(false)
+    static final class UpdateEvent extends Event {
+        @Label("Frame")
+        long frame;
+    }
+
     private final VersusManager versusManager;
     private final VersusGameFrame gameFrame;
     private final Player player1;
     private final Player player2;
-    private Timer gameLoopTimer;
+
+    // (★) ゲームは EDT ではなく専用のスレッドで、System.nanoTime に合わせて 1/60 秒刻みで進める。
+    // 描画が遅れても GC で止まっても、ゲームの速さ (フレーム数) は実時間どおりに保たれる
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+    // 止まっていた分を一度に取り戻すのはこのフレーム数まで (それ以上の遅れは捨てる)
+    private static final int MAX_CATCH_UP_FRAMES = 5;
+    private volatile boolean running;
+    private volatile Thread simulationThread;
 
     private final InputState player1Input = new InputState();
     private final InputState player2Input = new InputState();
@@ -31,53 +59,119 @@ public class GameController {
 
     public void startGame() {
         setupKeyListeners();
-        gameLoopTimer = new Timer(16, e -> updateGame()); // 約60FPS
-        gameLoopTimer.start();
+        startSimulation();
+    }
+
+    private void startSimulation() {
+        running = true;
+        gameFrame.publishFrame(FrameSnapshot.of(versusManager));
+        simulationThread = new Thread(this::runSimulation, "simulation");
+        simulationThread.setDaemon(true);
+        simulationThread.start();
+    }
+
+    /**
+     * シミュレーションを止め、スレッドが抜けるまで待ちます (ウィンドウを閉じるときに EDT から呼ぶ)。
+     * これが戻った後は VersusManager に触るスレッドは呼び出し側だけになる。
+     */
+    public void stop() {
+        running = false;
+        joinSimulation();
+    }
+
+    private void joinSimulation() {
+        Thread thread = simulationThread;
+        if (thread == null || thread == Thread.currentThread()) return;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 固定刻みのループ: 経過時間を貯めて、1フレーム分貯まるごとに updateGame() を1回進める。
+     * 進めたらスナップショットを公開して repaint を頼むだけで、描画そのものは EDT に任せる。
+     */
+    private void runSimulation() {
+        long previous = System.nanoTime();
+        long lag = 0;
+        while (running) {
+            long now = System.nanoTime();
+            lag += now - previous;
+            previous = now;
+
+            int steps = 0;
+            boolean over = false;
+            while (lag >= FRAME_NANOS && steps < MAX_CATCH_UP_FRAMES && !over) {
+                updateGame();
+                lag -= FRAME_NANOS;
+                steps++;
+                over = versusManager.getPlayer1Logic().isGameOver() || versusManager.getPlayer2Logic().isGameOver();
+            }
+            if (lag >= FRAME_NANOS) lag = 0; // 取り戻しきれない遅れは捨てる
+
+            if (steps > 0) gameFrame.publishFrame(FrameSnapshot.of(versusManager));
+            if (over) {
+                running = false;
+                SwingUtilities.invokeLater(this::showGameOverDialog);
+                return;
+            }
+            LockSupport.parkNanos(FRAME_NANOS - lag);
+        }
     }
 
     private void updateGame() {
+        // (★) 記録していなければ commit は何もせず、イベントのオブジェクトも JIT で消える
+        UpdateEvent event = new UpdateEvent();
+        event.begin();
+        long start = System.nanoTime();
         // HumanPlayerの内部状態を更新
         if (player1 instanceof HumanPlayer p1) p1.update(player1Input, versusManager.getPlayer1Logic());
         if (player2 instanceof HumanPlayer p2) p2.update(player2Input, versusManager.getPlayer2Logic());
         
         // ゲーム全体のロジックを更新
         versusManager.update();
-        gameFrame.repaint();
+        gameFrame.getPerformanceOverlay().recordUpdate(start, System.nanoTime());
+        event.frame = versusManager.getFrame();
+        event.commit();
+    }
 
+    /** ゲームオーバーの後 (シミュレーションスレッドが止まってから) EDT で呼ばれる。 */
+    private void showGameOverDialog() {
+        joinSimulation();
+        if (!gameFrame.isDisplayable()) return; // ダイアログを出す前にウィンドウが閉じられた
         boolean p1Over = versusManager.getPlayer1Logic().isGameOver();
         boolean p2Over = versusManager.getPlayer2Logic().isGameOver();
-        if (p1Over || p2Over) {
-            gameLoopTimer.stop(); // タイマーを停止
-            String message;
-            if (p1Over && p2Over) message = "引き分け！";
-            else message = "ゲームオーバー！\n勝者: " + (p1Over ? "プレイヤー2" : "プレイヤー1");
-
-            // 選択肢付きのダイアログを表示
-            Object[] options = {"再戦", "終了"};
-            int choice = JOptionPane.showOptionDialog(
-                gameFrame,
-                message,
-                "ゲーム終了",
-                JOptionPane.YES_NO_OPTION,
-                JOptionPane.INFORMATION_MESSAGE,
-                null,
-                options,
-                options[0] // デフォルトは "再戦"
-            );
-
-            if (choice == 0) { // 0 = "再戦" が選ばれた
-                // ゲーム状態をリセット
-                versusManager.resetGame(); 
-                // 入力状態をリセット
-                player1Input.reset();
-                player2Input.reset();
-                gameFrame.resetUI();
-                // タイマーを再開
-                gameLoopTimer.start();
-            } else { // 1 = "終了" またはダイアログが閉じられた
-                gameFrame.dispose(); // ウィンドウを閉じる
-                // (アプリケーション全体を終了する場合は System.exit(0);)
-            }
+        String message;
+        if (p1Over && p2Over) message = "引き分け！";
+        else message = "ゲームオーバー！\n勝者: " + (p1Over ? "プレイヤー2" : "プレイヤー1");
+
+        // 選択肢付きのダイアログを表示
+        Object[] options = {"再戦", "終了"};
+        int choice = JOptionPane.showOptionDialog(
+            gameFrame,
+            message,
+            "ゲーム終了",
+            JOptionPane.YES_NO_OPTION,
+            JOptionPane.INFORMATION_MESSAGE,
+            null,
+            options,
+            options[0] // デフォルトは "再戦"
+        );
+
+        if (choice == 0) { // 0 = "再戦" が選ばれた
+            // 入力状態をリセット
+            player1Input.reset();
+            player2Input.reset();
+            // ゲーム状態をリセット (resetUI が VersusManager.resetGame も呼ぶ)
+            gameFrame.resetUI();
+            // シミュレーションを再開
+            startSimulation();
+        } else { // 1 = "終了" またはダイアログが閉じられた
+            gameFrame.dispose(); // ウィンドウを閉じる
+            // (アプリケーション全体を終了する場合は System.exit(0);)
         }
     }
 
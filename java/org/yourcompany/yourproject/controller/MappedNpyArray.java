@@ -0,0 +1,99 @@
+package org.yourcompany.yourproject.controller;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * float32 の .npy ファイル (numpy の np.load / np.load(mmap_mode="r") でそのまま読める) を
+ * メモリマップで書きます。容量 (行数) 分を最初に確保し、行を追記するたびにヘッダの行数を書き換える。
+ * 書き込み途中のファイルでも、ヘッダに書かれた行数までは読める。
+ */
+public final class MappedNpyArray implements AutoCloseable {
+
+    // マジック(6) + 版(2) + ヘッダ長(2) + ヘッダ本体。行数が何桁になっても収まるよう 128 バイトに固定する
+    private static final int HEADER_SIZE = 128;
+    private static final byte[] MAGIC = {(byte) 0x93, 'N', 'U', 'M', 'P', 'Y', 1, 0};
+
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private final FloatBuffer data;
+    private final int[] rowShape;
+    private final int rowSize;
+    private final int capacity;
+    private int rows = 0;
+
+    /**
+     * @param rowShape 1行 (1サンプル) の形 (例: {2, 40, 10})。空なら1行 = スカラー1個
+     * @param capacity 確保する行数
+     */
+    public MappedNpyArray(Path file, int[] rowShape, int capacity) throws IOException {
+        this.rowShape = rowShape.clone();
+        this.rowSize = Arrays.stream(rowShape).reduce(1, (a, b) -> a * b);
+        this.capacity = capacity;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long bytes = HEADER_SIZE + (long) capacity * rowSize * Float.BYTES;
+        this.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        mapped.position(HEADER_SIZE);
+        this.data = mapped.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        writeHeader();
+    }
+
+    public int rows() { return rows; }
+    public int remaining() { return capacity - rows; }
+
+    /**
+     * src[srcRow * 行サイズ ..] から count 行を追記します。
+     */
+    public void append(float[] src, int srcRow, int count) {
+        if (count > remaining()) throw new IllegalStateException("npy chunk is full");
+        data.put(rows * rowSize, src, srcRow * rowSize, count * rowSize);
+        rows += count;
+    }
+
+    /** ヘッダの行数を今の行数に更新します (ここまでが読めるようになる)。 */
+    public void commit() {
+        writeHeader();
+    }
+
+    /**
+     * ヘッダを確定させ、使わなかった容量を切り詰めて閉じます。
+     */
+    @Override
+    public void close() throws IOException {
+        writeHeader();
+        mapped.force();
+        try {
+            channel.truncate(HEADER_SIZE + (long) rows * rowSize * Float.BYTES);
+        } catch (IOException e) {
+            // マップ中のファイルを切り詰められない環境 (Windows) では末尾を余らせたままにする (np.load は行数までしか読まない)
+        }
+        channel.close();
+    }
+
+    private void writeHeader() {
+        StringBuilder shape = new StringBuilder().append(rows);
+        if (rowShape.length == 0) {
+            shape.append(',');
+        } else {
+            for (int d : rowShape) shape.append(", ").append(d);
+        }
+        StringBuilder header = new StringBuilder("{'descr': '<f4', 'fortran_order': False, 'shape': (")
+                .append(shape).append("), }");
+        int bodySize = HEADER_SIZE - 10;
+        while (header.length() < bodySize - 1) header.append(' ');
+        header.append('\n');
+
+        mapped.put(0, MAGIC);
+        mapped.putShort(8, (short) bodySize);
+        mapped.put(10, header.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+}
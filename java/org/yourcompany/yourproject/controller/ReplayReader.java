@@ -0,0 +1,126 @@
+package org.yourcompany.yourproject.controller;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.yourcompany.yourproject.model.GameLogic;
+
+/**
+ * ReplayRecorder が書いたファイルを読み込み、試合ごとのイベント列に展開します。
+ */
+public final class ReplayReader {
+
+    /**
+     * 1試合分のリプレイ。i 番目のイベントは frames[i] フレーム目の players[i] の codes[i]。
+     * @param endFrame 記録が終わったフレーム (試合終了が記録されていなければ最後のイベントのフレーム)
+     */
+    public record Game(long seed1, long seed2, int[] frames, byte[] players, byte[] codes, int endFrame) {
+        public int eventCount() { return codes.length; }
+    }
+
+    private final int areFrames;
+    private final int lineClearDelayFrames;
+    private final double sdf;
+    private final List<Game> games;
+
+    public ReplayReader(Path file) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (in.getInt() != ReplayRecorder.MAGIC) throw new IOException("Not a replay file: " + file);
+            int version = in.get();
+            if (version != ReplayRecorder.VERSION) throw new IOException("Unsupported replay version: " + version);
+            areFrames = (int) getVarLong(in);
+            lineClearDelayFrames = (int) getVarLong(in);
+            sdf = Double.longBitsToDouble(getVarLong(in));
+            games = readGames(in);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated replay header: " + file);
+        }
+    }
+
+    public List<Game> getGames() { return games; }
+
+    /**
+     * (★) 記録時のルール設定を GameLogic に戻します (static 設定なので、再生前に1回呼ぶ)。
+     */
+    public void applyRules() {
+        GameLogic.ARE_FRAMES = areFrames;
+        GameLogic.LINE_CLEAR_DELAY_FRAMES = lineClearDelayFrames;
+        GameLogic.SDF = sdf;
+    }
+
+    private static List<Game> readGames(ByteBuffer in) {
+        List<Game> result = new ArrayList<>();
+        long seed1 = 0, seed2 = 0;
+        long frame = 0;
+        boolean inGame = false;
+        int count = 0;
+        int[] frames = new int[256];
+        byte[] players = new byte[256];
+        byte[] codes = new byte[256];
+        try {
+            while (in.hasRemaining()) {
+                int head = in.get() & 0xFF;
+                int code = head & 0x0F;
+                int player = (head >> 4) & 1;
+                long delta = head >>> 5;
+                if (delta == ReplayRecorder.SMALL_DELTA_LIMIT) delta += getVarLong(in);
+                frame += delta;
+
+                if (code == ReplayRecorder.CODE_GAME_START) {
+                    if (inGame) result.add(toGame(seed1, seed2, frames, players, codes, count, (int) frame));
+                    seed1 = unzigzag(getVarLong(in));
+                    seed2 = unzigzag(getVarLong(in));
+                    frame = 0;
+                    count = 0;
+                    inGame = true;
+                } else if (code == ReplayRecorder.CODE_GAME_END) {
+                    if (inGame) result.add(toGame(seed1, seed2, frames, players, codes, count, (int) frame));
+                    inGame = false;
+                } else if (inGame) {
+                    if (count == codes.length) {
+                        frames = Arrays.copyOf(frames, count * 2);
+                        players = Arrays.copyOf(players, count * 2);
+                        codes = Arrays.copyOf(codes, count * 2);
+                    }
+                    frames[count] = (int) frame;
+                    players[count] = (byte) player;
+                    codes[count] = (byte) code;
+                    count++;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // 書き込み途中で終わったファイル: 読めたところまでを使う
+            System.err.println("Replay file is truncated; using the events read so far.");
+        }
+        if (inGame) {
+            int last = (count == 0) ? 0 : frames[count - 1];
+            result.add(toGame(seed1, seed2, frames, players, codes, count, last));
+        }
+        return result;
+    }
+
+    private static Game toGame(long seed1, long seed2, int[] frames, byte[] players, byte[] codes, int count, int endFrame) {
+        return new Game(seed1, seed2, Arrays.copyOf(frames, count), Arrays.copyOf(players, count),
+                Arrays.copyOf(codes, count), endFrame);
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.get() & 0xFF;
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,167 @@
+package org.yourcompany.yourproject.controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.yourcompany.yourproject.config.GameAction;
+import org.yourcompany.yourproject.model.GameLogic;
+
+/**
+ * 対戦のリプレイ (乱数の種 + フレームごとの入力) をコンパクトなバイナリで記録します。
+ * ゲームループ側はメモリ上のバッファに数バイト書くだけで、ファイルへの書き込みは
+ * バックグラウンドのスレッドが NIO の FileChannel でまとめて行う。
+ *
+ * <p>形式: ヘッダ (マジック "OBRP", 版, 設定値) の後にイベントが並ぶ。
+ * イベントは1バイト目の下位4bitがコード (GameAction の ordinal / 追加 update / 試合開始 / 試合終了)、
+ * bit4 がプレイヤー (0 = P1, 1 = P2)、上位3bitが直前のイベントからのフレーム差 (7 以上なら続けて varint)。
+ * 入力の無いフレームは何も書かないので、1時間の試合でも数十KB程度に収まる。
+ */
+public final class ReplayRecorder implements AutoCloseable {
+
+    static final int MAGIC = 0x4F425250; // "OBRP"
+    static final int VERSION = 1;
+
+    // --- イベントコード (0 .. GameAction 数 - 1 は GameAction の ordinal) ---
+    static final int CODE_UPDATE = 12;     // 入力処理の途中で挟んだ logic.update() (即時入力で次のミノを出すため)
+    static final int CODE_GAME_START = 14; // 続けて P1, P2 の乱数の種 (zigzag varint)
+    static final int CODE_GAME_END = 15;
+
+    static final int SMALL_DELTA_LIMIT = 7;
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final ByteBuffer END_OF_STREAM = ByteBuffer.allocate(0);
+
+    private final BlockingQueue<ByteBuffer> pending = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private ByteBuffer current = ByteBuffer.allocate(CHUNK_SIZE);
+    private long lastEventFrame = 0;
+    private boolean inGame = false;
+    private boolean closed = false;
+    private volatile IOException writeError;
+
+    public ReplayRecorder(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+        current.putInt(MAGIC);
+        current.put((byte) VERSION);
+        // (★) 再現に必要なルール設定も残しておく
+        putVarLong(GameLogic.ARE_FRAMES);
+        putVarLong(GameLogic.LINE_CLEAR_DELAY_FRAMES);
+        putVarLong(Double.doubleToLongBits(GameLogic.SDF));
+
+        writerThread = new Thread(() -> writeLoop(channel), "replay-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 新しい試合の開始を記録します (直前の試合が終わっていなければ終了も記録する)。
+     */
+    public void beginGame(long seed1, long seed2) {
+        if (closed) return;
+        if (inGame) endGame(lastEventFrame);
+        lastEventFrame = 0;
+        putEvent(0, 0, CODE_GAME_START);
+        putVarLong(zigzag(seed1));
+        putVarLong(zigzag(seed2));
+        inGame = true;
+    }
+
+    /** プレイヤーの入力を記録します。 */
+    public void action(long frame, int player, GameAction action) {
+        if (closed || !inGame || action == null || action == GameAction.NONE) return;
+        putEvent(frame, player, action.ordinal());
+    }
+
+    /** 入力処理の途中で挟んだ logic.update() を記録します。 */
+    public void extraUpdate(long frame, int player) {
+        if (closed || !inGame) return;
+        putEvent(frame, player, CODE_UPDATE);
+    }
+
+    /**
+     * 試合の終了を記録します。
+     * @param frame 最後に進めたフレーム数
+     */
+    public void endGame(long frame) {
+        if (closed || !inGame) return;
+        putEvent(frame, 0, CODE_GAME_END);
+        inGame = false;
+        flush();
+    }
+
+    /**
+     * 記録を閉じ、書き込みスレッドが書き終えるのを待ちます。何度呼んでもよい。
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        if (inGame) endGame(lastEventFrame);
+        closed = true;
+        flush();
+        pending.add(END_OF_STREAM);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeError != null) System.err.println("Replay write failed: " + writeError.getMessage());
+    }
+
+    // --- エンコード ---
+    private void putEvent(long frame, int player, int code) {
+        long delta = Math.max(0, frame - lastEventFrame);
+        lastEventFrame = Math.max(lastEventFrame, frame);
+        int small = (int) Math.min(delta, SMALL_DELTA_LIMIT);
+        ensure(1);
+        current.put((byte) (code | (player << 4) | (small << 5)));
+        if (small == SMALL_DELTA_LIMIT) putVarLong(delta - SMALL_DELTA_LIMIT);
+    }
+
+    private void putVarLong(long v) {
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            current.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        current.put((byte) v);
+    }
+
+    static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private void ensure(int bytes) {
+        if (current.remaining() < bytes) flush();
+    }
+
+    /** たまったバイト列を書き込みスレッドに渡します。 */
+    private void flush() {
+        if (current.position() == 0) return;
+        current.flip();
+        pending.add(current);
+        current = ByteBuffer.allocate(CHUNK_SIZE);
+    }
+
+    private void writeLoop(FileChannel channel) {
+        try (channel) {
+            while (true) {
+                ByteBuffer chunk = pending.take();
+                if (chunk == END_OF_STREAM) break;
+                while (chunk.hasRemaining()) channel.write(chunk);
+            }
+        } catch (IOException e) {
+            writeError = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
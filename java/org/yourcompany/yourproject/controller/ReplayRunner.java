@@ -0,0 +1,53 @@
+package org.yourcompany.yourproject.controller;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+
+import org.yourcompany.yourproject.model.GameLogic;
+import org.yourcompany.yourproject.view.VersusGameFrame;
+
+/**
+ * リプレイファイルを再生します。
+ * 既定では画面を出さずに最高速で再シミュレーションし、各試合の結果を表示する。
+ * --view を付けると VersusGameFrame で通常の速さで再生する。
+ *
+ * 使い方: ReplayRunner &lt;replay.obr&gt; [--view]
+ */
+public final class ReplayRunner {
+
+    private ReplayRunner() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayRunner <replay.obr> [--view]");
+            return;
+        }
+        ReplayReader replay = new ReplayReader(Path.of(args[0]));
+        if (args.length > 1 && args[1].equals("--view")) {
+            SwingUtilities.invokeLater(() -> new VersusGameFrame(replay));
+            return;
+        }
+        replay.applyRules();
+        List<ReplayReader.Game> games = replay.getGames();
+        GameLogic logic1 = new GameLogic();
+        GameLogic logic2 = new GameLogic();
+        VersusManager manager = new VersusManager(logic1, logic2, games);
+        for (int i = 0; i < games.size(); i++) {
+            if (i > 0) manager.resetGame();
+            long start = System.nanoTime();
+            while (!logic1.isGameOver() && !logic2.isGameOver() && !manager.isReplayFinished()) {
+                manager.update();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long frames = manager.getFrame();
+            System.out.printf("Game %d: %d frames (%.1f s of play) P1 score=%d%s P2 score=%d%s [%.0f frames/s]%n",
+                    i + 1, frames, frames / 60.0,
+                    logic1.getScore(), logic1.isGameOver() ? " (topped out)" : "",
+                    logic2.getScore(), logic2.isGameOver() ? " (topped out)" : "",
+                    frames / Math.max(seconds, 1e-9));
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.yourcompany.yourproject.controller;
+
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.yourcompany.yourproject.config.GameAction;
+import org.yourcompany.yourproject.model.GameLogic;
+import org.yourcompany.yourproject.model.Shape;
+import org.yourcompany.yourproject.player.BoardTensorEncoder;
+import org.yourcompany.yourproject.player.InstantInputPlayer;
+import org.yourcompany.yourproject.player.SearchArena;
+import org.yourcompany.yourproject.player.SearchMetrics;
+import org.yourcompany.yourproject.player.TetrisAIBrain;
+
+/**
+ * 画面を出さずに AI 同士の対戦を複数スレッドで回し、学習用のサンプルを .npy に書き出します
+ * (phase2_train.py / Encoder_train.py 用)。
+ * 1手ごとに「置く前の盤面 + 置いたミノのマスク」[2, 40, 10] と、ネクストの特徴量 [72] を記録する。
+ * どちらも TetrisAIBrain がモデルに渡すのと同じ並び。
+ *
+ * 使い方: SelfPlayDataGenerator &lt;出力先&gt; [--samples N] [--threads T] [--model file.onnx]
+ *                               [--chunk ROWS] [--gamma G] [--max-frames F] [--max-pieces P]
+ */
+public final class SelfPlayDataGenerator {
+
+    private static final int DEFAULT_SAMPLES = 100_000;
+    private static final int DEFAULT_CHUNK_ROWS = 65_536;
+    private static final double DEFAULT_GAMMA = 0.99;
+    private static final int DEFAULT_MAX_FRAMES = 60 * 60 * 5; // 5分で打ち切り
+    // 即時入力では1フレームに1手置けるので、手数でも打ち切る
+    private static final int DEFAULT_MAX_PIECES = 500;
+
+    private SelfPlayDataGenerator() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: SelfPlayDataGenerator <outDir> [--samples N] [--threads T] [--model file.onnx]"
+                    + " [--chunk ROWS] [--gamma G] [--max-frames F] [--max-pieces P]");
+            return;
+        }
+        Path outDir = Path.of(args[0]);
+        long targetSamples = DEFAULT_SAMPLES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String model = null;
+        int chunkRows = DEFAULT_CHUNK_ROWS;
+        double gamma = DEFAULT_GAMMA;
+        int maxFrames = DEFAULT_MAX_FRAMES;
+        int maxPieces = DEFAULT_MAX_PIECES;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--samples" -> targetSamples = Long.parseLong(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                case "--model" -> model = args[i + 1];
+                case "--chunk" -> chunkRows = Integer.parseInt(args[i + 1]);
+                case "--gamma" -> gamma = Double.parseDouble(args[i + 1]);
+                case "--max-frames" -> maxFrames = Integer.parseInt(args[i + 1]);
+                case "--max-pieces" -> maxPieces = Integer.parseInt(args[i + 1]);
+                default -> System.err.println("Unknown option: " + args[i]);
+            }
+        }
+
+        TetrisAIBrain brain = loadBrain(model);
+        AtomicLong claimed = new AtomicLong();
+        long start = System.nanoTime();
+        SelfPlayDatasetWriter writer = new SelfPlayDatasetWriter(outDir, "selfplay", chunkRows);
+        try (writer) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            for (int t = 0; t < threads; t++) {
+                final long target = targetSamples;
+                final double g = gamma;
+                final int frames = maxFrames;
+                final int pieces = maxPieces;
+                pool.submit(() -> {
+                    try {
+                        runGames(brain, writer, claimed, target, g, frames, pieces);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                });
+            }
+            pool.shutdown();
+            while (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.out.println("samples written=" + writer.getSamplesWritten()
+                        + " pending episodes=" + writer.getPendingEpisodes());
+                System.out.println("  " + SearchMetrics.named(SearchMetrics.DEFAULT_NAME).snapshot().format());
+            }
+        }
+        // 件数は close() で残りを書き切ってから数える
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %d samples to %s in %.1f s (%.0f samples/s)%n",
+                writer.getSamplesWritten(), outDir, seconds, writer.getSamplesWritten() / seconds);
+        System.out.println(SearchMetrics.named(SearchMetrics.DEFAULT_NAME).snapshot().format());
+    }
+
+    private static TetrisAIBrain loadBrain(String model) {
+        if (model == null) return new TetrisAIBrain();
+        try {
+            return new TetrisAIBrain(model);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to load model " + model + ": " + e.getMessage() + " (falling back to heuristic)");
+            return new TetrisAIBrain();
+        }
+    }
+
+    /**
+     * 1スレッド分: 目標のサンプル数に届くまで対戦を繰り返す。
+     */
+    private static void runGames(TetrisAIBrain brain, SelfPlayDatasetWriter writer, AtomicLong claimed,
+                                 long targetSamples, double gamma, int maxFrames, int maxPieces) {
+        GameLogic logic1 = new GameLogic();
+        GameLogic logic2 = new GameLogic();
+        SelfPlayer player1 = new SelfPlayer(logic1, logic2, brain);
+        SelfPlayer player2 = new SelfPlayer(logic2, logic1, brain);
+        VersusManager manager = new VersusManager(logic1, logic2, player1, player2);
+        boolean first = true;
+        while (claimed.get() < targetSamples) {
+            if (!first) manager.resetGame();
+            first = false;
+            player1.beginEpisode();
+            player2.beginEpisode();
+            while (!logic1.isGameOver() && !logic2.isGameOver() && manager.getFrame() < maxFrames
+                    && player1.count < maxPieces && player2.count < maxPieces) {
+                manager.update();
+            }
+            float outcome1 = outcome(logic1, logic2);
+            submit(writer, claimed, targetSamples, player1.finishEpisode(gamma, outcome1));
+            submit(writer, claimed, targetSamples, player2.finishEpisode(gamma, -outcome1));
+        }
+    }
+
+    private static float outcome(GameLogic me, GameLogic opponent) {
+        if (me.isGameOver() == opponent.isGameOver()) return 0.0f;
+        return me.isGameOver() ? -1.0f : 1.0f;
+    }
+
+    /** 目標を超える分は切り捨てて書き込みに回す。 */
+    private static void submit(SelfPlayDatasetWriter writer, AtomicLong claimed, long targetSamples,
+                               SelfPlayDatasetWriter.Episode episode) {
+        long before = claimed.getAndAdd(episode.count());
+        int keep = (int) Math.max(0, Math.min(episode.count(), targetSamples - before));
+        if (keep == 0) return;
+        writer.submit(new SelfPlayDatasetWriter.Episode(episode.boards(), episode.features(),
+                episode.returns(), episode.outcomes(), keep));
+    }
+
+    /**
+     * 同じスレッドで探索して即時入力で置き、置くたびにサンプルを1行ためるプレイヤー。
+     */
+    private static final class SelfPlayer implements InstantInputPlayer {
+        private final GameLogic myLogic;
+        private final GameLogic opponentLogic;
+        private final TetrisAIBrain brain;
+        private final SearchArena arena = new SearchArena();
+
+        private int count = 0;
+        private float[] boards = new float[256 * BoardTensorEncoder.SAMPLE_SIZE];
+        private float[] features = new float[256 * BoardTensorEncoder.FEATURE_SIZE];
+        private long[] scoreBefore = new long[256];
+
+        SelfPlayer(GameLogic myLogic, GameLogic opponentLogic, TetrisAIBrain brain) {
+            this.myLogic = myLogic;
+            this.opponentLogic = opponentLogic;
+            this.brain = brain;
+        }
+
+        void beginEpisode() {
+            count = 0;
+        }
+
+        @Override
+        public GameAction getAction(GameLogic gameState) { return GameAction.NONE; }
+
+        @Override
+        public boolean isInstantInput() { return true; }
+
+        @Override
+        public InstantPlan pollInstantPlan(GameLogic gameState) {
+            if (myLogic.getCurrentTetromino() == null || myLogic.isGameOver()) return null;
+            TetrisAIBrain.LandingSpot spot = brain.findBestMove(myLogic, opponentLogic, arena);
+            if (spot == null) return null;
+            record(spot);
+
+            List<GameAction> actions = new ArrayList<>(spot.path.size() + 2);
+            if (spot.usedHold) actions.add(GameAction.HOLD);
+            actions.addAll(spot.path);
+            actions.add(GameAction.HARD_DROP);
+            return new InstantPlan(actions, spot.startShape, spot.finalX, spot.finalY, spot.finalRot);
+        }
+
+        @Override
+        public void instantPlanRejected(InstantPlan plan) {
+            count--; // 置かなかった手の行は捨てる (次の pollInstantPlan で計画し直した手を記録する)
+        }
+
+        /** 置く前の盤面・置くミノのマスク・ネクストを1行ためる。 */
+        private void record(TetrisAIBrain.LandingSpot spot) {
+            if (count == scoreBefore.length) {
+                boards = Arrays.copyOf(boards, boards.length * 2);
+                features = Arrays.copyOf(features, features.length * 2);
+                scoreBefore = Arrays.copyOf(scoreBefore, scoreBefore.length * 2);
+            }
+            FloatBuffer boardBuf = FloatBuffer.wrap(boards);
+            int offset = count * BoardTensorEncoder.SAMPLE_SIZE;
+            BoardTensorEncoder.encodeBoard(boardBuf, offset, myLogic.getBoard());
+            BoardTensorEncoder.encodePieceMask(boardBuf, offset + BoardTensorEncoder.PLANE_SIZE,
+                    placedShape(spot), spot.finalX, spot.finalY, spot.finalRot);
+            BoardTensorEncoder.encodeQueueFeatures(FloatBuffer.wrap(features),
+                    count * BoardTensorEncoder.FEATURE_SIZE, myLogic.getNextQueue());
+            scoreBefore[count] = myLogic.getScore();
+            count++;
+        }
+
+        private Shape.Tetrominoes placedShape(TetrisAIBrain.LandingSpot spot) {
+            if (!spot.usedHold) return myLogic.getCurrentTetromino().getPieceShape();
+            if (myLogic.getHoldTetromino() != null) return myLogic.getHoldTetromino().getPieceShape();
+            return myLogic.getNextQueue().get(0).getPieceShape();
+        }
+
+        /**
+         * 試合の結果から各行の目標値を埋め、書き込み用の1試合分を返す。
+         * returns[i] = Σ_k gamma^(k-i) * (k 手目で得たスコア)
+         */
+        SelfPlayDatasetWriter.Episode finishEpisode(double gamma, float outcome) {
+            float[] returns = new float[count];
+            float[] outcomes = new float[count];
+            double running = 0;
+            long next = myLogic.getScore();
+            for (int i = count - 1; i >= 0; i--) {
+                running = (next - scoreBefore[i]) + gamma * running;
+                next = scoreBefore[i];
+                returns[i] = (float) running;
+                outcomes[i] = outcome;
+            }
+            return new SelfPlayDatasetWriter.Episode(
+                    Arrays.copyOf(boards, count * BoardTensorEncoder.SAMPLE_SIZE),
+                    Arrays.copyOf(features, count * BoardTensorEncoder.FEATURE_SIZE),
+                    returns, outcomes, count);
+        }
+    }
+}
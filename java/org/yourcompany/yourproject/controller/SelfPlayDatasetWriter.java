@@ -0,0 +1,134 @@
+package org.yourcompany.yourproject.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.yourcompany.yourproject.player.BoardTensorEncoder;
+
+/**
+ * 自己対戦のサンプルを、チャンクごとの .npy ファイル群に書き出します。
+ * ゲームのスレッドは1試合分のサンプルを submit() でキューに置くだけで、
+ * メモリマップへのコピーとファイルの切り替えは書き込みスレッドが行う。
+ *
+ * <p>チャンク k ごとに次の4ファイルを作る (行数はどれも同じ):
+ * <ul>
+ *   <li>{prefix}_{k}_boards.npy   float32 [N, 2, 40, 10] (盤面 + 置いたミノのマスク。TetrisAIBrain の入力と同じ)</li>
+ *   <li>{prefix}_{k}_features.npy float32 [N, 72] (ネクストの特徴量)</li>
+ *   <li>{prefix}_{k}_returns.npy  float32 [N] (その手以降に得たスコアの割引和)</li>
+ *   <li>{prefix}_{k}_outcomes.npy float32 [N] (勝ち +1 / 負け -1 / 引き分け・打ち切り 0)</li>
+ * </ul>
+ */
+public final class SelfPlayDatasetWriter implements AutoCloseable {
+
+    /** 1試合・1プレイヤー分のサンプル (先頭 count 行が有効)。 */
+    public record Episode(float[] boards, float[] features, float[] returns, float[] outcomes, int count) {}
+
+    private static final Episode END_OF_STREAM = new Episode(null, null, null, null, 0);
+
+    private final Path dir;
+    private final String prefix;
+    private final int chunkRows;
+    private final BlockingQueue<Episode> pending = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile long samplesWritten = 0;
+    private volatile IOException writeError;
+    private boolean closed = false;
+
+    // --- 書き込みスレッドだけが触る ---
+    private int chunkIndex = 0;
+    private MappedNpyArray boards, features, returns, outcomes;
+
+    /**
+     * @param chunkRows 1チャンクの行数 (boards は 1行 3.2KB)
+     */
+    public SelfPlayDatasetWriter(Path dir, String prefix, int chunkRows) throws IOException {
+        this.dir = dir;
+        this.prefix = prefix;
+        this.chunkRows = chunkRows;
+        Files.createDirectories(dir);
+        writerThread = new Thread(this::writeLoop, "dataset-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /** 1試合分のサンプルを書き込み待ちに置きます (待たずに戻る)。 */
+    public void submit(Episode episode) {
+        if (episode.count() > 0) pending.add(episode);
+    }
+
+    public long getSamplesWritten() { return samplesWritten; }
+    public int getPendingEpisodes() { return pending.size(); }
+
+    /**
+     * 残りを書き切ってファイルを閉じます。
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        pending.add(END_OF_STREAM);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeError != null) throw writeError;
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                Episode episode = pending.take();
+                if (episode == END_OF_STREAM) break;
+                write(episode);
+            }
+            closeChunk();
+        } catch (IOException e) {
+            writeError = e;
+            System.err.println("Dataset write failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Episode episode) throws IOException {
+        int row = 0;
+        while (row < episode.count()) {
+            if (boards == null || boards.remaining() == 0) openNextChunk();
+            int n = Math.min(episode.count() - row, boards.remaining());
+            boards.append(episode.boards(), row, n);
+            features.append(episode.features(), row, n);
+            returns.append(episode.returns(), row, n);
+            outcomes.append(episode.outcomes(), row, n);
+            row += n;
+        }
+        boards.commit();
+        features.commit();
+        returns.commit();
+        outcomes.commit();
+        samplesWritten += episode.count();
+    }
+
+    private void openNextChunk() throws IOException {
+        closeChunk();
+        String base = prefix + "_" + String.format("%04d", chunkIndex++);
+        boards = new MappedNpyArray(dir.resolve(base + "_boards.npy"),
+                new int[]{2, BoardTensorEncoder.HEIGHT, BoardTensorEncoder.WIDTH}, chunkRows);
+        features = new MappedNpyArray(dir.resolve(base + "_features.npy"),
+                new int[]{BoardTensorEncoder.FEATURE_SIZE}, chunkRows);
+        returns = new MappedNpyArray(dir.resolve(base + "_returns.npy"), new int[0], chunkRows);
+        outcomes = new MappedNpyArray(dir.resolve(base + "_outcomes.npy"), new int[0], chunkRows);
+    }
+
+    private void closeChunk() throws IOException {
+        if (boards == null) return;
+        boards.close();
+        features.close();
+        returns.close();
+        outcomes.close();
+        boards = features = returns = outcomes = null;
+    }
+}
@@ -0,0 +1,264 @@
+package org.yourcompany.yourproject.controller;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import org.yourcompany.yourproject.player.BatchEnvironment;
+import org.yourcompany.yourproject.player.SearchArena;
+import org.yourcompany.yourproject.player.TetrisAIBrain;
+
+/**
+ * Python から Java の GameLogic を動かすための共有メモリ (メモリマップしたファイル) の窓口。
+ * 中身は BatchEnvironment で、観測はこのファイルの中に直接書かれるので、
+ * Python 側 (java_bridge.py) は numpy の配列としてコピーせずに読める。
+ *
+ * <p>やりとりは要求リング (Python → Java) と応答リング (Java → Python) の2本。
+ * どちらも書き手1・読み手1のリングで、書き手は中身を書いてから head を、読み手は読み終えてから tail を進める
+ * (Java 側は acquire / release で読み書きする)。ロックは使わない。
+ *
+ * <p>ファイルの並び (リトルエンディアン):
+ * <pre>
+ *   0   "OBSB", 版, 環境数, OBS_SIZE, MAX_PLACEMENTS, リングの枠数
+ *   24  各領域のオフセット (HEADER_FIELDS の順)
+ *   128 要求 head (long, Python が書く)   192 要求 tail (long, Java が書く)
+ *   256 応答 head (long, Java が書く)     320 応答 tail (long, Python が書く)
+ *   4096 以降: 各領域 (64 バイト境界)
+ * </pre>
+ * 要求/応答の1枠は 16 バイト: {int コマンド, int 通し番号, long 引数} / {int コマンド, int 通し番号, int 結果, int 予備}。
+ *
+ * 使い方: SharedMemoryBridge &lt;file&gt; &lt;環境数&gt; [--model file.onnx]
+ */
+public final class SharedMemoryBridge implements AutoCloseable {
+
+    public static final int MAGIC = 0x4253424F; // "OBSB" (リトルエンディアン)
+    public static final int VERSION = 1;
+
+    // --- コマンド ---
+    public static final int CMD_RESET = 1;     // seeds[] で全環境をやり直す
+    public static final int CMD_STEP = 2;      // actions[] の合法手で全環境を1手進める
+    public static final int CMD_SUGGEST = 3;   // 各環境で AI が選ぶ手を suggestions[] に書く
+    public static final int CMD_RESET_ENV = 4; // 引数の環境だけ seeds[引数] でやり直す
+    public static final int CMD_SHUTDOWN = 255;
+
+    public static final int STATUS_OK = 0;
+    public static final int STATUS_ERROR = -1;
+
+    private static final int RING_SLOTS = 64;
+    private static final int SLOT_SIZE = 16;
+    private static final int DATA_START = 4096;
+    private static final int REQ_HEAD = 128, REQ_TAIL = 192, RESP_HEAD = 256, RESP_TAIL = 320;
+    // 領域 (ヘッダ 24 バイト目から int で並べるオフセットの順)
+    private static final String[] HEADER_FIELDS = {
+        "seeds", "actions", "observations", "placementCounts", "placementX", "placementY", "placementRot",
+        "placementHold", "rewards", "attacks", "linesCleared", "dones", "suggestions", "requestRing", "responseRing"
+    };
+    private static final int SPINS_BEFORE_PARK = 10_000;
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final int envCount;
+    private final FileChannel channel;
+    private final MappedByteBuffer mem;
+    private final BatchEnvironment env;
+    private final TetrisAIBrain brain;
+    private final ThreadLocal<SearchArena> arenas = ThreadLocal.withInitial(SearchArena::new);
+
+    private final int seedsOff, actionsOff, countsOff, pxOff, pyOff, protOff, pholdOff;
+    private final int rewardsOff, attacksOff, linesOff, donesOff, suggestOff, reqRingOff, respRingOff;
+    private final long[] seeds;
+    private final int[] actions;
+    private final int[] holdScratch;
+
+    public SharedMemoryBridge(Path file, int envCount, TetrisAIBrain brain) throws IOException {
+        this.envCount = envCount;
+        this.brain = brain;
+        int mp = BatchEnvironment.MAX_PLACEMENTS;
+        int[] sizes = {
+            envCount * Long.BYTES, envCount * Integer.BYTES, envCount * BatchEnvironment.OBS_SIZE * Float.BYTES,
+            envCount * Integer.BYTES, envCount * mp * Integer.BYTES, envCount * mp * Integer.BYTES,
+            envCount * mp * Integer.BYTES, envCount * mp * Integer.BYTES, envCount * Float.BYTES,
+            envCount * Integer.BYTES, envCount * Integer.BYTES, envCount * Integer.BYTES, envCount * Integer.BYTES,
+            RING_SLOTS * SLOT_SIZE, RING_SLOTS * SLOT_SIZE
+        };
+        int[] offsets = new int[sizes.length];
+        int pos = DATA_START;
+        for (int i = 0; i < sizes.length; i++) {
+            offsets[i] = pos;
+            pos = align64(pos + sizes[i]);
+        }
+        seedsOff = offsets[0];
+        actionsOff = offsets[1];
+        int obsOff = offsets[2];
+        countsOff = offsets[3];
+        pxOff = offsets[4];
+        pyOff = offsets[5];
+        protOff = offsets[6];
+        pholdOff = offsets[7];
+        rewardsOff = offsets[8];
+        attacksOff = offsets[9];
+        linesOff = offsets[10];
+        donesOff = offsets[11];
+        suggestOff = offsets[12];
+        reqRingOff = offsets[13];
+        respRingOff = offsets[14];
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mem = channel.map(FileChannel.MapMode.READ_WRITE, 0, pos);
+        mem.order(ByteOrder.LITTLE_ENDIAN);
+
+        env = new BatchEnvironment(envCount, 1.0f, 1.0f, 0.0f,
+                slice(obsOff, envCount * BatchEnvironment.OBS_SIZE * Float.BYTES).asFloatBuffer());
+        seeds = new long[envCount];
+        actions = new int[envCount];
+        holdScratch = new int[envCount * mp];
+
+        mem.putInt(4, VERSION);
+        mem.putInt(8, envCount);
+        mem.putInt(12, BatchEnvironment.OBS_SIZE);
+        mem.putInt(16, mp);
+        mem.putInt(20, RING_SLOTS);
+        for (int i = 0; i < offsets.length; i++) mem.putInt(24 + i * Integer.BYTES, offsets[i]);
+        // (★) マジックは最後に release で書く (Python 側はこれを見てから読み始めるので、ヘッダとオフセットが先に見えている必要がある)
+        // リングの head/tail は作り直したばかりのファイルなので 0 のまま
+        INT_VIEW.setRelease(mem, 0, MAGIC);
+        mem.force();
+    }
+
+    /**
+     * 要求を処理し続けます。SHUTDOWN を受け取ったら戻る。
+     */
+    public void serve() {
+        long reqTail = 0;
+        long respHead = 0;
+        int idle = 0;
+        while (true) {
+            long reqHead = (long) LONG_VIEW.getAcquire(mem, REQ_HEAD);
+            if (reqTail == reqHead) {
+                if (++idle < SPINS_BEFORE_PARK) Thread.onSpinWait();
+                else LockSupport.parkNanos(50_000);
+                continue;
+            }
+            idle = 0;
+            int slot = reqRingOff + (int) (reqTail % RING_SLOTS) * SLOT_SIZE;
+            int cmd = mem.getInt(slot);
+            int seq = mem.getInt(slot + 4);
+            long arg = mem.getLong(slot + 8);
+            reqTail++;
+            LONG_VIEW.setRelease(mem, REQ_TAIL, reqTail);
+
+            int status = execute(cmd, arg);
+
+            // 応答リングが一杯なら Python が読むまで待つ
+            while (respHead - (long) LONG_VIEW.getAcquire(mem, RESP_TAIL) >= RING_SLOTS) Thread.onSpinWait();
+            int out = respRingOff + (int) (respHead % RING_SLOTS) * SLOT_SIZE;
+            mem.putInt(out, cmd);
+            mem.putInt(out + 4, seq);
+            mem.putInt(out + 8, status);
+            mem.putInt(out + 12, 0);
+            respHead++;
+            LONG_VIEW.setRelease(mem, RESP_HEAD, respHead);
+            if (cmd == CMD_SHUTDOWN) return;
+        }
+    }
+
+    private int execute(int cmd, long arg) {
+        try {
+            switch (cmd) {
+                case CMD_RESET -> {
+                    for (int i = 0; i < envCount; i++) seeds[i] = mem.getLong(seedsOff + i * Long.BYTES);
+                    env.reset(seeds);
+                    publish();
+                }
+                case CMD_STEP -> {
+                    slice(actionsOff, envCount * Integer.BYTES).asIntBuffer().get(actions);
+                    env.step(actions);
+                    publish();
+                }
+                case CMD_SUGGEST -> {
+                    IntBuffer out = slice(suggestOff, envCount * Integer.BYTES).asIntBuffer();
+                    int[] suggestions = new int[envCount];
+                    IntStream.range(0, envCount).parallel()
+                            .forEach(i -> suggestions[i] = env.suggestPlacement(i, brain, arenas.get()));
+                    out.put(suggestions);
+                }
+                case CMD_RESET_ENV -> {
+                    int i = (int) arg;
+                    env.resetEnv(i, mem.getLong(seedsOff + i * Long.BYTES));
+                    publish();
+                }
+                case CMD_SHUTDOWN -> { }
+                default -> {
+                    System.err.println("Bridge: unknown command " + cmd);
+                    return STATUS_ERROR;
+                }
+            }
+            return STATUS_OK;
+        } catch (RuntimeException e) {
+            System.err.println("Bridge: command " + cmd + " failed: " + e.getMessage());
+            return STATUS_ERROR;
+        }
+    }
+
+    /** 観測以外の結果 (合法手・報酬など) を共有メモリに写す。観測は BatchEnvironment が直接書いている。 */
+    private void publish() {
+        BatchEnvironment.StepResult r = env.getResult();
+        int mp = BatchEnvironment.MAX_PLACEMENTS;
+        slice(countsOff, envCount * Integer.BYTES).asIntBuffer().put(r.placementCounts());
+        slice(pxOff, envCount * mp * Integer.BYTES).asIntBuffer().put(r.placementX());
+        slice(pyOff, envCount * mp * Integer.BYTES).asIntBuffer().put(r.placementY());
+        slice(protOff, envCount * mp * Integer.BYTES).asIntBuffer().put(r.placementRot());
+        boolean[] hold = r.placementHold();
+        for (int i = 0; i < holdScratch.length; i++) holdScratch[i] = hold[i] ? 1 : 0;
+        slice(pholdOff, envCount * mp * Integer.BYTES).asIntBuffer().put(holdScratch);
+        slice(rewardsOff, envCount * Float.BYTES).asFloatBuffer().put(r.rewards());
+        slice(attacksOff, envCount * Integer.BYTES).asIntBuffer().put(r.attacks());
+        slice(linesOff, envCount * Integer.BYTES).asIntBuffer().put(r.linesCleared());
+        IntBuffer dones = slice(donesOff, envCount * Integer.BYTES).asIntBuffer();
+        for (int i = 0; i < envCount; i++) dones.put(i, r.dones()[i] ? 1 : 0);
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        return mem.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int align64(int v) {
+        return (v + 63) & ~63;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mem.force();
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SharedMemoryBridge <file> <envCount> [--model file.onnx]");
+            return;
+        }
+        TetrisAIBrain brain = new TetrisAIBrain();
+        if (args.length > 3 && args[2].equals("--model")) {
+            try {
+                brain = new TetrisAIBrain(args[3]);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to load model " + args[3] + ": " + e.getMessage() + " (falling back to heuristic)");
+            }
+        }
+        try (SharedMemoryBridge bridge = new SharedMemoryBridge(Path.of(args[0]), Integer.parseInt(args[1]), brain)) {
+            System.out.println("Bridge ready: " + args[0] + " (" + args[1] + " envs, fields " + String.join(",", HEADER_FIELDS) + ")");
+            bridge.serve();
+        }
+    }
+}
@@ -1,41 +1,226 @@
 package org.yourcompany.yourproject.controller;
+import java.util.List;
+import java.util.Random;
+
 import org.yourcompany.yourproject.config.GameAction;
+import org.yourcompany.yourproject.model.Board;
 import org.yourcompany.yourproject.model.GameLogic;
+import org.yourcompany.yourproject.model.RotationSystem;
+import org.yourcompany.yourproject.model.Shape;
+import org.yourcompany.yourproject.model.Tetromino;
 import org.yourcompany.yourproject.player.AIPlayer;
+import org.yourcompany.yourproject.player.InstantInputPlayer;
 import org.yourcompany.yourproject.player.Player;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
 public class VersusManager {
+
+    /** 1フレーム分の update() (両プレイヤーの入力と GameLogic.update) の JFR イベント。 */
+    @Name("obseris.VersusUpdate")
+    @Label("Versus Update")
+    @Category({"Obseris", "Game"})
+    @Description("One frame of VersusManager.update for both players")
+    @StackTrace(false)
+    static final class UpdateEvent extends Event {
+        @Label("Frame")
+        long frame;
+        @Label("Replay")
+        boolean replay;
+    }
     private GameLogic player1Logic;
     private GameLogic player2Logic;
     private final Player player1;
     private final Player player2;
+
+    // (★) リプレイ: 時間はフレーム数で数え (1フレーム = 1/60 秒)、試合ごとに乱数の種を決める
+    private long frame = 0;
+    private final ReplayRecorder recorder;
+    private final List<ReplayReader.Game> replayGames;
+    private int replayGameIndex = 0;
+    private int replayCursor = 0;
+    private boolean recorderClosed = false;
+
     public VersusManager(GameLogic logic1, GameLogic logic2, Player p1, Player p2) {
+        this(logic1, logic2, p1, p2, null);
+    }
+
+    /**
+     * @param recorder 入力を記録する先 (記録しないなら null)
+     */
+    public VersusManager(GameLogic logic1, GameLogic logic2, Player p1, Player p2, ReplayRecorder recorder) {
+        this(logic1, logic2, p1, p2, recorder, null);
+    }
+
+    /**
+     * (★) リプレイ再生用。プレイヤーの代わりに記録された入力を順に流す。
+     */
+    public VersusManager(GameLogic logic1, GameLogic logic2, List<ReplayReader.Game> replayGames) {
+        this(logic1, logic2, null, null, null, replayGames);
+    }
+
+    private VersusManager(GameLogic logic1, GameLogic logic2, Player p1, Player p2,
+                          ReplayRecorder recorder, List<ReplayReader.Game> replayGames) {
         this.player1Logic = logic1;
         this.player2Logic = logic2;
         this.player1 = p1;
         this.player2 = p2;
+        this.recorder = recorder;
+        this.replayGames = replayGames;
 
         // GameLogicインスタンスにお互いをマネージャーとして登録
         this.player1Logic.setVersusManager(this);
         this.player2Logic.setVersusManager(this);
+        this.player1Logic.setClock(this::frameClockMillis);
+        this.player2Logic.setClock(this::frameClockMillis);
+        beginGame();
+    }
+
+    /**
+     * 試合を始める: フレームを 0 に戻し、両者のツモ順を乱数の種から作り直す。
+     */
+    private void beginGame() {
+        frame = 0;
+        replayCursor = 0;
+        long seed1, seed2;
+        if (replayGames != null) {
+            ReplayReader.Game game = currentReplayGame();
+            seed1 = (game != null) ? game.seed1() : 0;
+            seed2 = (game != null) ? game.seed2() : 0;
+        } else {
+            Random seeds = new Random();
+            seed1 = seeds.nextLong();
+            seed2 = seeds.nextLong();
+        }
+        player1Logic.reset(seed1);
+        player2Logic.reset(seed2);
+        if (recorder != null) recorder.beginGame(seed1, seed2);
+    }
+
+    private long frameClockMillis() {
+        return frame * 1000 / 60;
     }
 
     /**
      * ゲームのメインループ。GameControllerのタイマーから呼ばれる。
      */
     public void update() {
+        UpdateEvent event = new UpdateEvent();
+        event.begin();
         // Player1の更新
-        if (!player1Logic.isGameOver()) {
-            GameAction p1Action = player1.getAction(player1Logic);
-            executeAction(player1Logic, p1Action);
-            player1Logic.update();
-        }
+        updatePlayer(player1Logic, player1);
 
         // Player2の更新
-        if (!player2Logic.isGameOver()) {
-            GameAction p2Action = player2.getAction(player2Logic);
-            executeAction(player2Logic, p2Action);
-            player2Logic.update();
+        updatePlayer(player2Logic, player2);
+
+        frame++;
+        if (recorder != null && (player1Logic.isGameOver() || player2Logic.isGameOver())) {
+            recorder.endGame(frame);
+        }
+        event.frame = frame - 1;
+        event.replay = replayGames != null;
+        event.commit();
+    }
+
+    private void updatePlayer(GameLogic logic, Player player) {
+        if (logic.isGameOver()) return;
+        if (replayGames != null) {
+            replayInputs(logic);
+        } else if (player instanceof InstantInputPlayer instant && instant.isInstantInput()) {
+            executeInstantPlan(logic, instant, instant.pollInstantPlan(logic));
+        } else {
+            executeAction(logic, player.getAction(logic));
         }
+        logic.update();
+    }
+
+    /**
+     * (★) リプレイ再生: このフレームにこのプレイヤーが行った入力を記録順にすべて適用する。
+     */
+    private void replayInputs(GameLogic logic) {
+        ReplayReader.Game game = currentReplayGame();
+        if (game == null) return;
+        int player = playerIndex(logic);
+        while (replayCursor < game.eventCount()
+                && game.frames()[replayCursor] == frame && game.players()[replayCursor] == player) {
+            int code = game.codes()[replayCursor++];
+            if (code == ReplayRecorder.CODE_UPDATE) {
+                logic.update();
+            } else {
+                applyAction(logic, GameAction.values()[code]);
+            }
+        }
+    }
+
+    /**
+     * (★) 即時入力モード: 1手分の操作列をこのフレーム内ですべて GameLogic に適用する。
+     * 各操作は通常の入力と同じ GameLogic のメソッドを通るため、不正な移動は弾かれる。
+     * (★) 適用する前に、操作列を写しのミノでなぞって計画通りの x・y・向きに着地するかを確かめる。
+     * 違えば探索が評価していない場所なので、HOLD も含めて何も適用せずにプレイヤーに計画し直させる。
+     */
+    private void executeInstantPlan(GameLogic logic, InstantInputPlayer player, InstantInputPlayer.InstantPlan plan) {
+        if (plan == null) return;
+        if (!landsAsPlanned(logic, plan)) {
+            player.instantPlanRejected(plan);
+            return;
+        }
+        for (GameAction action : plan.actions()) {
+            if (logic.isGameOver()) return;
+            // HOLD 直後など、次のミノがまだ出現していなければ出現まで進める
+            for (int i = 0; logic.getCurrentTetromino() == null && i <= GameLogic.ARE_FRAMES; i++) {
+                if (recorder != null) recorder.extraUpdate(frame, playerIndex(logic));
+                logic.update();
+            }
+            executeAction(logic, action);
+        }
+    }
+
+    /**
+     * 操作列を今のミノの写しでなぞり、HARD_DROP で計画の x・y・向きに着地するか (盤面もミノも動かさない)。
+     * 移動・回転・SOFT_DROP・HOLD は GameLogic と同じ規則 (isValidPosition / RotationSystem.tryRotate / spawnYAfterHold) で進める。
+     * 即時入力では操作の合間に update() を挟まないので、重力や固定でずれることはない。
+     */
+    private static boolean landsAsPlanned(GameLogic logic, InstantInputPlayer.InstantPlan plan) {
+        Tetromino current = logic.getCurrentTetromino();
+        if (current == null || current.getPieceShape() != plan.startShape()) return false;
+        Board board = logic.getBoard();
+        Tetromino piece = new Tetromino(current);
+        boolean canHold = logic.getCanHold();
+        for (GameAction action : plan.actions()) {
+            switch (action) {
+                case HOLD -> {
+                    boolean swap = logic.getHoldTetromino() != null;
+                    if (!canHold || (!swap && logic.getNextQueue().isEmpty())) return false;
+                    Shape.Tetrominoes shape = swap ? logic.getHoldTetromino().getPieceShape()
+                                                   : logic.getNextQueue().get(0).getPieceShape();
+                    piece = new Tetromino(shape);
+                    piece.resetPositionAndState();
+                    piece.moveBy(0, GameLogic.spawnYAfterHold(board, shape, swap) - piece.getY());
+                    if (!board.isValidPosition(piece.getCoords(), piece.getX(), piece.getY())) return false;
+                    canHold = false;
+                }
+                case MOVE_LEFT, MOVE_RIGHT -> {
+                    int dx = (action == GameAction.MOVE_LEFT) ? -1 : 1;
+                    if (board.isValidPosition(piece.getCoords(), piece.getX() + dx, piece.getY())) piece.moveBy(dx, 0);
+                }
+                case ROTATE_LEFT, ROTATE_RIGHT -> RotationSystem.tryRotate(piece, board, action == GameAction.ROTATE_RIGHT);
+                case SOFT_DROP -> {
+                    if (board.isValidPosition(piece.getCoords(), piece.getX(), piece.getY() + 1)) piece.moveDown();
+                }
+                case HARD_DROP -> {
+                    int y = piece.getY();
+                    while (board.isValidPosition(piece.getCoords(), piece.getX(), y + 1)) y++;
+                    return piece.getX() == plan.targetX() && y == plan.targetY() && piece.getRotationState() == plan.targetRot();
+                }
+                default -> { }
+            }
+        }
+        return false; // HARD_DROP が無い
     }
 
     /**
@@ -67,6 +252,11 @@ public class VersusManager {
 
     private void executeAction(GameLogic logic, GameAction action) {
         if (action == null || action == GameAction.NONE) return;
+        if (recorder != null) recorder.action(frame, playerIndex(logic), action);
+        applyAction(logic, action);
+    }
+
+    private void applyAction(GameLogic logic, GameAction action) {
         switch (action) {
             case MOVE_LEFT -> logic.moveLeft();
             case MOVE_RIGHT -> logic.moveRight();
@@ -74,20 +264,52 @@ public class VersusManager {
             case ROTATE_RIGHT -> logic.rotateRight();
             case START_SOFT_DROP -> logic.setSoftDropState(true);
             case STOP_SOFT_DROP  -> logic.setSoftDropState(false);
+            case SOFT_DROP -> logic.softDropStep();
             case HARD_DROP -> logic.hardDrop();
             case HOLD -> logic.hold();
         }
     }
 
+    private int playerIndex(GameLogic logic) {
+        return (logic == player1Logic) ? 0 : 1;
+    }
+
+    private ReplayReader.Game currentReplayGame() {
+        return (replayGameIndex < replayGames.size()) ? replayGames.get(replayGameIndex) : null;
+    }
+
     public void resetGame() {
-        this.player1Logic.reset(); 
-        this.player2Logic.reset();
+        if (recorder != null) recorder.endGame(frame);
+        if (replayGames != null) replayGameIndex++; // リプレイは次の試合へ
+        beginGame();
         
         if (player1 instanceof AIPlayer) ((AIPlayer) player1).clearActionQueue();
         if (player2 instanceof AIPlayer) ((AIPlayer) player2).clearActionQueue();
     }
 
 
+    /**
+     * リプレイ再生中の試合の記録がすべて終わったか (再生でなければ常に false)。
+     */
+    public boolean isReplayFinished() {
+        if (replayGames == null) return false;
+        ReplayReader.Game game = currentReplayGame();
+        return game == null || (replayCursor >= game.eventCount() && frame >= game.endFrame());
+    }
+
+    public long getFrame() { return frame; }
+
+    /**
+     * (★) 記録を今のフレームで締めてファイルを閉じます (ウィンドウを閉じるときに呼ぶ)。
+     * update() を回すスレッドを止めてから呼ぶこと。2回目以降は何もしない。
+     */
+    public void closeRecorder() {
+        if (recorder == null || recorderClosed) return;
+        recorderClosed = true;
+        recorder.endGame(frame);
+        recorder.close();
+    }
+
     // --- Viewが描画するためのゲッター ---
     public GameLogic getPlayer1Logic() { return player1Logic; }
     public GameLogic getPlayer2Logic() { return player2Logic; }
@@ -7,10 +7,31 @@ public class Board {
     public static final int VISIBLE_BOARD_HEIGHT = 20; // プレイヤーに見える盤面の高さ
     public static final int TOTAL_BOARD_HEIGHT = 40;   // 内部データとしての盤面の全高
 
+    private static final int FULL_ROW_BITS = (1 << BOARD_WIDTH) - 1;
+    private static final int EMPTY_ROW_TRANSITIONS = 2; // 左右の壁との境目
+
+    // (★) 行はリングバッファで保持する。論理行 y は物理行 (base + y) % TOTAL_BOARD_HEIGHT。
+    // せり上げは base をずらすだけ、ライン消去は物理行の入れ替えによる1回の詰め直しで済む。
+    // 行配列は盤面ごとに持ち、消去やせり上げでも作り直さずに使い回す。
     private final Color[][] grid;
+    private int base = 0;
+
+    // --- 評価・探索用の集計値 (placeTetromino / clearLines / addGarbageLines で差分更新) ---
+    private final int[] rowBits;        // 各行の占有ビット (bit x = 列 x)。物理行で添字付け
+    private final int[] rowTransitions; // 各行の row transitions (左右の壁は埋まっている扱い)。物理行で添字付け
+    private final int[] columnTops;     // 各列で一番上のブロックの y (空の列は TOTAL_BOARD_HEIGHT)
+    private final int[] columnFill;     // 各列のブロック数
+    private int totalRowTransitions;
 
     public Board() {
         grid = new Color[TOTAL_BOARD_HEIGHT][BOARD_WIDTH];
+        rowBits = new int[TOTAL_BOARD_HEIGHT];
+        rowTransitions = new int[TOTAL_BOARD_HEIGHT];
+        columnTops = new int[BOARD_WIDTH];
+        columnFill = new int[BOARD_WIDTH];
+        Arrays.fill(rowTransitions, EMPTY_ROW_TRANSITIONS);
+        Arrays.fill(columnTops, TOTAL_BOARD_HEIGHT);
+        totalRowTransitions = EMPTY_ROW_TRANSITIONS * TOTAL_BOARD_HEIGHT;
     }
 
     /**
@@ -26,13 +47,27 @@ public class Board {
                 return false;
             }
             // 他ブロックとの衝突チェック
-            if (grid[boardY][boardX] != null) {
+            if ((rowBits[phys(boardY)] & (1 << boardX)) != 0) {
                 return false;
             }
         }
         return true;
     }
 
+    /**
+     * 形状 g を (pieceX, pieceY) に置けるかを、行ビットのマスクで判定します (isValidPosition の表引き版)。
+     */
+    public boolean fits(PieceGeometry g, int pieceX, int pieceY) {
+        int leftX = pieceX + g.left(), topY = pieceY + g.top(), rows = g.rows();
+        if (leftX < 0 || topY < 0 || topY + rows > TOTAL_BOARD_HEIGHT) return false;
+        int[] masks = g.rowMasks;
+        for (int r = 0; r < rows; r++) {
+            int m = masks[r] << leftX;
+            if ((m & ~FULL_ROW_BITS) != 0 || (rowBits[phys(topY + r)] & m) != 0) return false;
+        }
+        return true;
+    }
+
     /**
      * テトリミノを盤面に固定します。
      */
@@ -42,37 +77,73 @@ public class Board {
         int pieceX = tetromino.getX();
         int pieceY = tetromino.getY();
         int[][] coords = tetromino.getCoords();
-        for (int[] p : coords) {
-            int boardX = pieceX + p[0];
-            int boardY = pieceY + p[1];
-            if (boardY >= 0 && boardY < TOTAL_BOARD_HEIGHT && boardX >= 0 && boardX < BOARD_WIDTH) {
-                grid[boardY][boardX] = color;
-            }
+        for (int[] p : coords) setCell(pieceX + p[0], pieceY + p[1], color);
+        for (int[] p : coords) refreshRow(pieceY + p[1]);
+    }
+
+    /**
+     * 共有の形状を (pieceX, pieceY) に置いて固定します。探索で Tetromino を作らずに置くためのもの。
+     */
+    public void placePiece(PieceGeometry g, int pieceX, int pieceY, Color color) {
+        for (int i = 0; i < 4; i++) setCell(pieceX + g.cellX(i), pieceY + g.cellY(i), color);
+        for (int i = 0; i < 4; i++) refreshRow(pieceY + g.cellY(i));
+    }
+
+    private void setCell(int boardX, int boardY, Color color) {
+        if (boardY < 0 || boardY >= TOTAL_BOARD_HEIGHT || boardX < 0 || boardX >= BOARD_WIDTH) return;
+        int row = phys(boardY);
+        Color[] cells = grid[row];
+        if (cells[boardX] == null) {
+            rowBits[row] |= 1 << boardX;
+            columnFill[boardX]++;
+            if (boardY < columnTops[boardX]) columnTops[boardX] = boardY;
         }
+        cells[boardX] = color;
+    }
+
+    private void refreshRow(int boardY) {
+        if (boardY >= 0 && boardY < TOTAL_BOARD_HEIGHT) updateRowTransitions(phys(boardY));
     }
 
     /**
      * 揃ったラインを消去し、上のブロックを下にずらします。
+     * 下から1回だけ走査し、残す行を下へ詰める (各行に触れるのは高々1回)。
+     * 消えた行の配列は空にして、上に空いた行としてそのまま再利用する。
      */
     public int clearLines() {
+        int highestRow = TOTAL_BOARD_HEIGHT;
+        for (int x = 0; x < BOARD_WIDTH; x++) highestRow = Math.min(highestRow, columnTops[x]);
+
         int linesCleared = 0;
-        for (int y = TOTAL_BOARD_HEIGHT - 1; y >= 0; y--) {
-            boolean lineIsFull = true;
-            for (int x = 0; x < BOARD_WIDTH; x++) {
-                if (grid[y][x] == null) {
-                    lineIsFull = false;
-                    break;
-                }
-            }
-            if (lineIsFull) {
+        int write = TOTAL_BOARD_HEIGHT - 1;
+        for (int y = TOTAL_BOARD_HEIGHT - 1; y >= highestRow; y--) {
+            int row = phys(y);
+            if (rowBits[row] == FULL_ROW_BITS) {
                 linesCleared++;
-                // y行を削除し、それより上の行をすべて1段下にずらす
-                for (int rowToMove = y; rowToMove > 0; rowToMove--) {
-                    grid[rowToMove] = grid[rowToMove - 1];
-                }
-                grid[0] = new Color[BOARD_WIDTH]; // 一番上の行を空にする
-                y++; // 同じ行を再度チェック
+                totalRowTransitions += EMPTY_ROW_TRANSITIONS - rowTransitions[row];
+                continue;
             }
+            // (y, write] には消える行が溜まっているので、残す行と入れ替えて下に詰める
+            if (write != y) swapRows(phys(write), row);
+            write--;
+        }
+        if (linesCleared == 0) return 0;
+
+        // 上に寄せられた消去済みの行を空行として再利用
+        for (int y = highestRow; y <= write; y++) {
+            int row = phys(y);
+            Arrays.fill(grid[row], null);
+            rowBits[row] = 0;
+            rowTransitions[row] = EMPTY_ROW_TRANSITIONS;
+        }
+
+        // 消えた行は全列が埋まっていたので、各列のブロック数は一律に減る。
+        // ブロックは下にしか動かないので、新しい最上段は元の最上段以下から探せばよい。
+        for (int x = 0; x < BOARD_WIDTH; x++) {
+            columnFill[x] -= linesCleared;
+            int top = columnTops[x];
+            while (top < TOTAL_BOARD_HEIGHT && (rowBits[phys(top)] & (1 << x)) == 0) top++;
+            columnTops[x] = top;
         }
         return linesCleared;
     }
@@ -83,50 +154,65 @@ public class Board {
      * @return せり上がりの結果、ブロックが盤面の上限を突き抜けたらtrue（ゲームオーバー）
      */
     public boolean addGarbageLines(int lineCount) {
+        return addGarbageLines(lineCount, (int) (Math.random() * BOARD_WIDTH));
+    }
+
+    /**
+     * お邪魔ブロックを、穴の列を指定してせり上げます。
+     * @param holePosition 穴を開ける列
+     */
+    public boolean addGarbageLines(int lineCount, int holePosition) {
         if (lineCount <= 0) return false;
 
         // 1. せり上がりでブロックが盤面外に押し出されるかチェック (ゲームオーバー条件C)
-        for (int y = 0; y < lineCount; y++) {
-            for (int x = 0; x < BOARD_WIDTH; x++) {
-                if (grid[y][x] != null) {
-                    return true; // ブロックが消滅＝ゲームオーバー
-                }
+        for (int y = 0; y < Math.min(lineCount, TOTAL_BOARD_HEIGHT); y++) {
+            if (rowBits[phys(y)] != 0) {
+                return true; // ブロックが消滅＝ゲームオーバー
             }
         }
 
-        // 2. 既存の行を上にずらす
-        for (int y = 0; y < TOTAL_BOARD_HEIGHT - lineCount; y++) {
-            grid[y] = grid[y + lineCount];
+        // 2. 既存の行を上にずらす (リングの起点を進めるだけ。押し出された空行が一番下に回る)
+        base = (base + lineCount) % TOTAL_BOARD_HEIGHT;
+        for (int x = 0; x < BOARD_WIDTH; x++) {
+            if (columnTops[x] < TOTAL_BOARD_HEIGHT) columnTops[x] -= lineCount;
         }
 
-        // 3. 下にお邪魔ブロック行を追加
-        int holePosition = (int) (Math.random() * BOARD_WIDTH);
+        // 3. 下に回ってきた空行をお邪魔ブロック行にする
+        int garbageBits = FULL_ROW_BITS & ~(1 << holePosition);
         for (int y = TOTAL_BOARD_HEIGHT - lineCount; y < TOTAL_BOARD_HEIGHT; y++) {
-            Color[] garbageLine = new Color[BOARD_WIDTH];
+            int row = phys(y);
+            Color[] garbageLine = grid[row];
             Arrays.fill(garbageLine, Color.GRAY);
             garbageLine[holePosition] = null;
-            grid[y] = garbageLine;
+            rowBits[row] = garbageBits;
+            updateRowTransitions(row);
+        }
+        for (int x = 0; x < BOARD_WIDTH; x++) {
+            if (x == holePosition) continue;
+            columnFill[x] += lineCount;
+            columnTops[x] = Math.min(columnTops[x], TOTAL_BOARD_HEIGHT - lineCount);
         }
         return false;
     }
 
     public boolean isBoardEmpty() {
-        for (int y = 0; y < TOTAL_BOARD_HEIGHT; y++) {
-            for (int x = 0; x < BOARD_WIDTH; x++) {
-                if (grid[y][x] != null) return false;
-            }
+        for (int x = 0; x < BOARD_WIDTH; x++) {
+            if (columnFill[x] != 0) return false;
         }
         return true;
     }
 
     public Color getGridAt(int x, int y) {
         if (y >= 0 && y < TOTAL_BOARD_HEIGHT && x >= 0 && x < BOARD_WIDTH) {
-            return grid[y][x];
+            return grid[phys(y)][x];
         }
         return null;
     }
 
     
+    /**
+     * 盤面の完全なコピーを作ります (行配列も複製するので、元の盤面とは何も共有しない)。
+     */
     public Board(Board other) {
         this.grid = new java.awt.Color[TOTAL_BOARD_HEIGHT][BOARD_WIDTH];
         for (int y = 0; y < TOTAL_BOARD_HEIGHT; y++) {
@@ -134,23 +220,133 @@ public class Board {
                 this.grid[y][x] = other.grid[y][x];
             }
         }
+        this.base = other.base;
+        this.rowBits = other.rowBits.clone();
+        this.rowTransitions = other.rowTransitions.clone();
+        this.columnTops = other.columnTops.clone();
+        this.columnFill = other.columnFill.clone();
+        this.totalRowTransitions = other.totalRowTransitions;
     }
 
-    public int countFullLines() {
-        int count = 0;
-        for (int y = 0; y < TOTAL_BOARD_HEIGHT; y++) {
-            boolean lineIsFull = true;
+    /**
+     * 別の盤面の内容をこの盤面に上書きコピーします (新しい配列は作らない)。
+     * 探索で作業用の盤面を使い回すためのもの。
+     */
+    public void copyFrom(Board other) {
+        if (other == this) return;
+        for (int row = 0; row < TOTAL_BOARD_HEIGHT; row++) {
+            System.arraycopy(other.grid[row], 0, grid[row], 0, BOARD_WIDTH);
+        }
+        this.base = other.base;
+        System.arraycopy(other.rowBits, 0, rowBits, 0, TOTAL_BOARD_HEIGHT);
+        System.arraycopy(other.rowTransitions, 0, rowTransitions, 0, TOTAL_BOARD_HEIGHT);
+        System.arraycopy(other.columnTops, 0, columnTops, 0, BOARD_WIDTH);
+        System.arraycopy(other.columnFill, 0, columnFill, 0, BOARD_WIDTH);
+        this.totalRowTransitions = other.totalRowTransitions;
+    }
+
+    /**
+     * 行ごとの占有ビット (src[offset + y] = 行 y) から盤面を組み立て直します。
+     * 色の情報は持たないので、埋まっているマスはすべて灰色になる。
+     */
+    public void loadRowBits(int[] src, int offset) {
+        base = 0;
+        totalRowTransitions = 0;
+        Arrays.fill(columnFill, 0);
+        Arrays.fill(columnTops, TOTAL_BOARD_HEIGHT);
+        for (int y = TOTAL_BOARD_HEIGHT - 1; y >= 0; y--) {
+            int bits = src[offset + y] & FULL_ROW_BITS;
+            Color[] cells = grid[y];
             for (int x = 0; x < BOARD_WIDTH; x++) {
-                if (grid[y][x] == null) {
-                    lineIsFull = false;
-                    break;
+                if ((bits & (1 << x)) != 0) {
+                    cells[x] = Color.GRAY;
+                    columnFill[x]++;
+                    columnTops[x] = y;
+                } else {
+                    cells[x] = null;
                 }
             }
-            if (lineIsFull) count++;
+            rowBits[y] = bits;
+            rowTransitions[y] = 0;
+            updateRowTransitions(y);
+        }
+    }
+
+    /** 行ごとの占有ビットを dst[offset + y] に書き出します (loadRowBits の逆)。 */
+    public void copyRowBitsTo(int[] dst, int offset) {
+        for (int y = 0; y < TOTAL_BOARD_HEIGHT; y++) {
+            dst[offset + y] = rowBits[phys(y)];
+        }
+    }
+
+    public int countFullLines() {
+        int count = 0;
+        for (int row = 0; row < TOTAL_BOARD_HEIGHT; row++) {
+            if (rowBits[row] == FULL_ROW_BITS) count++;
         }
         return count;
     }
 
+    // --- 集計値の参照 (すべて O(1) または O(幅)) ---
+
+    /** 行 y の占有ビット (bit x = 列 x)。 */
+    public int getRowBits(int y) { return rowBits[phys(y)]; }
+
+    /** 列 x で一番上にあるブロックの y。空の列は TOTAL_BOARD_HEIGHT。 */
+    public int getColumnTop(int x) { return columnTops[x]; }
+
+    /** 列 x の高さ (最下段からのセル数)。 */
+    public int getColumnHeight(int x) { return TOTAL_BOARD_HEIGHT - columnTops[x]; }
+
+    /** 列 x の穴の数 (最上段ブロックより下にある空きセル)。 */
+    public int getColumnHoles(int x) { return (TOTAL_BOARD_HEIGHT - columnTops[x]) - columnFill[x]; }
+
+    public int getHoleCount() {
+        int holes = 0;
+        for (int x = 0; x < BOARD_WIDTH; x++) holes += getColumnHoles(x);
+        return holes;
+    }
+
+    public int getMaxHeight() {
+        int top = TOTAL_BOARD_HEIGHT;
+        for (int x = 0; x < BOARD_WIDTH; x++) top = Math.min(top, columnTops[x]);
+        return TOTAL_BOARD_HEIGHT - top;
+    }
+
+    /** 全行の row transitions の合計 (左右の壁は埋まっている扱い)。 */
+    public int getRowTransitions() { return totalRowTransitions; }
+
+    public int getRowTransitions(int y) { return rowTransitions[phys(y)]; }
+
+    /**
+     * 列 x の井戸の深さ。左右の列 (壁は無限に高い扱い) の低い方との高さの差で、無ければ 0。
+     */
+    public int getWellDepth(int x) {
+        int left = (x == 0) ? TOTAL_BOARD_HEIGHT : getColumnHeight(x - 1);
+        int right = (x == BOARD_WIDTH - 1) ? TOTAL_BOARD_HEIGHT : getColumnHeight(x + 1);
+        return Math.max(0, Math.min(left, right) - getColumnHeight(x));
+    }
+
+    /** 論理行 y → 物理行 */
+    private int phys(int y) {
+        int row = base + y;
+        return (row >= TOTAL_BOARD_HEIGHT) ? row - TOTAL_BOARD_HEIGHT : row;
+    }
+
+    private void swapRows(int a, int b) {
+        Color[] cells = grid[a]; grid[a] = grid[b]; grid[b] = cells;
+        int bits = rowBits[a]; rowBits[a] = rowBits[b]; rowBits[b] = bits;
+        int t = rowTransitions[a]; rowTransitions[a] = rowTransitions[b]; rowTransitions[b] = t;
+    }
+
+    private void updateRowTransitions(int row) {
+        // 両端に壁 (1) を付けた12ビットで、隣り合うビットの差を数える
+        int extended = 1 | (rowBits[row] << 1) | (1 << (BOARD_WIDTH + 1));
+        int transitions = Integer.bitCount((extended ^ (extended >>> 1)) & ((1 << (BOARD_WIDTH + 1)) - 1));
+        totalRowTransitions += transitions - rowTransitions[row];
+        rowTransitions[row] = transitions;
+    }
+
     public Board getBoardAfterGarbage(int lineCount) {
         if (lineCount <= 0) {
             // (★) お邪魔がなければ、現在の盤面の「コピー」をそのまま返す
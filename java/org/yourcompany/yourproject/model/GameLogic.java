@@ -5,19 +5,45 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.Random;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 import org.yourcompany.yourproject.config.ClearInfo;
 import org.yourcompany.yourproject.config.SpinType;
 import org.yourcompany.yourproject.controller.VersusManager;
 
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
 /**
  * ゲームの進行状態とルール全体を管理するモデル。
  * 硬直時間（ARE/Line Clear Delay）を制御するステートマシンを導入。
  */
 public class GameLogic {
 
+    /** ミノの固定 (placeAndStartDelay: ライン消去・火力・おじゃまのせり上げ) の JFR イベント。 */
+    @Name("obseris.Place")
+    @Label("Place Piece")
+    @Category({"Obseris", "Game"})
+    @Description("GameLogic.placeAndStartDelay: locking a piece, clearing lines and applying garbage")
+    @StackTrace(false)
+    static final class PlaceEvent extends Event {
+        @Label("Piece")
+        String piece;
+        @Label("Lines Cleared")
+        int linesCleared;
+        @Label("Attack")
+        int attack;
+        @Label("Game Over")
+        boolean gameOver;
+    }
+
     // --- 設定可能なパラメータ ---
     public static double SDF = 20.0;
     public static int ARE_FRAMES = 0;
@@ -55,11 +81,31 @@ public class GameLogic {
     private Tetromino gameOverTetromino = null;
     private volatile double aiEvaluationScore = 0.0;
     private static final int MAX_GARBAGE_PER_ATTACK = 10;
+    // 直前に固定したミノの火力 (相殺前。パーフェクトクリアの 10 を含む)
+    private int lastAttack = 0;
+    // (★) リプレイ再現用: ツモ順・お邪魔の穴はこの乱数から、時間はこの時計から取る
+    private final Random random = new Random();
+    private LongSupplier clock = System::currentTimeMillis;
 
     public GameLogic(){
         reset();
     }
 
+    /**
+     * 乱数の種を指定してリセットします (同じ種と同じ入力列なら同じ試合になる)。
+     */
+    public void reset(long seed) {
+        random.setSeed(seed);
+        reset();
+    }
+
+    /**
+     * 落下・固定猶予の計時に使う時計 (ミリ秒) を差し替えます。既定は System.currentTimeMillis。
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
     public void reset() {
 
         board = new Board(); // (★) final ではないので new できる
@@ -67,6 +113,7 @@ public class GameLogic {
         isGameOver = false;
         holdTetromino = null;
         canHold = true;
+        isSoftDropping = false; // (★) 前の試合の押しっぱなしを持ち越さない (リプレイの再現のため)
         isB2BActive = false;
         comboCount = -1;
         pendingGarbage = 0;
@@ -77,6 +124,7 @@ public class GameLogic {
         delayCounter = 0; 
         phase = GamePhase.PLAYING; 
         lastClearInfo = null;
+        lastAttack = 0;
         lastFallTime = 0; // (★)
         gameOverTetromino = null; // (★ user_45 で追加したフィールド)
         aiEvaluationScore = 0.0; // (★ user_54 で追加したフィールド)
@@ -130,13 +178,13 @@ public class GameLogic {
         if (isGrounded()) {
             if (!isLockdownActive) {
                 isLockdownActive = true;
-                lockdownStartTime = System.currentTimeMillis();
-            } else if (System.currentTimeMillis() - lockdownStartTime > LOCKDOWN_DELAY) {
+                lockdownStartTime = clock.getAsLong();
+            } else if (clock.getAsLong() - lockdownStartTime > LOCKDOWN_DELAY) {
                 placeAndStartDelay();
             }
         } else {
             deactivateLockdown();
-            long currentTime = System.currentTimeMillis();
+            long currentTime = clock.getAsLong();
             final long currentFallInterval;
             if (isSoftDropping) {
                 // ソフトドロップが有効なら、SDFに基づいた間隔（例: 500ms / 20.0 = 25ms）
@@ -157,8 +205,26 @@ public class GameLogic {
     }
 
     private void placeAndStartDelay() {
+        PlaceEvent event = new PlaceEvent();
+        event.begin();
+        Tetromino placed = currentTetromino;
+        try {
+            lockCurrentPiece();
+        } finally {
+            if (event.shouldCommit()) {
+                event.piece = (placed != null) ? placed.getPieceShape().name() : null;
+                event.linesCleared = (lastClearInfo != null) ? lastClearInfo.getLinesCleared() : 0;
+                event.attack = lastAttack;
+                event.gameOver = isGameOver;
+                event.commit();
+            }
+        }
+    }
+
+    private void lockCurrentPiece() {
         if (currentTetromino == null) return;
         lastClearInfo = null;
+        lastAttack = 0;
         
 
         if (isLockedOut(currentTetromino)) {
@@ -190,6 +256,7 @@ public class GameLogic {
             String clearType = createClearTypeText(linesToClearCount, spinType);
             this.lastClearInfo = new ClearInfo(clearType, linesToClearCount, spinType, b2bBonusApplied, comboCount, isPerfectClear);
 
+            lastAttack = attackPower + (isPerfectClear ? 10 : 0);
             if (versusManager != null && attackPower > 0) {
                 int remainingAttack = versusManager.offsetGarbage(this, attackPower);
                 if (remainingAttack > 0) versusManager.sendAttack(this, remainingAttack);
@@ -215,18 +282,7 @@ public class GameLogic {
     }
 
     private int countFullLines() {
-        int count = 0;
-        for (int y = 0; y < Board.TOTAL_BOARD_HEIGHT; y++) {
-            boolean lineIsFull = true;
-            for (int x = 0; x < Board.BOARD_WIDTH; x++) {
-                if (board.getGridAt(x, y) == null) {
-                    lineIsFull = false;
-                    break;
-                }
-            }
-            if (lineIsFull) count++;
-        }
-        return count;
+        return board.countFullLines();
     }
 
     private String createClearTypeText(int linesCleared, SpinType spinType) {
@@ -259,7 +315,7 @@ public class GameLogic {
         currentTetromino.resetPositionAndState();
         canHold = true;
         resetLockdownState();
-        lastFallTime = System.currentTimeMillis();
+        lastFallTime = clock.getAsLong();
         lastActionWasRotation = false;
         if (!board.isValidPosition(currentTetromino.getCoords(), currentTetromino.getX(), currentTetromino.getY())) {
             currentTetromino.moveBy(0, -1);
@@ -269,11 +325,23 @@ public class GameLogic {
         }
     }
 
+    /**
+     * HOLD した後に操作することになるミノが出る y (x は Tetromino.SPAWN_X、向きは 0)。hold() / spawnNewTetromino と同じ規則。
+     * ホールドが空ならネクストの先頭が spawnNewTetromino で出るので、出現位置が塞がっていれば1段上になる。
+     * 入れ替えのときはずらさない (塞がっていればゲームオーバー)。
+     * @param shape HOLD した後に操作するミノ (入れ替えならホールドのミノ、空ならネクストの先頭)
+     * @param swap ホールドにミノが入っているか
+     */
+    public static int spawnYAfterHold(Board board, Shape.Tetrominoes shape, boolean swap) {
+        if (swap || board.fits(PieceGeometry.of(shape, 0), Tetromino.SPAWN_X, Tetromino.SPAWN_Y)) return Tetromino.SPAWN_Y;
+        return Tetromino.SPAWN_Y - 1;
+    }
+
     private boolean applyGarbage() {
         if (this.pendingGarbage <= 0) return false;
         int lineCount = Math.min(this.pendingGarbage, MAX_GARBAGE_PER_ATTACK);
         this.pendingGarbage -= lineCount;
-        if (board.addGarbageLines(lineCount)) {
+        if (board.addGarbageLines(lineCount, random.nextInt(Board.BOARD_WIDTH))) {
             setGameOver();
             return true;
         }
@@ -284,7 +352,7 @@ public class GameLogic {
         if (isGameOver || currentTetromino == null) return;
         if (board.isValidPosition(currentTetromino.getCoords(), currentTetromino.getX(), currentTetromino.getY() + 1)) {
             currentTetromino.moveDown();
-            lastFallTime = System.currentTimeMillis();
+            lastFallTime = clock.getAsLong();
             lastActionWasRotation = false;
             this.lockdownResetCount = 0;
         }
@@ -309,7 +377,7 @@ public class GameLogic {
         // 即座に1マス落下を試みると、プレイヤーの操作感が向上します。
         if (active) {
             long softDropInterval = (long) (this.fallInterval / SDF);
-            long currentTime = System.currentTimeMillis();
+            long currentTime = clock.getAsLong();
             if (currentTime - lastFallTime >= softDropInterval) {
                 moveDown();
                 score += 1; // 即時落下させた分のスコア
@@ -317,6 +385,20 @@ public class GameLogic {
         }
     }
 
+    /**
+     * ソフトドロップを1マス分だけ即座に実行します (即時入力モード用)。
+     * @return 落下できた場合 true
+     */
+    public boolean softDropStep() {
+        if (isGameOver || currentTetromino == null || phase != GamePhase.PLAYING) return false;
+        if (!board.isValidPosition(currentTetromino.getCoords(), currentTetromino.getX(), currentTetromino.getY() + 1)) {
+            return false;
+        }
+        moveDown();
+        score += 1;
+        return true;
+    }
+
     public void hardDrop() {
         if (isGameOver || currentTetromino == null) return;
         int cellsDropped = 0;
@@ -395,7 +477,7 @@ public class GameLogic {
     private void tryResetLockdownTimer() {
         if (isGrounded()) {
             if (lockdownResetCount < MAX_LOCKDOWN_RESETS) {
-                lockdownStartTime = System.currentTimeMillis();
+                lockdownStartTime = clock.getAsLong();
                 lockdownResetCount++;
             } else {
                 placeAndStartDelay();
@@ -530,7 +612,7 @@ public class GameLogic {
 
     private void fillNextShapesQueue() {
         List<Shape.Tetrominoes> shapes = Arrays.stream(Shape.Tetrominoes.values()).filter(s -> s != Shape.Tetrominoes.NoShape).collect(Collectors.toList());
-        Collections.shuffle(shapes);
+        Collections.shuffle(shapes, random);
         nextShapesQueue.addAll(shapes);
     }
 
@@ -593,6 +675,7 @@ public class GameLogic {
     public boolean isGameOver() { return isGameOver; }
     public int getPendingGarbage() { return pendingGarbage; }
     public ClearInfo getLastClearInfo() { return lastClearInfo; }
+    public int getLastAttack() { return lastAttack; }
     public int getComboCount(){return comboCount;}
     public boolean isB2BActive(){return isB2BActive;}
     public boolean getCanHold() { return this.canHold; }
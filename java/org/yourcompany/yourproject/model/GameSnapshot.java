@@ -0,0 +1,87 @@
+package org.yourcompany.yourproject.model;
+
+import java.awt.Color;
+import java.util.List;
+
+import org.yourcompany.yourproject.config.ClearInfo;
+
+/**
+ * 描画に要る1プレイヤー分の状態を、あるフレームの時点で写したもの (作った後は変わらない)。
+ * シミュレーションスレッドが GameLogic から作り、EDT はこれだけを読んで描く。
+ */
+public final class GameSnapshot {
+
+    /** 描画する最上段の行 (隠し行の最下段)。これより上のセルは写さない。 */
+    public static final int FIRST_ROW = Board.TOTAL_BOARD_HEIGHT - Board.VISIBLE_BOARD_HEIGHT - 1;
+    private static final int ROWS = Board.TOTAL_BOARD_HEIGHT - FIRST_ROW;
+
+    private final Color[] cells; // [(y - FIRST_ROW) * BOARD_WIDTH + x]
+    private final Tetromino current;
+    private final int ghostY;
+    private final Tetromino gameOverTetromino;
+    private final Shape.Tetrominoes hold;
+    private final List<Shape.Tetrominoes> next;
+    private final long score;
+    private final int pendingGarbage;
+    private final boolean gameOver;
+    private final ClearInfo lastClearInfo;
+    private final double aiEvaluationScore;
+
+    private GameSnapshot(GameLogic logic) {
+        Board board = logic.getBoard();
+        cells = new Color[ROWS * Board.BOARD_WIDTH];
+        for (int y = FIRST_ROW; y < Board.TOTAL_BOARD_HEIGHT; y++) {
+            if (board.getRowBits(y) == 0) continue;
+            for (int x = 0; x < Board.BOARD_WIDTH; x++) {
+                cells[(y - FIRST_ROW) * Board.BOARD_WIDTH + x] = board.getGridAt(x, y);
+            }
+        }
+
+        // (★) ミノは GameLogic が動かし続けるので、位置と座標ごとコピーしておく
+        Tetromino live = logic.getCurrentTetromino();
+        current = (live != null) ? new Tetromino(live) : null;
+        int drop = (live != null) ? live.getY() : 0;
+        if (live != null) {
+            while (board.isValidPosition(live.getCoords(), live.getX(), drop + 1)) drop++;
+        }
+        ghostY = drop;
+        Tetromino over = logic.getGameOverTetromino();
+        gameOverTetromino = (over != null) ? new Tetromino(over) : null;
+
+        hold = (logic.getHoldTetromino() != null) ? logic.getHoldTetromino().getPieceShape() : null;
+        List<Tetromino> queue = logic.getNextQueue();
+        Shape.Tetrominoes[] shapes = new Shape.Tetrominoes[queue.size()];
+        for (int i = 0; i < shapes.length; i++) shapes[i] = queue.get(i).getPieceShape();
+        next = List.of(shapes);
+
+        score = logic.getScore();
+        pendingGarbage = logic.getPendingGarbage();
+        gameOver = logic.isGameOver();
+        lastClearInfo = logic.getLastClearInfo();
+        aiEvaluationScore = logic.getAiEvaluationScore();
+    }
+
+    /** logic の今の状態を写します (logic を進めるスレッドから呼ぶこと)。 */
+    public static GameSnapshot of(GameLogic logic) {
+        return new GameSnapshot(logic);
+    }
+
+    /** 盤面のセルの色 (FIRST_ROW より上と空きは null)。 */
+    public Color getGridAt(int x, int y) {
+        if (y < FIRST_ROW || y >= Board.TOTAL_BOARD_HEIGHT || x < 0 || x >= Board.BOARD_WIDTH) return null;
+        return cells[(y - FIRST_ROW) * Board.BOARD_WIDTH + x];
+    }
+
+    /** 操作中のミノ (無ければ null)。返したミノを書き換えないこと。 */
+    public Tetromino getCurrentTetromino() { return current; }
+    /** 操作中のミノをハードドロップしたときの y。 */
+    public int getGhostY() { return ghostY; }
+    public Tetromino getGameOverTetromino() { return gameOverTetromino; }
+    public Shape.Tetrominoes getHoldShape() { return hold; }
+    public List<Shape.Tetrominoes> getNextShapes() { return next; }
+    public long getScore() { return score; }
+    public int getPendingGarbage() { return pendingGarbage; }
+    public boolean isGameOver() { return gameOver; }
+    public ClearInfo getLastClearInfo() { return lastClearInfo; }
+    public double getAiEvaluationScore() { return aiEvaluationScore; }
+}
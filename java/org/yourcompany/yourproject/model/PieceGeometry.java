@@ -0,0 +1,73 @@
+package org.yourcompany.yourproject.model;
+
+import java.util.Arrays;
+
+/**
+ * (形, 回転) ごとのミノの形状 (不変・共有)。
+ * 探索コードは Tetromino を作らず、これを (x, y) に置く形で当たり判定や設置を行う。
+ * Shape.allCoords の配列は書き換え可能なまま共有されているので、探索側はこちらを使うこと。
+ */
+public final class PieceGeometry {
+
+    private static final PieceGeometry[][] TABLE = new PieceGeometry[Shape.Tetrominoes.values().length][4];
+    static {
+        for (Shape.Tetrominoes shape : Shape.Tetrominoes.values()) {
+            for (int rot = 0; rot < 4; rot++) {
+                TABLE[shape.ordinal()][rot] = new PieceGeometry(shape, rot, shape.allCoords.get(rot));
+            }
+        }
+    }
+
+    private final Shape.Tetrominoes shape;
+    private final int rot;
+    private final int[] dx = new int[4];
+    private final int[] dy = new int[4];
+    private final int left, top, rows;
+    // 当たり判定用: 最も左のセルを bit 0 とした行ビット (最も上の行から rows 行分)
+    final int[] rowMasks;
+    // 盤面のセル番号 (y * 幅 + x) に対するセルの相対値 (昇順)。位置によらず並びが変わらない
+    private final int[] sortedCellOffsets = new int[4];
+
+    private PieceGeometry(Shape.Tetrominoes shape, int rot, int[][] coords) {
+        this.shape = shape;
+        this.rot = rot;
+        int l = Integer.MAX_VALUE, t = Integer.MAX_VALUE, b = Integer.MIN_VALUE;
+        for (int i = 0; i < 4; i++) {
+            dx[i] = coords[i][0];
+            dy[i] = coords[i][1];
+            l = Math.min(l, dx[i]);
+            t = Math.min(t, dy[i]);
+            b = Math.max(b, dy[i]);
+        }
+        this.left = l;
+        this.top = t;
+        this.rows = b - t + 1;
+        this.rowMasks = new int[rows];
+        for (int i = 0; i < 4; i++) {
+            rowMasks[dy[i] - t] |= 1 << (dx[i] - l);
+            sortedCellOffsets[i] = dy[i] * Board.BOARD_WIDTH + dx[i];
+        }
+        Arrays.sort(sortedCellOffsets);
+    }
+
+    public static PieceGeometry of(Shape.Tetrominoes shape, int rot) {
+        return TABLE[shape.ordinal()][rot];
+    }
+
+    public Shape.Tetrominoes shape() { return shape; }
+    public int rot() { return rot; }
+
+    /** i 番目 (0-3) のセルの相対座標。 */
+    public int cellX(int i) { return dx[i]; }
+    public int cellY(int i) { return dy[i]; }
+
+    /** 最も左 / 最も上のセルの相対座標と、占める行数。 */
+    public int left() { return left; }
+    public int top() { return top; }
+    public int rows() { return rows; }
+
+    /** (x, y) に置いたときの i 番目のセル番号 (y * 幅 + x) を昇順で返します。 */
+    public int sortedCell(int i, int x, int y) {
+        return y * Board.BOARD_WIDTH + x + sortedCellOffsets[i];
+    }
+}
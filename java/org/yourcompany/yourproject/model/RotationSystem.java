@@ -1,5 +1,4 @@
 package org.yourcompany.yourproject.model;
-import java.awt.Point;
 
 /**
  * SRS（スーパーローテーションシステム）に基づいたテトリミノの回転とウォールキックを処理します。
@@ -19,43 +18,43 @@ public final class RotationSystem {
     }
 
     // J, L, S, T, Z テトリミノ用のウォールキックデータ
-    private static final Point[][] WALL_KICK_DATA_JLSTZ = new Point[][] {
+    private static final int[][][] WALL_KICK_DATA_JLSTZ = {
         // 0 -> R
-        { new Point(0, 0), new Point(-1, 0), new Point(-1, -1), new Point(0, 2), new Point(-1, 2) },
+        { {0, 0}, {-1, 0}, {-1, -1}, {0, 2}, {-1, 2} },
         // R -> 0
-        { new Point(0, 0), new Point(1, 0), new Point(1, 1), new Point(0, -2), new Point(1, -2) },
+        { {0, 0}, {1, 0}, {1, 1}, {0, -2}, {1, -2} },
         // R -> 2
-        { new Point(0, 0), new Point(1, 0), new Point(1, 1), new Point(0, -2), new Point(1, -2) },
+        { {0, 0}, {1, 0}, {1, 1}, {0, -2}, {1, -2} },
         // 2 -> R
-        { new Point(0, 0), new Point(-1, 0), new Point(-1, -1), new Point(0, 2), new Point(-1, 2) },
+        { {0, 0}, {-1, 0}, {-1, -1}, {0, 2}, {-1, 2} },
         // 2 -> L
-        { new Point(0, 0), new Point(1, 0), new Point(1, -1), new Point(0, 2), new Point(1, 2) },
+        { {0, 0}, {1, 0}, {1, -1}, {0, 2}, {1, 2} },
         // L -> 2
-        { new Point(0, 0), new Point(-1, 0), new Point(-1, 1), new Point(0, -2), new Point(-1, -2) },
+        { {0, 0}, {-1, 0}, {-1, 1}, {0, -2}, {-1, -2} },
         // L -> 0
-        { new Point(0, 0), new Point(-1, 0), new Point(-1, 1), new Point(0, -2), new Point(-1, -2) },
+        { {0, 0}, {-1, 0}, {-1, 1}, {0, -2}, {-1, -2} },
         // 0 -> L
-        { new Point(0, 0), new Point(1, 0), new Point(1, -1), new Point(0, 2), new Point(1, 2) }
+        { {0, 0}, {1, 0}, {1, -1}, {0, 2}, {1, 2} }
     };
 
     // I テトリミノ用のウォールキックデータ
-    private static final Point[][] WALL_KICK_DATA_I = new Point[][] {
+    private static final int[][][] WALL_KICK_DATA_I = {
         // 0 -> R
-        { new Point(0, 0), new Point(-2, 0), new Point(1, 0), new Point(-2, 1), new Point(1, -2) },
+        { {0, 0}, {-2, 0}, {1, 0}, {-2, 1}, {1, -2} },
         // R -> 0
-        { new Point(0, 0), new Point(2, 0), new Point(-1, 0), new Point(2, -1), new Point(-1, 2) },
+        { {0, 0}, {2, 0}, {-1, 0}, {2, -1}, {-1, 2} },
         // R -> 2
-        { new Point(0, 0), new Point(-1, 0), new Point(2, 0), new Point(-1, -2), new Point(2, 1) },
+        { {0, 0}, {-1, 0}, {2, 0}, {-1, -2}, {2, 1} },
         // 2 -> R
-        { new Point(0, 0), new Point(1, 0), new Point(-2, 0), new Point(1, 2), new Point(-2, -1) },
+        { {0, 0}, {1, 0}, {-2, 0}, {1, 2}, {-2, -1} },
         // 2 -> L
-        { new Point(0, 0), new Point(2, 0), new Point(-1, 0), new Point(2, -1), new Point(-1, 2) },
+        { {0, 0}, {2, 0}, {-1, 0}, {2, -1}, {-1, 2} },
         // L -> 2
-        { new Point(0, 0), new Point(-2, 0), new Point(1, 0), new Point(-2, 1), new Point(1, -2) },
+        { {0, 0}, {-2, 0}, {1, 0}, {-2, 1}, {1, -2} },
         // L -> 0
-        { new Point(0, 0), new Point(1, 0), new Point(-2, 0), new Point(1, 2), new Point(-2, -1) },
+        { {0, 0}, {1, 0}, {-2, 0}, {1, 2}, {-2, -1} },
         // 0 -> L
-        { new Point(0, 0), new Point(-1, 0), new Point(2, 0), new Point(-1, -2), new Point(2, 1) }
+        { {0, 0}, {-1, 0}, {2, 0}, {-1, -2}, {2, 1} }
     };
 
     /**
@@ -78,42 +77,92 @@ public final class RotationSystem {
         }
         return result;
     }
+    /**
+     * 回転をシミュレートします (実際のミノは動かさない)。
+     * 探索のホットループでは、オブジェクトを作らない simulateRotationPacked を使うこと。
+     */
     public static RotationResult simulateRotation(int currentX, int currentY, int currentRot,
                                                   Shape.Tetrominoes shape, Board board, boolean clockwise) {
+        int packed = simulateRotationPacked(currentX, currentY, currentRot, shape, board, clockwise);
+        if (packed == ROTATION_FAILED) return FAILED;
+        return new RotationResult(true, packedKick(packed), packedX(packed), packedY(packed), packedRot(packed));
+    }
+
+    // --- (★) 事前計算した回転表 ---
+    // 回転の結果を1つの int に詰める: [kick:3][rot:2][x + 64:8][y + 64:8]。失敗は ROTATION_FAILED
+    public static final int ROTATION_FAILED = -1;
+    private static final int PACK_OFFSET = 64;
+
+    private static final RotationResult FAILED = new RotationResult(false, -1, 0, 0, 0);
+
+    private static final int SHAPE_COUNT = Shape.Tetrominoes.values().length;
+    private static final int KICK_COUNT = 5;
+
+    // KICK_DX / KICK_DY[((shape * 4 + fromRot) * 2 + dir) * KICK_COUNT + kick] (dir: 0 = 左回転, 1 = 右回転)
+    private static final int[] KICK_DX = new int[SHAPE_COUNT * 4 * 2 * KICK_COUNT];
+    private static final int[] KICK_DY = new int[SHAPE_COUNT * 4 * 2 * KICK_COUNT];
+
+    static {
+        for (Shape.Tetrominoes shape : Shape.Tetrominoes.values()) {
+            int s = shape.ordinal();
+            int[][][] kickData = (shape == Shape.Tetrominoes.LineShape) ? WALL_KICK_DATA_I : WALL_KICK_DATA_JLSTZ;
+            for (int from = 0; from < 4; from++) {
+                for (int dir = 0; dir < 2; dir++) {
+                    int to = (from + (dir == 1 ? 1 : 3)) % 4;
+                    int[][] kicks = kickData[transitionIndex(from, to)];
+                    for (int k = 0; k < KICK_COUNT; k++) {
+                        int i = ((s * 4 + from) * 2 + dir) * KICK_COUNT + k;
+                        KICK_DX[i] = kicks[k][0];
+                        KICK_DY[i] = kicks[k][1];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * simulateRotation のオブジェクトを作らない版。表引きしたキックを、回転後の形状 (PieceGeometry) の行マスクで判定する。
+     * @return 成功なら packedX / packedY / packedRot / packedKick で取り出せる値、失敗なら ROTATION_FAILED
+     */
+    public static int simulateRotationPacked(int currentX, int currentY, int currentRot,
+                                             Shape.Tetrominoes shape, Board board, boolean clockwise) {
         if (shape == Shape.Tetrominoes.SquareShape) {
-            return new RotationResult(true, 0, currentX, currentY, currentRot);
+            return pack(0, currentRot, currentX, currentY);
         }
 
+        int s = shape.ordinal();
         int nextRot = (currentRot + (clockwise ? 1 : 3)) % 4;
-        int[][] rotatedCoords = shape.allCoords.get(nextRot);
-        Point[] kickTests = getWallKickTests(shape, currentRot, nextRot);
-
-        for (int i = 0; i < kickTests.length; i++) {
-            Point testOffset = kickTests[i];
-            int testX = currentX + testOffset.x;
-            int testY = currentY + testOffset.y;
+        PieceGeometry rotated = PieceGeometry.of(shape, nextRot);
+        int kickBase = ((s * 4 + currentRot) * 2 + (clockwise ? 1 : 0)) * KICK_COUNT;
 
-            if (board.isValidPosition(rotatedCoords, testX, testY)) {
-                // 成功した結果を返す (実際のミノは動かさない)
-                return new RotationResult(true, i, testX, testY, nextRot);
+        for (int k = 0; k < KICK_COUNT; k++) {
+            int testX = currentX + KICK_DX[kickBase + k];
+            int testY = currentY + KICK_DY[kickBase + k];
+            if (board.fits(rotated, testX, testY)) {
+                return pack(k, nextRot, testX, testY);
             }
         }
-        return new RotationResult(false, -1, 0, 0, 0);
+        return ROTATION_FAILED;
     }
 
+    public static int packedX(int packed) { return ((packed >>> 8) & 0xFF) - PACK_OFFSET; }
+    public static int packedY(int packed) { return (packed & 0xFF) - PACK_OFFSET; }
+    public static int packedRot(int packed) { return (packed >>> 16) & 0x3; }
+    public static int packedKick(int packed) { return (packed >>> 18) & 0x7; }
 
-    private static Point[] getWallKickTests(Shape.Tetrominoes shape, int currentRotation, int nextRotation) {
-        Point[][] kickData = (shape == Shape.Tetrominoes.LineShape) ? WALL_KICK_DATA_I : WALL_KICK_DATA_JLSTZ;
-
-        if (currentRotation == 0 && nextRotation == 1) return kickData[0]; // 0 -> R
-        if (currentRotation == 1 && nextRotation == 0) return kickData[1]; // R -> 0
-        if (currentRotation == 1 && nextRotation == 2) return kickData[2]; // R -> 2
-        if (currentRotation == 2 && nextRotation == 1) return kickData[3]; // 2 -> R
-        if (currentRotation == 2 && nextRotation == 3) return kickData[4]; // 2 -> L
-        if (currentRotation == 3 && nextRotation == 2) return kickData[5]; // L -> 2
-        if (currentRotation == 3 && nextRotation == 0) return kickData[6]; // L -> 0
-        if (currentRotation == 0 && nextRotation == 3) return kickData[7]; // 0 -> L
+    private static int pack(int kick, int rot, int x, int y) {
+        return (kick << 18) | (rot << 16) | ((x + PACK_OFFSET) << 8) | (y + PACK_OFFSET);
+    }
 
-        return new Point[]{ new Point(0, 0) }; // Fallback
+    /** WALL_KICK_DATA の行番号 (0->R, R->0, R->2, 2->R, 2->L, L->2, L->0, 0->L の順)。 */
+    private static int transitionIndex(int from, int to) {
+        if (from == 0 && to == 1) return 0; // 0 -> R
+        if (from == 1 && to == 0) return 1; // R -> 0
+        if (from == 1 && to == 2) return 2; // R -> 2
+        if (from == 2 && to == 1) return 3; // 2 -> R
+        if (from == 2 && to == 3) return 4; // 2 -> L
+        if (from == 3 && to == 2) return 5; // L -> 2
+        if (from == 3 && to == 0) return 6; // L -> 0
+        return 7;                           // 0 -> L
     }
-}
\ No newline at end of file
+}
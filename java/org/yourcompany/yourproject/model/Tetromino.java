@@ -3,6 +3,10 @@ import java.awt.Color;
 import java.util.Arrays;
 
 public class Tetromino {
+    /** 出現位置 (resetPositionAndState が置く場所)。 */
+    public static final int SPAWN_X = 4;
+    public static final int SPAWN_Y = Board.TOTAL_BOARD_HEIGHT - Board.VISIBLE_BOARD_HEIGHT;
+
     private final Shape.Tetrominoes pieceShape;
     private int[][] coords;
     private int x, y;
@@ -15,6 +19,18 @@ public class Tetromino {
         this.rotationState = 0;
     }
 
+    /**
+     * 位置・回転・座標をそのまま写したコピーを作ります (描画用のスナップショットで使う)。
+     */
+    public Tetromino(Tetromino other) {
+        this.pieceShape = other.pieceShape;
+        this.coords = new int[4][2];
+        setShape(other.coords);
+        this.x = other.x;
+        this.y = other.y;
+        this.rotationState = other.rotationState;
+    }
+
     private void setShape(int[][] newCoords) {
         for (int i = 0; i < 4; i++) {
             this.coords[i] = Arrays.copyOf(newCoords[i], newCoords[i].length);
@@ -28,7 +44,7 @@ public class Tetromino {
         this.rotationState = 0;
         setShape(pieceShape.allCoords.get(0));
 
-        this.x = 4;
+        this.x = SPAWN_X;
 
         // --- 垂直位置の決定 ---
         // ミノの下端が見える盤面の21行目に来るように調整
@@ -36,8 +52,7 @@ public class Tetromino {
         for (int[] p : this.coords) {
             minY = Math.min(minY, p[1]);
         }
-        int hiddenRows = Board.TOTAL_BOARD_HEIGHT - Board.VISIBLE_BOARD_HEIGHT;
-        this.y = hiddenRows;
+        this.y = SPAWN_Y;
     }
 
     public void applyRotation(int[][] newCoords, int newX, int newY, int newRotationState) {
@@ -53,7 +68,8 @@ public class Tetromino {
         this.x = x;
         this.y = y;
         this.rotationState = rot;
-        this.coords = getCoordsForRotation(rot);
+        // (★) Shape.allCoords の配列を共有しないよう、自分の配列にコピーする
+        setShape(getCoordsForRotation(rot));
     }
     
     // --- ゲッター ---
@@ -14,12 +14,15 @@ public class AIEvaluator {
     private final GameLogic opponentLogic;
     private volatile boolean isThinking = false;
     private final int offset;
+    // (★) 探索の作業領域。思考は同時に1つしか走らないので、探索ごとに使い回す
+    private final SearchArena searchArena = new SearchArena();
 
     public AIEvaluator(GameLogic myLogic, GameLogic opponentLogic, TetrisAIBrain brain,int offset) {
         this.myLogic = myLogic;
         this.opponentLogic = opponentLogic;
         this.brain = brain;
         this.offset = offset;
+        this.searchArena.setMetrics(SearchMetrics.named("AIEvaluator" + offset));
 
         // (★) 自分の GameLogic の「ムーブ完了」イベントに自分を登録
         myLogic.setOnStateChangedListener(this::onStateChanged);
@@ -37,14 +40,15 @@ public class AIEvaluator {
         new Thread(() -> {
             try {
                 // (★) 1. 「脳」に思考を依頼 (AIPlayer と同じ)
-                TetrisAIBrain.LandingSpot bestMove = brain.findBestMove(myLogic, opponentLogic);
+                TetrisAIBrain.LandingSpot bestMove = brain.findBestMove(myLogic, opponentLogic, searchArena);
 
                 if (bestMove != null) {
                     // (★) 2. 評価値を GameLogic (自分) にセット
                     myLogic.setAiEvaluationScore(bestMove.aiScore);
                 }
                 System.out.println("AIEvaluator"+this.offset+ ": Evaluated score = " + 
-                ((bestMove != null) ? bestMove.aiScore : "N/A"));
+                ((bestMove != null) ? bestMove.aiScore : "N/A")
+                + String.format(" (%.1f ms)", searchArena.getMetrics().lastThinkNanos() / 1e6));
             } catch (Exception e) {
                 e.printStackTrace();
             } finally {
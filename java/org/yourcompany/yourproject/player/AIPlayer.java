@@ -1,5 +1,7 @@
 package org.yourcompany.yourproject.player;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -10,7 +12,7 @@ import org.yourcompany.yourproject.model.GameLogic;
  * CNN (ONNX) モデルで盤面評価と即時報酬の計算を行うAIプレイヤー。
  * Python の agent.py のロジックを移植。
  */
-public class AIPlayer implements Player {
+public class AIPlayer implements InstantInputPlayer {
 
     private final ConcurrentLinkedQueue<GameAction> actionQueue = new ConcurrentLinkedQueue<>();
     private volatile boolean isThinking = false;
@@ -21,20 +23,36 @@ public class AIPlayer implements Player {
     private static final double MS_PER_FRAME = 1000.0 / GAME_FPS;
     private static final double SOFT_DROP_FACTOR = GameLogic.SDF; 
     private static final long FALL_INTERVAL_MS = 500; 
-    private static final int FRAMES_PER_CELL_DROP = (int) Math.ceil(((double)FALL_INTERVAL_MS / SOFT_DROP_FACTOR) / MS_PER_FRAME);
+    static final int FRAMES_PER_CELL_DROP = (int) Math.ceil(((double)FALL_INTERVAL_MS / SOFT_DROP_FACTOR) / MS_PER_FRAME);
     private final int actionDelayFrames;
     private final int offset;
+    // (★) 即時入力モード: 1手分の操作を1フレームでまとめて実行する
+    private final boolean instantInput;
+    private volatile InstantPlan pendingInstantPlan = null;
+    // (★) 探索の作業領域。思考は同時に1つしか走らないので、探索ごとに使い回す
+    private final SearchArena searchArena = new SearchArena();
+    // (★) リセットのたびに進める。思考中にリセットされたら、その結果は捨てる
+    private volatile int generation = 0;
     // --- AIPlayer メインロジック ---
 
     /**
      * コンストラクタでONNXモデルをロードする
      */
     public AIPlayer(GameLogic myLogic, GameLogic opponentLogic, TetrisAIBrain brain, int actionDelayFrames,int offset) {
+        this(myLogic, opponentLogic, brain, actionDelayFrames, offset, false);
+    }
+
+    /**
+     * @param instantInput true なら DAS/ARR を待たず、探索結果を1回の update() で置き切る
+     */
+    public AIPlayer(GameLogic myLogic, GameLogic opponentLogic, TetrisAIBrain brain, int actionDelayFrames,int offset, boolean instantInput) {
         this.myLogic = myLogic;
         this.opponentLogic = opponentLogic;
         this.brain = brain; // (★) 脳を受け取る
         this.actionDelayFrames = Math.max(0, actionDelayFrames);
         this.offset = offset;
+        this.instantInput = instantInput;
+        this.searchArena.setMetrics(SearchMetrics.named("AIPlayer" + offset));
     }
     @Override
     public GameAction getAction(GameLogic gameState) {
@@ -48,21 +66,49 @@ public class AIPlayer implements Player {
         return GameAction.NONE;
     }
 
+    @Override
+    public boolean isInstantInput() { return instantInput; }
+
+    @Override
+    public InstantPlan pollInstantPlan(GameLogic gameState) {
+        InstantPlan plan = pendingInstantPlan;
+        if (plan != null) {
+            pendingInstantPlan = null;
+            return plan;
+        }
+        if (!isThinking) {
+            requestBestMove(gameState);
+        }
+        return null;
+    }
+
     public void requestBestMove(GameLogic mylogic) {
         // (★) myLogic / opponentLogic はフィールド変数を使う
-        if (isThinking || !actionQueue.isEmpty() || myLogic.isGameOver()) {
+        if (isThinking || !actionQueue.isEmpty() || pendingInstantPlan != null || myLogic.isGameOver()) {
             return;
         }
         isThinking = true;
+        final int requestGeneration = generation;
 
         new Thread(() -> {
             try {
                 // (★) 1. 「脳」に思考を依頼
-                TetrisAIBrain.LandingSpot bestMove = brain.findBestMove(myLogic, opponentLogic);
+                TetrisAIBrain.LandingSpot bestMove = brain.findBestMove(myLogic, opponentLogic, searchArena);
 
-                if (bestMove != null) {
+                if (bestMove != null && requestGeneration == generation) {
                     
-                    System.out.println("AIPlayer"+this.offset+": Best Move Score = " + bestMove.aiScore);
+                    System.out.println("AIPlayer"+this.offset+": Best Move Score = " + bestMove.aiScore
+                            + String.format(" (%.1f ms)", searchArena.getMetrics().lastThinkNanos() / 1e6));
+                    if (instantInput) {
+                        // (★) 即時入力: 待機フレームや START/STOP_SOFT_DROP を挟まず、パスをそのまま渡す
+                        List<GameAction> actions = new ArrayList<>(bestMove.path.size() + 2);
+                        if (bestMove.usedHold) actions.add(GameAction.HOLD);
+                        actions.addAll(bestMove.path);
+                        actions.add(GameAction.HARD_DROP);
+                        pendingInstantPlan = new InstantPlan(actions, bestMove.startShape,
+                                bestMove.finalX, bestMove.finalY, bestMove.finalRot);
+                        return;
+                    }
                     // (★) 3. 「スマート翻訳機」 (user_31 のロジック)
                     Queue<GameAction> executionPlan = new LinkedList<>();
                     if (bestMove.usedHold) {
@@ -128,9 +174,14 @@ public class AIPlayer implements Player {
         }).start();
     }
 
+    /**
+     * (★) リセット時に呼ぶ。思考中の探索は作業領域を使っているので止めずに終わらせ、結果だけ捨てる
+     * (isThinking を下ろすと、同じ作業領域で2つ目の探索が走ってしまう)。
+     */
     public void clearActionQueue() { 
+        generation++;
         actionQueue.clear();
-        this.isThinking = false; 
+        pendingInstantPlan = null;
     }
 
 }
\ No newline at end of file
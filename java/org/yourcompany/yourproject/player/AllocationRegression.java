@@ -0,0 +1,185 @@
+package org.yourcompany.yourproject.player;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+import org.yourcompany.yourproject.model.GameLogic;
+
+/**
+ * 定常状態の1呼び出しあたりの確保量 (バイト) を測り、メソッドごとの予算を超えたら失敗するツール。
+ * スレッドごとの確保量のカウンタ (com.sun.management.ThreadMXBean) を呼び出しの直前と直後で読むので、
+ * 盤面を進める・リセットするといった準備の分は数えない。
+ *
+ * <ul>
+ *   <li>findBestMove : SearchArena を使い回した探索</li>
+ *   <li>GameLogic.update : 1フレームの進行 (落下・固定・スポーンを含む)</li>
+ *   <li>GameLogic.hardDrop : ハードドロップ (固定・ライン消去・次のミノのスポーン)</li>
+ * </ul>
+ * 予算を超えたメソッドがあれば終了コード 1 で終わる。確保を減らしたら予算も下げて、増えたことが分かるようにしておくこと。
+ *
+ * 使い方: AllocationRegression [--warmup N] [--calls N] [--seed S] [--model file.onnx]
+ */
+public final class AllocationRegression {
+
+    private static final int DEFAULT_WARMUP = 2000;
+    private static final int DEFAULT_CALLS = 5000;
+    private static final long FRAME_MILLIS = 1000 / 60;
+
+    /** 測る対象。prepare() は数えず、call() だけを数える。 */
+    private interface Target {
+        void prepare();
+        void call();
+    }
+
+    /**
+     * メソッドと、その1呼び出しあたりの予算 (バイト)。
+     * @param callScale 呼び出し回数を --warmup / --calls の 1/callScale にする (重い探索用)
+     */
+    private record Budget(String name, long bytesPerCall, int callScale, Target target) {}
+
+    private AllocationRegression() {}
+
+    public static void main(String[] args) {
+        int warmup = DEFAULT_WARMUP;
+        int calls = DEFAULT_CALLS;
+        long seed = 1;
+        String model = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--calls" -> calls = Integer.parseInt(args[i + 1]);
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                case "--model" -> model = args[i + 1];
+                default -> System.err.println("Unknown option: " + args[i]);
+            }
+        }
+
+        com.sun.management.ThreadMXBean threads = threadBean();
+        if (threads == null) {
+            System.err.println("Per-thread allocation counters are not available on this JVM");
+            System.exit(2);
+        }
+
+        TetrisAIBrain brain = (model == null) ? new TetrisAIBrain() : new TetrisAIBrain(model);
+        List<Budget> budgets = List.of(
+                // (★) 探索はいま約 13KB/回: 全探索した盤面での1手目の操作列 (FinessePathOptimizer.reconstructPath) と
+                //     その反復子、返す LandingSpot がほぼすべて
+                new Budget("findBestMove", 16384, 10, searchTarget(brain, new Random(seed))),
+                new Budget("GameLogic.update", 64, 1, updateTarget(new Random(seed))),
+                // (★) 次のミノの Tetromino を1つ作る分 (いま約 46B/回)
+                new Budget("GameLogic.hardDrop", 128, 1, hardDropTarget(new Random(seed))));
+
+        int failures = 0;
+        System.out.printf("%-20s %8s %12s %8s  %s%n", "method", "calls", "bytes/call", "budget", "result");
+        for (Budget b : budgets) {
+            int n = Math.max(1, calls / b.callScale());
+            run(threads, b.target(), Math.max(1, warmup / b.callScale()));
+            double perCall = (double) run(threads, b.target(), n) / n;
+            boolean ok = perCall <= b.bytesPerCall();
+            if (!ok) failures++;
+            System.out.printf("%-20s %8d %12.1f %8d  %s%n", b.name(), n, perCall, b.bytesPerCall(), ok ? "ok" : "OVER BUDGET");
+        }
+        if (failures > 0) {
+            System.out.println(failures + " method(s) over budget");
+            System.exit(1);
+        }
+    }
+
+    /** calls 回の call() で確保したバイト数の合計。 */
+    private static long run(com.sun.management.ThreadMXBean threads, Target target, int calls) {
+        long total = 0;
+        for (int i = 0; i < calls; i++) {
+            target.prepare();
+            long before = threads.getCurrentThreadAllocatedBytes();
+            target.call();
+            total += threads.getCurrentThreadAllocatedBytes() - before;
+        }
+        return total;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)) return null;
+        if (!bean.isThreadAllocatedMemorySupported()) return null;
+        bean.setThreadAllocatedMemoryEnabled(true);
+        return bean;
+    }
+
+    // --- 対象 ---
+
+    /** 盤面をランダムな手で1手ずつ進めながら、探索だけを数える。 */
+    private static Target searchTarget(TetrisAIBrain brain, Random random) {
+        GameLogic me = newGame(random);
+        GameLogic opponent = newGame(random);
+        SearchArena arena = new SearchArena();
+        return new Target() {
+            @Override
+            public void prepare() { dropRandomly(me, random); }
+
+            @Override
+            public void call() { brain.findBestMove(me, opponent, arena); }
+        };
+    }
+
+    /** フレーム時計で重力を効かせ、ときどき横移動と回転を入れながら、update() だけを数える。 */
+    private static Target updateTarget(Random random) {
+        GameLogic logic = new GameLogic();
+        long[] frame = {0};
+        logic.setClock(() -> frame[0] * FRAME_MILLIS);
+        logic.reset(random.nextLong());
+        return new Target() {
+            @Override
+            public void prepare() {
+                frame[0]++;
+                if (logic.isGameOver()) logic.reset(random.nextLong());
+                switch (random.nextInt(16)) {
+                    case 0 -> logic.moveLeft();
+                    case 1 -> logic.moveRight();
+                    case 2 -> logic.rotateRight();
+                    default -> { }
+                }
+            }
+
+            @Override
+            public void call() { logic.update(); }
+        };
+    }
+
+    /** 横移動と回転をランダムに入れてから、hardDrop() だけを数える。 */
+    private static Target hardDropTarget(Random random) {
+        GameLogic logic = newGame(random);
+        return new Target() {
+            @Override
+            public void prepare() {
+                if (logic.isGameOver()) logic.reset(random.nextLong());
+                logic.update(); // 前の固定からの硬直を抜けてスポーンさせる
+                shiftRandomly(logic, random);
+            }
+
+            @Override
+            public void call() { logic.hardDrop(); }
+        };
+    }
+
+    private static void dropRandomly(GameLogic logic, Random random) {
+        if (logic.isGameOver()) logic.reset(random.nextLong());
+        shiftRandomly(logic, random);
+        logic.hardDrop();
+        logic.update();
+        if (logic.isGameOver() || logic.getCurrentTetromino() == null) logic.reset(random.nextLong());
+    }
+
+    private static void shiftRandomly(GameLogic logic, Random random) {
+        for (int r = random.nextInt(4); r > 0; r--) logic.rotateRight();
+        int shift = random.nextInt(9) - 4;
+        for (int i = 0; i < Math.abs(shift); i++) {
+            if (shift < 0) logic.moveLeft(); else logic.moveRight();
+        }
+    }
+
+    private static GameLogic newGame(Random random) {
+        GameLogic logic = new GameLogic();
+        logic.reset(random.nextLong());
+        return logic;
+    }
+}
@@ -0,0 +1,305 @@
+package org.yourcompany.yourproject.player;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.yourcompany.yourproject.config.ClearInfo;
+import org.yourcompany.yourproject.config.GameAction;
+import org.yourcompany.yourproject.model.GameLogic;
+import org.yourcompany.yourproject.model.PieceGeometry;
+import org.yourcompany.yourproject.model.Shape;
+import org.yourcompany.yourproject.model.Tetromino;
+
+/**
+ * 強化学習用に N 個のゲームを「1手 (設置) ずつ」そろえて進める環境。
+ * 各ゲームは本物の GameLogic で動かすので、火力・REN・B2B・T-Spin・パーフェクトクリアの判定は対戦と同じ。
+ * 観測・合法手・報酬・終了フラグは最初に確保した配列に毎回上書きし、step ごとにオブジェクトを作らない。
+ *
+ * <p>観測は1本の direct FloatBuffer に [N, OBS_SIZE] で並ぶ。1環境分の中身は
+ * [2, 40, 10] (盤面 + 操作中のミノのマスク。TetrisAIBrain の入力と同じ) の後にネクストの特徴量 [72]。
+ * 合法手は環境 i について placementX/Y/Rot/Hold[i * MAX_PLACEMENTS + k] (k &lt; placementCounts[i])。
+ *
+ * <p>使い方: reset(seeds) の後、各環境の合法手の番号を並べて step(placementIndices) を繰り返す。
+ * 終わった環境への step は何もしない (報酬 0、done のまま)。resetEnv で個別にやり直せる。
+ * step / reset は同時に複数のスレッドから呼ばないこと (内部で環境ごとに並列に進める)。
+ */
+public final class BatchEnvironment {
+
+    public static final int OBS_SIZE = BoardTensorEncoder.SAMPLE_SIZE + BoardTensorEncoder.FEATURE_SIZE;
+    public static final int MAX_PLACEMENTS = 256;
+    private static final int PARALLEL_THRESHOLD = 16;
+    private static final GameAction[] ACTIONS = GameAction.values();
+
+    /** reset / step の結果。中身は呼ぶたびに上書きされる配列そのもの。 */
+    public record StepResult(FloatBuffer observations, int[] placementCounts,
+                             int[] placementX, int[] placementY, int[] placementRot, boolean[] placementHold,
+                             float[] rewards, int[] attacks, int[] linesCleared, boolean[] dones) {}
+
+    // 探索の作業領域はスレッドごとに1つ (環境ごとに持つと大きすぎる)
+    private static final ThreadLocal<FinessePathOptimizer.Workspace> WORKSPACE =
+            ThreadLocal.withInitial(FinessePathOptimizer.Workspace::new);
+
+    private final int size;
+    private final float attackWeight;
+    private final float lineWeight;
+    private final float topOutPenalty;
+    private final Env[] envs;
+
+    private final FloatBuffer observations;
+    private final int[] placementCounts;
+    private final int[] placementX, placementY, placementRot;
+    private final boolean[] placementHold;
+    private final float[] rewards;
+    private final int[] attacks;
+    private final int[] linesCleared;
+    private final boolean[] dones;
+    private final StepResult result;
+
+    /** 報酬 = 火力 + 消去ライン数 (トップアウトの罰なし)。 */
+    public BatchEnvironment(int size) {
+        this(size, 1.0f, 1.0f, 0.0f);
+    }
+
+    /**
+     * @param attackWeight  火力 (相殺前の送る段数) 1 段あたりの報酬
+     * @param lineWeight    消去ライン 1 行あたりの報酬
+     * @param topOutPenalty トップアウトした手の報酬から引く値
+     */
+    public BatchEnvironment(int size, float attackWeight, float lineWeight, float topOutPenalty) {
+        this(size, attackWeight, lineWeight, topOutPenalty,
+                ByteBuffer.allocateDirect(size * OBS_SIZE * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer());
+    }
+
+    /**
+     * 観測を呼び出し側のバッファ (共有メモリなど) に直接書く版。
+     * @param observations size * OBS_SIZE 要素以上のバッファ (先頭から使う)
+     */
+    public BatchEnvironment(int size, float attackWeight, float lineWeight, float topOutPenalty, FloatBuffer observations) {
+        if (observations.capacity() < size * OBS_SIZE) {
+            throw new IllegalArgumentException("observation buffer needs " + (size * OBS_SIZE) + " floats");
+        }
+        this.size = size;
+        this.attackWeight = attackWeight;
+        this.lineWeight = lineWeight;
+        this.topOutPenalty = topOutPenalty;
+        this.observations = observations;
+        this.placementCounts = new int[size];
+        this.placementX = new int[size * MAX_PLACEMENTS];
+        this.placementY = new int[size * MAX_PLACEMENTS];
+        this.placementRot = new int[size * MAX_PLACEMENTS];
+        this.placementHold = new boolean[size * MAX_PLACEMENTS];
+        this.rewards = new float[size];
+        this.attacks = new int[size];
+        this.linesCleared = new int[size];
+        this.dones = new boolean[size];
+        this.envs = new Env[size];
+        for (int i = 0; i < size; i++) envs[i] = new Env(i);
+        this.result = new StepResult(observations, placementCounts, placementX, placementY, placementRot,
+                placementHold, rewards, attacks, linesCleared, dones);
+    }
+
+    public int size() { return size; }
+
+    /**
+     * すべての環境を乱数の種からやり直します。
+     * @param seeds 環境ごとの種 (長さ size)
+     */
+    public StepResult reset(long[] seeds) {
+        if (seeds.length != size) throw new IllegalArgumentException("seeds.length must be " + size);
+        forEachEnv(i -> envs[i].reset(seeds[i]));
+        return result;
+    }
+
+    /** 環境 i だけをやり直します (終わった環境を個別に再開するとき)。 */
+    public StepResult resetEnv(int i, long seed) {
+        envs[i].reset(seed);
+        return result;
+    }
+
+    /**
+     * 全環境を1手ずつ進めます。
+     * @param placementIndices 環境ごとに選んだ合法手の番号 (0 .. placementCounts[i] - 1)。終わった環境の値は無視する
+     */
+    public StepResult step(int[] placementIndices) {
+        if (placementIndices.length != size) throw new IllegalArgumentException("placementIndices.length must be " + size);
+        for (int i = 0; i < size; i++) {
+            int k = placementIndices[i];
+            if (!dones[i] && (k < 0 || k >= placementCounts[i])) {
+                throw new IllegalArgumentException("env " + i + ": placement " + k + " is out of range (" + placementCounts[i] + ")");
+            }
+        }
+        forEachEnv(i -> envs[i].step(placementIndices[i]));
+        return result;
+    }
+
+    public StepResult getResult() { return result; }
+
+    /**
+     * 環境 i で brain が選ぶ手を、合法手の番号で返します (見つからなければ -1)。
+     * 探索のスポーン位置は実際と違うことがあるので、占有する4セルが同じ合法手を探す。
+     * @param arena 呼び出すスレッド専用の作業領域
+     */
+    public int suggestPlacement(int i, TetrisAIBrain brain, SearchArena arena) {
+        Env env = envs[i];
+        if (dones[i] || env.logic.getCurrentTetromino() == null) return -1;
+        TetrisAIBrain.LandingSpot spot = brain.findBestMove(env.logic, env.logic, arena);
+        if (spot == null) return -1;
+        Shape.Tetrominoes shape = spot.usedHold ? env.holdShape() : env.logic.getCurrentTetromino().getPieceShape();
+        PieceGeometry target = PieceGeometry.of(shape, spot.finalRot);
+        for (int k = 0; k < placementCounts[i]; k++) {
+            int slot = i * MAX_PLACEMENTS + k;
+            if (placementHold[slot] != spot.usedHold) continue;
+            PieceGeometry g = PieceGeometry.of(shape, placementRot[slot]);
+            boolean same = true;
+            for (int c = 0; c < 4 && same; c++) {
+                same = g.sortedCell(c, placementX[slot], placementY[slot]) == target.sortedCell(c, spot.finalX, spot.finalY);
+            }
+            if (same) return k;
+        }
+        return -1;
+    }
+
+    /** 環境 i のゲーム (表示やデバッグ用。step の外で読むこと)。 */
+    public GameLogic getGameLogic(int i) { return envs[i].logic; }
+
+    private void forEachEnv(IntConsumer action) {
+        if (size >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, size).parallel().forEach(action);
+        } else {
+            for (int i = 0; i < size; i++) action.accept(i);
+        }
+    }
+
+    /**
+     * 1つのゲーム。合法手への操作列は GameAction の ordinal で paths に詰めて持つ。
+     */
+    private final class Env {
+        private final int index;
+        private final int base;
+        private final GameLogic logic = new GameLogic();
+        private final int[] pathStart = new int[MAX_PLACEMENTS];
+        private final int[] pathLength = new int[MAX_PLACEMENTS];
+        private byte[] paths = new byte[MAX_PLACEMENTS * 8];
+
+        Env(int index) {
+            this.index = index;
+            this.base = index * MAX_PLACEMENTS;
+            // (★) 設置単位で進めるので、落下・固定猶予の時間は進めない
+            logic.setClock(() -> 0L);
+        }
+
+        void reset(long seed) {
+            logic.reset(seed);
+            rewards[index] = 0;
+            attacks[index] = 0;
+            linesCleared[index] = 0;
+            dones[index] = logic.isGameOver();
+            refresh();
+        }
+
+        void step(int k) {
+            if (dones[index]) {
+                rewards[index] = 0;
+                attacks[index] = 0;
+                linesCleared[index] = 0;
+                return;
+            }
+            int slot = base + k;
+            if (placementHold[slot]) {
+                logic.hold();
+                advanceToNextPiece();
+            }
+            for (int p = pathStart[k], end = p + pathLength[k]; p < end; p++) {
+                applyAction(ACTIONS[paths[p]]);
+            }
+            logic.hardDrop();
+
+            ClearInfo clear = logic.getLastClearInfo();
+            int attack = logic.getLastAttack();
+            int lines = (clear != null) ? clear.getLinesCleared() : 0;
+            advanceToNextPiece();
+
+            boolean over = logic.isGameOver();
+            attacks[index] = attack;
+            linesCleared[index] = lines;
+            rewards[index] = attackWeight * attack + lineWeight * lines - (over ? topOutPenalty : 0);
+            dones[index] = over;
+            refresh();
+        }
+
+        /** ライン消去・出現待ちを飛ばして、次のミノが出るまで進める。 */
+        private void advanceToNextPiece() {
+            int limit = GameLogic.ARE_FRAMES + GameLogic.LINE_CLEAR_DELAY_FRAMES + 3;
+            for (int i = 0; logic.getCurrentTetromino() == null && !logic.isGameOver() && i < limit; i++) {
+                logic.update();
+            }
+        }
+
+        private void applyAction(GameAction action) {
+            switch (action) {
+                case MOVE_LEFT -> logic.moveLeft();
+                case MOVE_RIGHT -> logic.moveRight();
+                case ROTATE_LEFT -> logic.rotateLeft();
+                case ROTATE_RIGHT -> logic.rotateRight();
+                case SOFT_DROP -> logic.softDropStep();
+                default -> { }
+            }
+        }
+
+        /** 観測と合法手を今の盤面で書き直す。 */
+        private void refresh() {
+            int offset = index * OBS_SIZE;
+            Tetromino current = logic.getCurrentTetromino();
+            BoardTensorEncoder.encodeBoard(observations, offset, logic.getBoard());
+            if (current != null) {
+                BoardTensorEncoder.encodePieceMask(observations, offset + BoardTensorEncoder.PLANE_SIZE,
+                        current.getPieceShape(), current.getX(), current.getY(), current.getRotationState());
+            } else {
+                BoardTensorEncoder.clearPlane(observations, offset + BoardTensorEncoder.PLANE_SIZE);
+            }
+            BoardTensorEncoder.encodeQueueFeatures(observations, offset + BoardTensorEncoder.SAMPLE_SIZE, logic.getNextQueue());
+
+            placementCounts[index] = 0;
+            if (dones[index] || current == null) return;
+            int used = addPlacements(current.getPieceShape(), current.getX(), current.getY(), false, 0);
+            if (logic.getCanHold()) {
+                Shape.Tetrominoes hold = holdShape();
+                // (★) ホールドした後に GameLogic がミノを出す位置から探索する (出現位置が塞がっていれば1段上)
+                if (hold != Shape.Tetrominoes.NoShape) {
+                    int y = GameLogic.spawnYAfterHold(logic.getBoard(), hold, logic.getHoldTetromino() != null);
+                    addPlacements(hold, Tetromino.SPAWN_X, y, true, used);
+                }
+            }
+        }
+
+        private Shape.Tetrominoes holdShape() {
+            if (logic.getHoldTetromino() != null) return logic.getHoldTetromino().getPieceShape();
+            return logic.getNextQueue().isEmpty() ? Shape.Tetrominoes.NoShape : logic.getNextQueue().get(0).getPieceShape();
+        }
+
+        /** @return paths の使用量 */
+        private int addPlacements(Shape.Tetrominoes shape, int startX, int startY, boolean hold, int pathsUsed) {
+            if (shape == null || shape == Shape.Tetrominoes.NoShape) return pathsUsed;
+            FinessePathOptimizer.Workspace ws = WORKSPACE.get();
+            int found = FinessePathOptimizer.searchInto(logic.getBoard(), shape, startX, startY, ws);
+            for (int i = 0; i < found && placementCounts[index] < MAX_PLACEMENTS; i++) {
+                int k = placementCounts[index]++;
+                placementX[base + k] = ws.landingX(i);
+                placementY[base + k] = ws.landingY(i);
+                placementRot[base + k] = ws.landingRot(i);
+                placementHold[base + k] = hold;
+                int length = ws.landingPathLength(i);
+                if (pathsUsed + length > paths.length) paths = Arrays.copyOf(paths, Math.max(paths.length * 2, pathsUsed + length));
+                ws.landingPathInto(i, paths, pathsUsed);
+                pathStart[k] = pathsUsed;
+                pathLength[k] = length;
+                pathsUsed += length;
+            }
+            return pathsUsed;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.yourcompany.yourproject.player;
+
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.Map;
+
+import org.yourcompany.yourproject.model.Board;
+import org.yourcompany.yourproject.model.PieceGeometry;
+import org.yourcompany.yourproject.model.Shape;
+import org.yourcompany.yourproject.model.Tetromino;
+
+/**
+ * 盤面を ONNX 入力 [N, 2, 40, 10] (チャンネル0 = 盤面、チャンネル1 = ミノのマスク) に書き込むエンコーダ。
+ * 行の占有ビット (10bit) から 10 個の float への展開を 1024 通りの表で引き、行ごとにまとめてコピーする。
+ * getGridAt を 400 回呼ぶ代わりに、1サンプルあたり 40 回 + 40 回の配列コピーで済む。
+ * 特徴量入力 [N, 72] (ネクスト5個の one-hot、残りは 0) もここで書く。
+ */
+public final class BoardTensorEncoder {
+
+    public static final int WIDTH = Board.BOARD_WIDTH;
+    public static final int HEIGHT = Board.TOTAL_BOARD_HEIGHT;
+    public static final int PLANE_SIZE = WIDTH * HEIGHT;   // 400
+    public static final int SAMPLE_SIZE = PLANE_SIZE * 2;  // 800
+    public static final int FEATURE_SIZE = 72;
+    private static final int QUEUE_FEATURE_PIECES = 5;
+    private static final int NUM_SHAPE_TYPES = 7;
+
+    private static final Map<Shape.Tetrominoes, Integer> SHAPE_TO_INDEX = Map.of(
+        Shape.Tetrominoes.TShape, 0, Shape.Tetrominoes.ZShape, 1,
+        Shape.Tetrominoes.SShape, 2, Shape.Tetrominoes.LineShape, 3,
+        Shape.Tetrominoes.SquareShape, 4, Shape.Tetrominoes.LShape, 5,
+        Shape.Tetrominoes.MirroredLShape, 6, Shape.Tetrominoes.NoShape, -1
+    );
+
+    // 行ビット → 10 個の float (0.0 / 1.0)。ROW_FLOATS[bits] は書き換えないこと
+    private static final float[][] ROW_FLOATS = new float[1 << WIDTH][WIDTH];
+    static {
+        for (int bits = 0; bits < ROW_FLOATS.length; bits++) {
+            for (int x = 0; x < WIDTH; x++) {
+                ROW_FLOATS[bits][x] = ((bits & (1 << x)) != 0) ? 1.0f : 0.0f;
+            }
+        }
+    }
+    private static final float[] EMPTY_PLANE = new float[PLANE_SIZE];
+
+    private BoardTensorEncoder() {}
+
+    /** 盤面を offset から 1 プレーン (400 要素) 分書き込みます。 */
+    public static void encodeBoard(FloatBuffer buf, int offset, Board board) {
+        if (buf.hasArray()) {
+            float[] dst = buf.array();
+            int base = buf.arrayOffset() + offset;
+            for (int y = 0; y < HEIGHT; y++) {
+                System.arraycopy(ROW_FLOATS[board.getRowBits(y)], 0, dst, base + y * WIDTH, WIDTH);
+            }
+        } else {
+            for (int y = 0; y < HEIGHT; y++) {
+                buf.put(offset + y * WIDTH, ROW_FLOATS[board.getRowBits(y)]);
+            }
+        }
+    }
+
+    /** 行ビットの並び (rowBits[rowOffset + y] = 行 y) を offset から 1 プレーン分書き込みます。 */
+    public static void encodeRows(FloatBuffer buf, int offset, int[] rowBits, int rowOffset) {
+        if (buf.hasArray()) {
+            float[] dst = buf.array();
+            int base = buf.arrayOffset() + offset;
+            for (int y = 0; y < HEIGHT; y++) {
+                System.arraycopy(ROW_FLOATS[rowBits[rowOffset + y]], 0, dst, base + y * WIDTH, WIDTH);
+            }
+        } else {
+            for (int y = 0; y < HEIGHT; y++) {
+                buf.put(offset + y * WIDTH, ROW_FLOATS[rowBits[rowOffset + y]]);
+            }
+        }
+    }
+
+    /** offset から 1 プレーン分を 0 で埋めます。 */
+    public static void clearPlane(FloatBuffer buf, int offset) {
+        buf.put(offset, EMPTY_PLANE);
+    }
+
+    /**
+     * ミノのマスクを offset から 1 プレーン分書き込みます (ミノ以外は 0)。
+     * Tetromino を作らず、共有の形状 (PieceGeometry) から直接書く。
+     */
+    public static void encodePieceMask(FloatBuffer buf, int offset, Shape.Tetrominoes shape, int x, int y, int rot) {
+        clearPlane(buf, offset);
+        PieceGeometry g = PieceGeometry.of(shape, rot);
+        for (int i = 0; i < 4; i++) {
+            int cx = x + g.cellX(i), cy = y + g.cellY(i);
+            if (cx >= 0 && cx < WIDTH && cy >= 0 && cy < HEIGHT) buf.put(offset + cy * WIDTH + cx, 1.0f);
+        }
+    }
+
+    /**
+     * アリーナのノードをまとめて [count, 2, 40, 10] に書き込みます (チャンネル1 は 0)。
+     * @param nodes ノード番号の列 (先頭 count 個を使う)
+     */
+    static void encodeNodes(FloatBuffer buf, SearchArena arena, int[] nodes, int count) {
+        for (int i = 0; i < count; i++) {
+            int offset = i * SAMPLE_SIZE;
+            encodeRows(buf, offset, arena.rowBits, nodes[i] * HEIGHT);
+            clearPlane(buf, offset + PLANE_SIZE);
+        }
+    }
+
+    /**
+     * ネクストの特徴量を offset から FEATURE_SIZE 要素分書き込みます。
+     * 先頭 35 要素がネクスト5個の one-hot (7種)、残りは 0。バッファを使い回すので未使用の要素も 0 で上書きする。
+     */
+    public static void encodeQueueFeatures(FloatBuffer buf, int offset, List<Tetromino> queue) {
+        for (int i = 0; i < FEATURE_SIZE; i++) {
+            float v = 0.0f;
+            if (i < QUEUE_FEATURE_PIECES * NUM_SHAPE_TYPES && queue != null && i / NUM_SHAPE_TYPES < queue.size()) {
+                int idx = SHAPE_TO_INDEX.getOrDefault(queue.get(i / NUM_SHAPE_TYPES).getPieceShape(), -1);
+                v = (i % NUM_SHAPE_TYPES == idx ? 1.0f : 0.0f);
+            }
+            buf.put(offset + i, v);
+        }
+    }
+}
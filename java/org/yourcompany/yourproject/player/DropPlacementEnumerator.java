@@ -0,0 +1,106 @@
+package org.yourcompany.yourproject.player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.yourcompany.yourproject.model.Board;
+import org.yourcompany.yourproject.model.PieceGeometry;
+import org.yourcompany.yourproject.model.Shape;
+
+/**
+ * 開けた盤面 (タッキングで入り込める張り出しが無い盤面) 向けの高速な着地点列挙。
+ * C++ 側の enumerate_drop_landings_from_board と同じく、4回転 × 列ごとに列の高さから直接落下位置を求める。
+ * 操作列は空盤面で FinessePathOptimizer が求めたもの (スポーン高さでの回転と移動のみ) を使い回す。
+ */
+public final class DropPlacementEnumerator {
+
+    // スポーン位置まわりに必要な空き行 (キックで最大2段下がる分を含む)
+    private static final int SPAWN_CLEARANCE = 4;
+
+    // 空盤面でのフィネス最小パス (形ごと、発見順)
+    private static final Map<Shape.Tetrominoes, List<FinessePathOptimizer.Placement>> EMPTY_BOARD_PLACEMENTS = buildEmptyBoardTable();
+
+    private DropPlacementEnumerator() {}
+
+    /**
+     * 盤面が開けていれば、ハードドロップだけで届く着地点をすべて返します。
+     * タッキングが必要になり得る盤面では null を返すので、呼び出し側は全探索にフォールバックすること。
+     */
+    public static List<FinessePathOptimizer.Placement> tryEnumerate(Board board, Shape.Tetrominoes shape) {
+        if (shape == null || shape == Shape.Tetrominoes.NoShape) return Collections.emptyList();
+
+        if (!isOpenBoard(board)) return null;
+
+        List<FinessePathOptimizer.Placement> template = EMPTY_BOARD_PLACEMENTS.get(shape);
+        List<FinessePathOptimizer.Placement> results = new ArrayList<>(template.size());
+        for (FinessePathOptimizer.Placement p : template) {
+            results.add(new FinessePathOptimizer.Placement(p.x(), landingY(board, shape, p), p.rot(), p.path(), p.frames()));
+        }
+        return results;
+    }
+
+    /**
+     * tryEnumerate のオブジェクトを作らない版。
+     * 盤面が開けていれば landingYs[i] に template(shape).get(i) の落下位置を書き込んで true を返す。
+     */
+    static boolean enumerateLandingYs(Board board, Shape.Tetrominoes shape, int[] landingYs) {
+        if (!isOpenBoard(board)) return false;
+        List<FinessePathOptimizer.Placement> template = EMPTY_BOARD_PLACEMENTS.get(shape);
+        for (int i = 0; i < template.size(); i++) {
+            landingYs[i] = landingY(board, shape, template.get(i));
+        }
+        return true;
+    }
+
+    /** 空盤面での着地点 (x, rot と操作列のひな形)。 */
+    static List<FinessePathOptimizer.Placement> template(Shape.Tetrominoes shape) {
+        return EMPTY_BOARD_PLACEMENTS.get(shape);
+    }
+
+    private static int landingY(Board board, Shape.Tetrominoes shape, FinessePathOptimizer.Placement p) {
+        int landingY = Integer.MAX_VALUE;
+        PieceGeometry g = PieceGeometry.of(shape, p.rot());
+        for (int i = 0; i < 4; i++) {
+            landingY = Math.min(landingY, board.getColumnTop(p.x() + g.cellX(i)) - g.cellY(i) - 1);
+        }
+        return landingY;
+    }
+
+    /**
+     * スポーン付近が空いていて、かつ横から入り込める穴 (張り出しの下の空き) が無いか。
+     * 周りを塞がれた穴は、ミノがそこへ入る手段が無いので問題にならない。
+     */
+    private static boolean isOpenBoard(Board board) {
+        for (int x = 0; x < Board.BOARD_WIDTH; x++) {
+            int top = board.getColumnTop(x);
+            if (top <= TetrisAIBrain.SPAWN_Y + SPAWN_CLEARANCE) return false;
+            if (board.getColumnHoles(x) == 0) continue;
+            // 隣の列の最上段より上にある穴だけが横から入り込める
+            int leftTop = (x > 0) ? board.getColumnTop(x - 1) : 0;
+            int rightTop = (x < Board.BOARD_WIDTH - 1) ? board.getColumnTop(x + 1) : 0;
+            int limit = Math.max(leftTop, rightTop);
+            for (int y = top + 1; y < limit; y++) {
+                if ((board.getRowBits(y) & (1 << x)) == 0) return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<Shape.Tetrominoes, List<FinessePathOptimizer.Placement>> buildEmptyBoardTable() {
+        Map<Shape.Tetrominoes, List<FinessePathOptimizer.Placement>> table = new EnumMap<>(Shape.Tetrominoes.class);
+        Board empty = new Board();
+        for (Shape.Tetrominoes shape : Shape.Tetrominoes.values()) {
+            if (shape == Shape.Tetrominoes.NoShape) continue;
+            List<FinessePathOptimizer.Placement> placements = new ArrayList<>();
+            for (FinessePathOptimizer.Placement p : FinessePathOptimizer.search(empty, shape, TetrisAIBrain.SPAWN_X, TetrisAIBrain.SPAWN_Y)) {
+                // 着地点間でパスを共有するので不変リストにしておく
+                placements.add(new FinessePathOptimizer.Placement(p.x(), p.y(), p.rot(), List.copyOf(p.path()), p.frames()));
+            }
+            table.put(shape, List.copyOf(placements));
+        }
+        return table;
+    }
+}
@@ -0,0 +1,335 @@
+package org.yourcompany.yourproject.player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.yourcompany.yourproject.config.GameAction;
+import org.yourcompany.yourproject.model.Board;
+import org.yourcompany.yourproject.model.PieceGeometry;
+import org.yourcompany.yourproject.model.RotationSystem;
+import org.yourcompany.yourproject.model.Shape;
+
+/**
+ * フィネス (最小入力) を優先した着地点探索。
+ * AIPlayer の実行 (GameAction を1フレームに1つずつ流す) に合わせたコストで Dijkstra 探索し、
+ * 着地点ごとに「入力回数 → フレーム数」が最小の操作列を求める。
+ * AIPlayer は横移動を押しっぱなしにしないので、壁までの移動もタップ (1マス1フレーム) の積み重ねとして数える。
+ * ソフトドロップはタッキングが必要な着地点でのみ使われるよう重いペナルティを付ける。
+ * S/Z/I の回転対や O ミノのように、(x, y, rot) が違っても占有セルが同じ着地点は1つにまとめる。
+ */
+public final class FinessePathOptimizer {
+
+    /**
+     * 1つの着地点と、そこへ至る最小コストの操作列 (最後の HARD_DROP は含まない)。
+     * @param frames コストモデル上の推定フレーム数
+     */
+    public record Placement(int x, int y, int rot, List<GameAction> path, int frames) {}
+
+    // --- コストモデル (AIPlayer の実行準拠) ---
+    private static final long INPUT_WEIGHT = 10_000;        // 入力回数を最優先、フレーム数は同点時の比較
+    private static final int SOFT_DROP_INPUT_PENALTY = 100; // ハードドロップで届くなら必ずそちらを選ぶ
+    private static final int ACTION_FRAMES = 1;             // AIPlayer は操作を1フレームに1つ実行する
+
+    // --- 状態インデックス (x, y, rot) ---
+    private static final int X_OFFSET = 2;
+    private static final int X_SPAN = Board.BOARD_WIDTH + 4;
+    private static final int Y_OFFSET = 2;
+    private static final int Y_SPAN = Board.TOTAL_BOARD_HEIGHT + 4;
+    private static final int STATE_COUNT = 4 * Y_SPAN * X_SPAN;
+    private static final int STATE_BITS = 12; // STATE_COUNT < 4096
+
+    // --- 親からの遷移 ---
+    private static final byte VIA_START = 0;
+    private static final byte VIA_TAP_LEFT = 1;
+    private static final byte VIA_TAP_RIGHT = 2;
+    private static final byte VIA_ROTATE_LEFT = 3;
+    private static final byte VIA_ROTATE_RIGHT = 4;
+    private static final byte VIA_SOFT_DROP = 5;
+    private static final byte VIA_SOFT_DROP_FLOOR = 6;
+
+    private FinessePathOptimizer() {}
+
+    /**
+     * 探索の作業配列と結果。探索を繰り返す側 (SearchArena) が1つ持って使い回せば、探索中に配列を作らない。
+     * 結果は次に searchInto へ渡すまで有効。
+     */
+    static final class Workspace {
+        private final long[] cost = new long[STATE_COUNT];
+        private final int[] frames = new int[STATE_COUNT];
+        private final int[] parent = new int[STATE_COUNT];
+        private final byte[] via = new byte[STATE_COUNT];
+        private final boolean[] settled = new boolean[STATE_COUNT];
+        private final boolean[] landingFound = new boolean[STATE_COUNT];
+        // open リスト ((cost << STATE_BITS) | state の最小ヒープ)
+        private long[] heap = new long[256];
+        private int heapSize;
+        // 占有セルの重複判定 (オープンアドレスのハッシュ集合、空きは -1。状態数より大きく取るので溢れない)
+        private final long[] footprints = new long[4096];
+        // 着地点 {landingState, reachedState}
+        private int[] landingState = new int[128];
+        private int[] reachedState = new int[128];
+        private int landingCount;
+        private int settledCount;
+
+        int landingCount() { return landingCount; }
+        /** 直前の探索で確定した状態数。 */
+        int settledCount() { return settledCount; }
+        int landingX(int i) { return stateX(landingState[i]); }
+        int landingY(int i) { return stateY(landingState[i]); }
+        int landingRot(int i) { return stateRot(landingState[i]); }
+        int landingFrames(int i) { return frames[reachedState[i]]; }
+        /** i 番目の着地点への操作列 (呼ぶたびに新しいリストを作る)。 */
+        List<GameAction> landingPath(int i) { return reconstructPath(parent, via, reachedState[i]); }
+        /** i 番目の着地点への操作列の長さ。 */
+        int landingPathLength(int i) { return pathLength(parent, via, reachedState[i]); }
+        /** i 番目の着地点への操作列を GameAction の ordinal で dst[offset..] に書きます (リストを作らない)。 */
+        void landingPathInto(int i, byte[] dst, int offset) {
+            writePath(parent, via, reachedState[i], dst, offset + landingPathLength(i));
+        }
+
+        private void reset() {
+            Arrays.fill(cost, Long.MAX_VALUE);
+            Arrays.fill(settled, false);
+            Arrays.fill(landingFound, false);
+            Arrays.fill(footprints, -1L);
+            heapSize = 0;
+            landingCount = 0;
+            settledCount = 0;
+        }
+
+        private void push(long v) {
+            if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+            int i = heapSize++;
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                if (heap[p] <= v) break;
+                heap[i] = heap[p];
+                i = p;
+            }
+            heap[i] = v;
+        }
+
+        private long pop() {
+            long top = heap[0];
+            long last = heap[--heapSize];
+            int i = 0;
+            int half = heapSize >>> 1;
+            while (i < half) {
+                int c = 2 * i + 1;
+                if (c + 1 < heapSize && heap[c + 1] < heap[c]) c++;
+                if (last <= heap[c]) break;
+                heap[i] = heap[c];
+                i = c;
+            }
+            if (heapSize > 0) heap[i] = last;
+            return top;
+        }
+
+        /** 占有セルが新しければ登録して true。 */
+        private boolean addFootprint(long key) {
+            int mask = footprints.length - 1;
+            int i = (int) (key ^ (key >>> 17) ^ (key >>> 31)) & mask;
+            while (footprints[i] != -1L) {
+                if (footprints[i] == key) return false;
+                i = (i + 1) & mask;
+            }
+            footprints[i] = key;
+            return true;
+        }
+
+        private void addLanding(int landing, int reached) {
+            if (landingCount == landingState.length) {
+                landingState = Arrays.copyOf(landingState, landingCount * 2);
+                reachedState = Arrays.copyOf(reachedState, landingCount * 2);
+            }
+            landingState[landingCount] = landing;
+            reachedState[landingCount] = reached;
+            landingCount++;
+        }
+    }
+
+    /**
+     * スポーン位置から到達できるすべての着地点を、最小コストの操作列付きで列挙します。
+     * @return 着地点のリスト (発見順 = コスト昇順)
+     */
+    public static List<Placement> search(Board board, Shape.Tetrominoes shape, int startX, int startY) {
+        Workspace ws = new Workspace();
+        int count = searchInto(board, shape, startX, startY, ws);
+        List<Placement> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(new Placement(ws.landingX(i), ws.landingY(i), ws.landingRot(i), ws.landingPath(i), ws.landingFrames(i)));
+        }
+        return results;
+    }
+
+    /**
+     * search と同じ探索を、結果を ws に書き込む形で行います (操作列は必要なときだけ ws から組み立てる)。
+     * @return 着地点の数
+     */
+    static int searchInto(Board board, Shape.Tetrominoes shape, int startX, int startY, Workspace ws) {
+        return searchInto(board, shape, startX, startY, 0, ws);
+    }
+
+    /**
+     * 向き startRot のミノから始める版 (操作中のミノを今の位置から探索するとき)。
+     */
+    static int searchInto(Board board, Shape.Tetrominoes shape, int startX, int startY, int startRot, Workspace ws) {
+        ws.reset();
+        if (shape == null || shape == Shape.Tetrominoes.NoShape) return 0;
+        if (!board.fits(PieceGeometry.of(shape, startRot), startX, startY)) return 0;
+
+        long[] cost = ws.cost;
+        int[] frames = ws.frames;
+        int[] parent = ws.parent;
+        byte[] via = ws.via;
+        boolean[] settled = ws.settled;
+        boolean[] landingFound = ws.landingFound;
+
+        int start = index(startX, startY, startRot);
+        cost[start] = 0;
+        frames[start] = 0;
+        parent[start] = -1;
+        via[start] = VIA_START;
+        ws.push(start);
+
+        while (ws.heapSize > 0) {
+            long packed = ws.pop();
+            int s = (int) (packed & ((1 << STATE_BITS) - 1));
+            if (settled[s]) continue;
+            settled[s] = true;
+            ws.settledCount++;
+
+            int x = stateX(s), y = stateY(s), rot = stateRot(s);
+            PieceGeometry g = PieceGeometry.of(shape, rot);
+
+            // --- 着地点の記録 (最初に確定した状態がその着地点の最小コスト) ---
+            int dropY = dropPiece(board, g, x, y);
+            int landing = index(x, dropY, rot);
+            if (!landingFound[landing]) {
+                landingFound[landing] = true;
+                // 占有セルが同じなら、先に見つかった (コストの小さい) 方を正準として残す
+                if (ws.addFootprint(footprintKey(g, x, dropY))) {
+                    ws.addLanding(landing, s);
+                }
+            }
+
+            // --- 横移動 (タップ) ---
+            for (int dir = -1; dir <= 1; dir += 2) {
+                if (!board.fits(g, x + dir, y)) continue;
+                relax(ws, s, index(x + dir, y, rot),
+                      INPUT_WEIGHT, ACTION_FRAMES, dir < 0 ? VIA_TAP_LEFT : VIA_TAP_RIGHT);
+            }
+
+            // --- 回転 ---
+            for (int dir = 0; dir < 2; dir++) {
+                boolean clockwise = (dir == 1);
+                int rr = RotationSystem.simulateRotationPacked(x, y, rot, shape, board, clockwise);
+                if (rr == RotationSystem.ROTATION_FAILED) continue;
+                int next = index(RotationSystem.packedX(rr), RotationSystem.packedY(rr), RotationSystem.packedRot(rr));
+                if (next == s) continue; // Oミノなど形が変わらない回転
+                relax(ws, s, next,
+                      INPUT_WEIGHT, ACTION_FRAMES, clockwise ? VIA_ROTATE_RIGHT : VIA_ROTATE_LEFT);
+            }
+
+            // --- ソフトドロップ (タッキング用) ---
+            int fall = dropY - y;
+            if (fall >= 1) {
+                relax(ws, s, index(x, y + 1, rot),
+                      INPUT_WEIGHT * SOFT_DROP_INPUT_PENALTY, AIPlayer.FRAMES_PER_CELL_DROP, VIA_SOFT_DROP);
+            }
+            if (fall >= 2) {
+                relax(ws, s, index(x, dropY, rot),
+                      INPUT_WEIGHT * SOFT_DROP_INPUT_PENALTY, fall * AIPlayer.FRAMES_PER_CELL_DROP, VIA_SOFT_DROP_FLOOR);
+            }
+        }
+        return ws.landingCount;
+    }
+
+    private static void relax(Workspace ws, int from, int to, long inputCost, int frameCost, byte how) {
+        long c = ws.cost[from] + inputCost + frameCost;
+        if (c >= ws.cost[to]) return;
+        ws.cost[to] = c;
+        ws.frames[to] = ws.frames[from] + frameCost;
+        ws.parent[to] = from;
+        ws.via[to] = how;
+        ws.push((c << STATE_BITS) | to);
+    }
+
+    private static List<GameAction> reconstructPath(int[] parent, byte[] via, int end) {
+        LinkedList<GameAction> path = new LinkedList<>();
+        int curr = end;
+        while (parent[curr] >= 0) {
+            int prev = parent[curr];
+            switch (via[curr]) {
+                case VIA_TAP_LEFT -> path.addFirst(GameAction.MOVE_LEFT);
+                case VIA_TAP_RIGHT -> path.addFirst(GameAction.MOVE_RIGHT);
+                case VIA_ROTATE_LEFT -> path.addFirst(GameAction.ROTATE_LEFT);
+                case VIA_ROTATE_RIGHT -> path.addFirst(GameAction.ROTATE_RIGHT);
+                case VIA_SOFT_DROP, VIA_SOFT_DROP_FLOOR -> {
+                    for (int i = stateY(curr) - stateY(prev); i > 0; i--) path.addFirst(GameAction.SOFT_DROP);
+                }
+                default -> { }
+            }
+            curr = prev;
+        }
+        return path;
+    }
+
+    private static int pathLength(int[] parent, byte[] via, int end) {
+        int length = 0;
+        for (int curr = end; parent[curr] >= 0; curr = parent[curr]) length += stepCount(curr, parent[curr], via[curr]);
+        return length;
+    }
+
+    /** reconstructPath と同じ操作列を、末尾 (end の位置) から前に向かって書きます。 */
+    private static void writePath(int[] parent, byte[] via, int endState, byte[] dst, int end) {
+        int pos = end;
+        for (int curr = endState; parent[curr] >= 0; curr = parent[curr]) {
+            GameAction action = stepAction(via[curr]);
+            for (int i = stepCount(curr, parent[curr], via[curr]); i > 0; i--) dst[--pos] = (byte) action.ordinal();
+        }
+    }
+
+    private static int stepCount(int curr, int prev, byte via) {
+        return switch (via) {
+            case VIA_TAP_LEFT, VIA_TAP_RIGHT, VIA_ROTATE_LEFT, VIA_ROTATE_RIGHT -> 1;
+            case VIA_SOFT_DROP, VIA_SOFT_DROP_FLOOR -> stateY(curr) - stateY(prev);
+            default -> 0;
+        };
+    }
+
+    private static GameAction stepAction(byte via) {
+        return switch (via) {
+            case VIA_TAP_LEFT -> GameAction.MOVE_LEFT;
+            case VIA_TAP_RIGHT -> GameAction.MOVE_RIGHT;
+            case VIA_ROTATE_LEFT -> GameAction.ROTATE_LEFT;
+            case VIA_ROTATE_RIGHT -> GameAction.ROTATE_RIGHT;
+            case VIA_SOFT_DROP, VIA_SOFT_DROP_FLOOR -> GameAction.SOFT_DROP;
+            default -> GameAction.NONE;
+        };
+    }
+
+    /**
+     * 着地点が占有する4セルを、回転状態に依存しない1つの値にまとめます。
+     * セル番号 (y * 幅 + x) を昇順に並べて 9bit ずつ詰める。
+     */
+    public static long footprintKey(PieceGeometry g, int x, int y) {
+        return ((long) g.sortedCell(0, x, y) << 27) | ((long) g.sortedCell(1, x, y) << 18)
+             | ((long) g.sortedCell(2, x, y) << 9) | g.sortedCell(3, x, y);
+    }
+
+    private static int dropPiece(Board b, PieceGeometry g, int x, int y) {
+        int targetY = y;
+        while (b.fits(g, x, targetY + 1)) targetY++;
+        return targetY;
+    }
+
+    private static int index(int x, int y, int rot) {
+        return (rot * Y_SPAN + (y + Y_OFFSET)) * X_SPAN + (x + X_OFFSET);
+    }
+    private static int stateX(int s) { return s % X_SPAN - X_OFFSET; }
+    private static int stateY(int s) { return (s / X_SPAN) % Y_SPAN - Y_OFFSET; }
+    private static int stateRot(int s) { return s / (X_SPAN * Y_SPAN); }
+}
@@ -0,0 +1,293 @@
+package org.yourcompany.yourproject.player;
+
+import java.util.Arrays;
+
+import org.yourcompany.yourproject.model.Board;
+import org.yourcompany.yourproject.model.Shape;
+
+/**
+ * C++ 側 (tetris_eval.cpp) の手作り評価関数の移植。
+ * 高さ・凹凸・穴・張り出し・井戸・Tスロットから盤面を点数化する。
+ * ONNX 評価の前段フィルタとして、またモデルが無いときの単独エンジンとして使う。
+ *
+ * 内部では C++ と同じく y=0 を最下段とする向きに変換して計算する
+ * (Java の Board は y=0 が最上段)。
+ *
+ * 作業用の配列をインスタンスで使い回すので、1つのインスタンスを複数スレッドで同時に使わないこと。
+ */
+public class HeuristicEvaluator {
+
+    /**
+     * 評価の重み。既定値は C++ の EvalWeights (CC デフォルト) と同じ。
+     */
+    public static class Weights {
+        public int height        = -39;
+        public int bumpiness     = -24;
+        public int bumpinessSq   = -7;
+
+        public int rowTrans      = -5;
+        public int covered       = -17;
+        public int coveredSq     = -1;
+
+        public int cavityCells     = -173;
+        public int cavityCellsSq   = -3;
+        public int overhangCells   = -34;
+        public int overhangCellsSq = -1;
+
+        public int topHalf       = -150;
+        public int topQuarter    = -511;
+
+        public int wellDepth     = 57;
+        public int maxWellCap    = 17;
+
+        public int perfectClear  = 999;
+        public int wastedT       = -152;
+
+        public int[] wellColumn = {20, 23, 20, 50, 59, 21, 59, 10, -10, 24};
+
+        // Tスロット（0,1,2,3ライン消去）
+        public int[] tslot = {8, 148, 192, 407};
+
+        // ライン消去報酬
+        public int clear1 = -143;
+        public int clear2 = -100;
+        public int clear3 = -58;
+        public int clear4 = 390;
+    }
+
+    private static final int W = Board.BOARD_WIDTH;
+    private static final int H = Board.TOTAL_BOARD_HEIGHT;
+
+    private final Weights w;
+
+    // --- 作業領域 (evaluateBoard のたびに上書きする) ---
+    private final boolean[][] b = new boolean[H][W];
+    private final int[] h = new int[W];
+    private int cavities, overhangs;
+    private int covered, coveredSq;
+    private int wellCells, wellCol;
+    private int bump, bumpSq;
+
+    public HeuristicEvaluator() {
+        this(new Weights());
+    }
+
+    public HeuristicEvaluator(Weights weights) {
+        this.w = weights;
+    }
+
+    /**
+     * ライン消去の報酬込みで着地後の盤面を評価します (C++ の evaluate_landing 相当)。
+     * Java 側の探索は T-Spin / コンボ / B2B を判定しないので、それらの項は含まない。
+     * @param boardAfter ライン消去後の盤面
+     * @param shape 置いたミノ
+     * @param linesCleared 消去ライン数
+     */
+    public int evaluateLanding(Board boardAfter, Shape.Tetrominoes shape, int linesCleared) {
+        int score = evaluateBoard(boardAfter);
+        if (linesCleared > 0 && boardAfter.isBoardEmpty()) score += w.perfectClear;
+        switch (linesCleared) {
+            case 1 -> score += w.clear1;
+            case 2 -> score += w.clear2;
+            case 3 -> score += w.clear3;
+            case 4 -> score += w.clear4;
+            default -> { }
+        }
+        if (shape == Shape.Tetrominoes.TShape && linesCleared == 0) score += w.wastedT;
+        return score;
+    }
+
+    /**
+     * 盤面評価 (C++ の evaluate_board 相当、Tスロット連鎖込み)。
+     */
+    public int evaluateBoard(Board board) {
+        toBottomUp(board);
+        int maxh = 0;
+        for (int x = 0; x < W; x++) {
+            h[x] = board.getColumnHeight(x);
+            maxh = Math.max(maxh, h[x]);
+        }
+
+        cavitiesAndOverhangs(maxh);
+        int rtrans = board.getRowTransitions();
+        coveredCells();
+        wellDepth(w.maxWellCap);
+        int wdepth = wellCells, wcol = wellCol;
+        bumpinessExcludingWell(wcol);
+
+        int score = 0;
+        score += w.height          * maxh;
+        score += w.bumpiness       * bump;
+        score += w.bumpinessSq     * bumpSq;
+        score += w.rowTrans        * rtrans;
+        score += w.covered         * covered;
+        score += w.coveredSq       * coveredSq;
+        score += w.cavityCells     * cavities;
+        score += w.cavityCellsSq   * cavities * cavities;
+        score += w.overhangCells   * overhangs;
+        score += w.overhangCellsSq * overhangs * overhangs;
+
+        // Tスロットを順に埋めて消していく
+        int lines;
+        while ((lines = cutoutOnce()) > 0) {
+            if (lines <= 3) score += w.tslot[lines];
+        }
+
+        // 上側危険度
+        score += w.topHalf    * Math.max(0, maxh - 10);
+        score += w.topQuarter * Math.max(0, maxh - 15);
+
+        // 井戸
+        if (wdepth > 0) {
+            score += w.wellDepth * wdepth;
+            score += w.wellColumn[wcol];
+        }
+        return score;
+    }
+
+    // ---------- 盤面変換 (y=0 を最下段に) ----------
+    private void toBottomUp(Board board) {
+        for (int y = 0; y < H; y++) {
+            int bits = board.getRowBits(H - 1 - y);
+            boolean[] row = b[y];
+            for (int x = 0; x < W; x++) {
+                row[x] = (bits & (1 << x)) != 0;
+            }
+        }
+    }
+
+    // ---------- 凹凸 ----------
+    private void bumpinessExcludingWell(int well) {
+        int sum = -1, sumSq = -1;
+        int prev = (well == 0 ? 1 : 0);
+        for (int i = 1; i < W; i++) {
+            if (i == well) continue;
+            int d = Math.abs(h[prev] - h[i]);
+            sum += d;
+            sumSq += d * d;
+            prev = i;
+        }
+        bump = Math.abs(sum);
+        bumpSq = Math.abs(sumSq);
+    }
+
+    // ---------- covered cells ----------
+    private void coveredCells() {
+        covered = 0;
+        coveredSq = 0;
+        for (int x = 0; x < W; x++) {
+            boolean hole = false;
+            for (int y = 0; y < h[x]; y++) {
+                if (!b[y][x]) hole = true;
+                else if (hole) {
+                    int cells = Math.min(6, h[x] - y - 1);
+                    covered += cells;
+                    coveredSq += cells * cells;
+                }
+            }
+        }
+    }
+
+    // ---------- 井戸 ----------
+    private void wellDepth(int cap) {
+        int well = 0;
+        for (int x = 1; x < W; x++) if (h[x] <= h[well]) well = x;
+
+        int depth = 0;
+        for (int y = h[well]; y < H; y++) {
+            boolean solid = true;
+            for (int x = 0; x < W; x++) {
+                if (x == well) continue;
+                if (!b[y][x]) { solid = false; break; }
+            }
+            if (!solid) break;
+            depth++;
+        }
+        wellCells = Math.min(depth, cap);
+        wellCol = well;
+    }
+
+    // ---------- cavities & overhangs (CC準拠) ----------
+    private void cavitiesAndOverhangs(int maxh) {
+        cavities = 0;
+        overhangs = 0;
+        for (int y = 0; y < maxh; y++) {
+            for (int x = 0; x < W; x++) {
+                if (y >= h[x] || b[y][x]) continue;
+                boolean leftOverhang = x > 1 && h[x - 1] <= y - 1 && h[x - 2] <= y;
+                boolean rightOverhang = x < W - 2 && h[x + 1] <= y - 1 && h[x + 2] <= y;
+                if (leftOverhang || rightOverhang) overhangs++;
+                else cavities++;
+            }
+        }
+    }
+
+    // ---------- Tスロット ----------
+    private static final int[] T_DX = {0, -1, 0, 1};
+    private static final int[] T_DY = {0, 0, 1, 0};
+
+    private static boolean isFilled(boolean[][] b, int x, int y) {
+        if (x < 0 || x >= W || y < 0 || y >= H) return true; // 壁は埋まっている扱い
+        return b[y][x];
+    }
+
+    private static boolean tSlotCenter(boolean[][] b, int cx, int cy) {
+        if (isFilled(b, cx, cy)) return false;
+        if (!isFilled(b, cx, cy - 1)) return false; // 下に支えがある想定
+        int corners = (isFilled(b, cx - 1, cy - 1) ? 1 : 0) + (isFilled(b, cx + 1, cy - 1) ? 1 : 0)
+                    + (isFilled(b, cx - 1, cy + 1) ? 1 : 0) + (isFilled(b, cx + 1, cy + 1) ? 1 : 0);
+        return corners >= 3;
+    }
+
+    private static int simulateTspinLines(boolean[][] b, int cx, int cy) {
+        int cleared = 0;
+        for (int y = 0; y < H; y++) {
+            boolean full = true;
+            for (int x = 0; x < W; x++) {
+                if (!b[y][x] && !isTCell(cx, cy, x, y)) { full = false; break; }
+            }
+            if (full) cleared++;
+        }
+        return cleared;
+    }
+
+    private static boolean isTCell(int cx, int cy, int x, int y) {
+        for (int i = 0; i < 4; i++) {
+            if (cx + T_DX[i] == x && cy + T_DY[i] == y) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 最初に見つかった (消去が発生する) Tスロットを埋めてライン消去します。
+     * @return 消去ライン数 (見つからなければ 0)
+     */
+    private int cutoutOnce() {
+        for (int y = 1; y < H - 1; y++) {
+            for (int x = 1; x < W - 1; x++) {
+                if (!tSlotCenter(b, x, y)) continue;
+                int lines = simulateTspinLines(b, x, y);
+                if (lines == 0) continue;
+
+                for (int i = 0; i < 4; i++) {
+                    int xx = x + T_DX[i], yy = y + T_DY[i];
+                    if (0 <= xx && xx < W && 0 <= yy && yy < H) b[yy][xx] = true;
+                }
+                for (int yy = 0; yy < H; yy++) {
+                    boolean full = true;
+                    for (int xx = 0; xx < W; xx++) if (!b[yy][xx]) { full = false; break; }
+                    if (full) {
+                        // 消えた行の配列を空にして一番上に回す
+                        boolean[] recycled = b[yy];
+                        for (int k = yy; k < H - 1; k++) b[k] = b[k + 1];
+                        Arrays.fill(recycled, false);
+                        b[H - 1] = recycled;
+                        yy--;
+                    }
+                }
+                return lines;
+            }
+        }
+        return 0;
+    }
+}
@@ -1,12 +1,13 @@
 package org.yourcompany.yourproject.player;
 public class InputState {
-    public boolean left = false;
-    public boolean right = false;
-    public boolean rotateLeft = false;
-    public boolean rotateRight = false;
-    public boolean softDrop = false;
-    public boolean hardDrop = false;
-    public boolean hold = false;
+    // (★) キー入力は EDT が書き、シミュレーションスレッドが読むので volatile
+    public volatile boolean left = false;
+    public volatile boolean right = false;
+    public volatile boolean rotateLeft = false;
+    public volatile boolean rotateRight = false;
+    public volatile boolean softDrop = false;
+    public volatile boolean hardDrop = false;
+    public volatile boolean hold = false;
 
     public void reset() {
         left = false;
@@ -0,0 +1,41 @@
+package org.yourcompany.yourproject.player;
+import java.util.List;
+
+import org.yourcompany.yourproject.config.GameAction;
+import org.yourcompany.yourproject.model.GameLogic;
+import org.yourcompany.yourproject.model.Shape;
+
+/**
+ * DAS/ARR を無視して、1手分の操作列を 1 回の update() でまとめて実行できるプレイヤー。
+ * ヘッドレスの AI 同士の対戦を入力速度ではなく探索速度で回すために使う。
+ */
+public interface InstantInputPlayer extends Player {
+
+    /**
+     * 即時実行する 1 手分の操作列。
+     * @param actions HOLD / 移動 / 回転 / SOFT_DROP (1マス) を順に並べ、最後が HARD_DROP
+     * @param startShape 計画したときに操作中だったミノ (actions はこのミノの今の位置から始まる)
+     * @param targetX HARD_DROP 直前にミノがいるべき x 座標
+     * @param targetY HARD_DROP で着地する y 座標 (探索が評価した置き場所)
+     * @param targetRot HARD_DROP 直前にミノがいるべき回転状態
+     */
+    record InstantPlan(List<GameAction> actions, Shape.Tetrominoes startShape, int targetX, int targetY, int targetRot) {}
+
+    /**
+     * @return 即時入力モードが有効なら true
+     */
+    boolean isInstantInput();
+
+    /**
+     * 実行可能な操作列があれば取り出します。思考中などで無ければ null。
+     * @param gameState 自身の現在のゲーム状態
+     */
+    InstantPlan pollInstantPlan(GameLogic gameState);
+
+    /**
+     * 操作列を実行する前に写しのミノでなぞったところ、計画の置き場所に着地しないと分かり、何もせずに捨てたときに呼ばれます
+     * (HOLD を含めて1つも適用していない)。次のフレームの pollInstantPlan() で計画し直すこと。
+     * TetrisAIBrain.findBestMove は操作中のミノの今の位置から探索するので、そのまま探索し直せばよい。
+     */
+    default void instantPlanRejected(InstantPlan plan) {}
+}
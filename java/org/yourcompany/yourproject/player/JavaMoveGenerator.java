@@ -0,0 +1,67 @@
+package org.yourcompany.yourproject.player;
+
+import java.util.List;
+
+import org.yourcompany.yourproject.model.Board;
+import org.yourcompany.yourproject.model.Shape;
+
+/**
+ * Java だけで完結する着地点の列挙器 (既定)。
+ * 開けた盤面なら列の高さから直接求め、タッキングの余地がある盤面だけフィネス最小の全探索を行う。
+ */
+public final class JavaMoveGenerator implements MoveGenerator {
+
+    public static final JavaMoveGenerator INSTANCE = new JavaMoveGenerator();
+
+    private JavaMoveGenerator() {}
+
+    @Override
+    public String name() { return "java"; }
+
+    @Override
+    public void generate(Board board, Shape.Tetrominoes shape, boolean withPaths, SearchArena arena) {
+        MoveList moves = arena.moves;
+        moves.clear();
+        if (shape == null || shape == Shape.Tetrominoes.NoShape) return;
+
+        // (★) 開けた盤面なら列の高さから直接列挙し、タッキングの余地がある盤面だけ全探索する
+        if (enumerateOpenBoard(board, shape, withPaths, arena)) return;
+        // (★) 着地点ごとにフィネス最小 (入力回数 → フレーム数) の操作列を求める
+        FinessePathOptimizer.Workspace ws = arena.finesse;
+        int count = FinessePathOptimizer.searchInto(board, shape, TetrisAIBrain.SPAWN_X, TetrisAIBrain.SPAWN_Y, ws);
+        moves.setSearchedStates(ws.settledCount());
+        for (int i = 0; i < count; i++) {
+            moves.add(ws.landingX(i), ws.landingY(i), ws.landingRot(i), withPaths ? ws.landingPath(i) : null);
+        }
+    }
+
+    /**
+     * (x, y, rot) にいるミノから届く着地点を、操作列付きで arena.moves に書き込みます (探索の1手目用)。
+     * 開けた盤面の近道とネイティブの列挙器はスポーン位置から始める前提なので、いつもフィネス最小の全探索で求める。
+     */
+    static void generateFrom(Board board, Shape.Tetrominoes shape, int x, int y, int rot, SearchArena arena) {
+        MoveList moves = arena.moves;
+        moves.clear();
+        if (shape == null || shape == Shape.Tetrominoes.NoShape) return;
+        FinessePathOptimizer.Workspace ws = arena.finesse;
+        int count = FinessePathOptimizer.searchInto(board, shape, x, y, rot, ws);
+        moves.setSearchedStates(ws.settledCount());
+        for (int i = 0; i < count; i++) {
+            moves.add(ws.landingX(i), ws.landingY(i), ws.landingRot(i), ws.landingPath(i));
+        }
+    }
+
+    /**
+     * 盤面が開けていれば、列の高さから直接求めた着地点を arena.moves に書いて true を返します。
+     * 全探索をネイティブに任せる列挙器もこの近道は共有する。
+     */
+    static boolean enumerateOpenBoard(Board board, Shape.Tetrominoes shape, boolean withPaths, SearchArena arena) {
+        if (!DropPlacementEnumerator.enumerateLandingYs(board, shape, arena.landingYs)) return false;
+        List<FinessePathOptimizer.Placement> template = DropPlacementEnumerator.template(shape);
+        for (int i = 0; i < template.size(); i++) {
+            FinessePathOptimizer.Placement p = template.get(i);
+            arena.moves.add(p.x(), arena.landingYs[i], p.rot(), withPaths ? p.path() : null);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package org.yourcompany.yourproject.player;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 0 以上の long 値の分布を固定の区間で数えるヒストグラム (ロックなし)。
+ * 区間は 2 の冪ごとに 4 分割 (相対誤差 25% 以内) で、record() は配列1要素の加算だけなので
+ * 探索スレッドや描画スレッドから毎回呼んでも測る対象をほとんど乱さない。
+ */
+public final class LongHistogram {
+
+    private static final int SUB_BITS = 2;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucketOf(v));
+        total.increment();
+        sum.add(v);
+    }
+
+    public long count() { return total.sum(); }
+
+    public double mean() {
+        long n = total.sum();
+        return (n == 0) ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * p (0〜1) 分位点の近似値 (その値が入った区間の上端)。記録が無ければ 0。
+     */
+    public long percentile(double p) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            snapshot[b] = counts.get(b);
+            n += snapshot[b];
+        }
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * n));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += snapshot[b];
+            if (seen >= rank) return upperBound(b);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /** 記録された最大値を含む区間の上端。記録が無ければ 0。 */
+    public long max() {
+        for (int b = BUCKETS - 1; b >= 0; b--) {
+            if (counts.get(b) != 0) return upperBound(b);
+        }
+        return 0;
+    }
+
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++) counts.set(b, 0);
+        total.reset();
+        sum.reset();
+    }
+
+    private static int bucketOf(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB) return bucket;
+        int exp = bucket / SUB + SUB_BITS - 1;
+        long lower = (long) (SUB + bucket % SUB) << (exp - SUB_BITS);
+        return lower + (1L << (exp - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,63 @@
+package org.yourcompany.yourproject.player;
+
+import org.yourcompany.yourproject.model.Board;
+import org.yourcompany.yourproject.model.Shape;
+
+/**
+ * 探索で使う着地点の列挙器。TetrisAIBrain は起動時に select() で1つ選び、以後それを使い続ける。
+ *
+ * <ul>
+ *   <li>java   : DropPlacementEnumerator + FinessePathOptimizer (既定)</li>
+ *   <li>native : C++ エンジン (tetris_capi.cpp) を Foreign Function &amp; Memory API 経由で呼ぶ
+ *               (JDK 22 以上で java22/ のソースも一緒にビルドしたときだけ使える)</li>
+ * </ul>
+ * 選択はシステムプロパティ obseris.movegen で行う。native が使えなければ java に戻す。
+ */
+public interface MoveGenerator {
+
+    String PROPERTY = "obseris.movegen";
+
+    /** ログ表示用の名前。 */
+    String name();
+
+    /**
+     * スポーン位置 (TetrisAIBrain.SPAWN_X, SPAWN_Y) から届く着地点を、占有セルの重複を除いて arena.moves に書き込みます。
+     * @param withPaths 着地点ごとの操作列も要るか (findBestMove は2手目以降にしか使わないので false。
+     *                  1手目は JavaMoveGenerator.generateFrom で今の位置から求める)
+     * @param arena 作業領域 (結果の arena.moves を含む)。同時に2つの列挙で共有しないこと
+     */
+    void generate(Board board, Shape.Tetrominoes shape, boolean withPaths, SearchArena arena);
+
+    /**
+     * システムプロパティ obseris.movegen に従って列挙器を選びます。
+     */
+    static MoveGenerator select() {
+        String kind = System.getProperty(PROPERTY, "java");
+        if (!kind.equals("native")) return JavaMoveGenerator.INSTANCE;
+        try {
+            return loadNative(true);
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+            System.err.println("Native move generator unavailable (" + cause + "), using the Java one");
+            return JavaMoveGenerator.INSTANCE;
+        }
+    }
+
+    /**
+     * ネイティブの列挙器を読み込みます。
+     * @param openBoardShortcut 開けた盤面を Java 側の近道で済ませるか (false ならすべてネイティブで全探索する)
+     */
+    static MoveGenerator loadNative(boolean openBoardShortcut) throws ReflectiveOperationException {
+        // (★) FFM を使うクラスは JDK 22 以上でしかコンパイルできないので、名前で読み込む
+        Class<?> type = Class.forName("org.yourcompany.yourproject.player.NativeMoveGenerator");
+        return (MoveGenerator) type.getConstructor(boolean.class).newInstance(openBoardShortcut);
+    }
+
+    /**
+     * Python エンジンの探索の列挙 (tetris_search.cpp) をネイティブで呼ぶ、突き合わせ専用の列挙器を読み込みます。
+     */
+    static MoveGenerator loadNativeSearchLandings() throws ReflectiveOperationException {
+        Class<?> type = Class.forName("org.yourcompany.yourproject.player.NativeMoveGenerator");
+        return (MoveGenerator) type.getMethod("searchLandings").invoke(null);
+    }
+}
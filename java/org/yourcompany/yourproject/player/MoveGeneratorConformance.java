@@ -0,0 +1,285 @@
+package org.yourcompany.yourproject.player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.yourcompany.yourproject.model.Board;
+import org.yourcompany.yourproject.model.PieceGeometry;
+import org.yourcompany.yourproject.model.Shape;
+
+/**
+ * 着地点の列挙器どうしを突き合わせ、同じ入力での速度を測るツール。
+ * ランダムな盤面 (張り出し・穴あり) とおじゃま中心の盤面を作り、形ごとに占有セルの集合を比べる。
+ *
+ * <ul>
+ *   <li>java-full : FinessePathOptimizer の全探索 (基準)</li>
+ *   <li>java      : JavaMoveGenerator (開けた盤面は DropPlacementEnumerator の近道)</li>
+ *   <li>native    : C++ エンジン (tetris_capi.cpp) の全探索。JDK 22 以上で java22/ も一緒にビルドしたときだけ</li>
+ *   <li>cpp-search: Python エンジンの探索が使う enumerate_landings (tetris_search.cpp)。
+ *       スポーンの高さから真下に落とす位置しか試さないので、基準のうち「真下に落として届く」着地点とだけ比べる。
+ *       着地点ごとに経路を探すので遅く (1回数十ms)、先頭の --search-boards 枚だけで比べて測る</li>
+ * </ul>
+ * 食い違いがあれば盤面と差分を表示して終了コード 1 で終わる。
+ *
+ * 使い方: MoveGeneratorConformance [--boards N] [--seed S] [--rounds R] [--search-boards M]
+ *   ネイティブも比べるときは --enable-native-access=ALL-UNNAMED -Dobseris.movegen.lib=... を付ける
+ */
+public final class MoveGeneratorConformance {
+
+    private static final int DEFAULT_BOARDS = 2000;
+    private static final int DEFAULT_ROUNDS = 5;
+    private static final int DEFAULT_SEARCH_BOARDS = 100;
+    private static final int MAX_REPORTED = 10;
+    private static final int ROWS = Board.TOTAL_BOARD_HEIGHT;
+    private static final int FULL_ROW = (1 << Board.BOARD_WIDTH) - 1;
+
+    private static final Shape.Tetrominoes[] SHAPES = {
+            Shape.Tetrominoes.TShape, Shape.Tetrominoes.ZShape, Shape.Tetrominoes.SShape, Shape.Tetrominoes.LineShape,
+            Shape.Tetrominoes.SquareShape, Shape.Tetrominoes.LShape, Shape.Tetrominoes.MirroredLShape,
+    };
+
+    /** 基準: 近道を使わずに常に全探索する。 */
+    private static final MoveGenerator FULL_SEARCH = new MoveGenerator() {
+        @Override
+        public String name() { return "java-full"; }
+
+        @Override
+        public void generate(Board board, Shape.Tetrominoes shape, boolean withPaths, SearchArena arena) {
+            MoveList moves = arena.moves;
+            moves.clear();
+            FinessePathOptimizer.Workspace ws = arena.finesse;
+            int count = FinessePathOptimizer.searchInto(board, shape, TetrisAIBrain.SPAWN_X, TetrisAIBrain.SPAWN_Y, ws);
+            for (int i = 0; i < count; i++) moves.add(ws.landingX(i), ws.landingY(i), ws.landingRot(i), null);
+        }
+    };
+
+    private MoveGeneratorConformance() {}
+
+    public static void main(String[] args) {
+        int boardCount = DEFAULT_BOARDS;
+        long seed = 1;
+        int rounds = DEFAULT_ROUNDS;
+        int searchBoards = DEFAULT_SEARCH_BOARDS;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--boards" -> boardCount = Integer.parseInt(args[i + 1]);
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                case "--rounds" -> rounds = Integer.parseInt(args[i + 1]);
+                case "--search-boards" -> searchBoards = Integer.parseInt(args[i + 1]);
+                default -> System.err.println("Unknown option: " + args[i]);
+            }
+        }
+
+        List<MoveGenerator> generators = new ArrayList<>(List.of(FULL_SEARCH, JavaMoveGenerator.INSTANCE));
+        try {
+            generators.add(MoveGenerator.loadNative(false));
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+            System.out.println("native: skipped (" + cause + ")");
+        }
+        try {
+            generators.add(MoveGenerator.loadNativeSearchLandings());
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+            System.out.println("cpp-search: skipped (" + cause + ")");
+        }
+
+        Random random = new Random(seed);
+        List<Board> boards = new ArrayList<>(boardCount);
+        for (int i = 0; i < boardCount; i++) {
+            boards.add((i % 2 == 0) ? randomBoard(random) : garbageBoard(random));
+        }
+
+        int mismatches = compare(boards, generators, searchBoards);
+        for (MoveGenerator g : generators) {
+            if (dropsOnly(g)) benchmark(g, boards.subList(0, Math.min(searchBoards, boards.size())), 1);
+            else benchmark(g, boards, rounds);
+        }
+
+        System.out.printf("%d boards x %d shapes, %d mismatches%n", boards.size(), SHAPES.length, mismatches);
+        if (mismatches > 0) System.exit(1);
+    }
+
+    // --- 突き合わせ ---
+
+    private static int compare(List<Board> boards, List<MoveGenerator> generators, int searchBoards) {
+        SearchArena arena = new SearchArena();
+        int[] perGenerator = new int[generators.size()];
+        int mismatches = 0;
+        for (int b = 0; b < boards.size(); b++) {
+            Board board = boards.get(b);
+            for (Shape.Tetrominoes shape : SHAPES) {
+                long[] reachable = footprints(FULL_SEARCH, board, shape, arena);
+                for (int g = 1; g < generators.size(); g++) {
+                    if (dropsOnly(generators.get(g)) && b >= searchBoards) continue;
+                    long[] expected = dropsOnly(generators.get(g)) ? straightDrops(board, shape, reachable) : reachable;
+                    long[] actual = footprints(generators.get(g), board, shape, arena);
+                    if (Arrays.equals(expected, actual)) continue;
+                    perGenerator[g]++;
+                    if (mismatches++ < MAX_REPORTED) report(b, board, shape, generators.get(g), expected, actual);
+                }
+            }
+        }
+        for (int g = 1; g < generators.size(); g++) {
+            System.out.printf("%-9s vs %s: %d mismatching (board, shape) pairs%n",
+                    generators.get(g).name(), FULL_SEARCH.name(), perGenerator[g]);
+        }
+        return mismatches;
+    }
+
+    private static boolean dropsOnly(MoveGenerator generator) {
+        return generator.name().equals("cpp-search");
+    }
+
+    /**
+     * reachable のうち、回転・列ごとにスポーンの高さ (置けなければ1段上) から真下に落とした位置だけを残します
+     * (tetris_search.cpp の enumerate_landings と同じ選び方)。
+     */
+    private static long[] straightDrops(Board board, Shape.Tetrominoes shape, long[] reachable) {
+        long[] keys = new long[4 * (Board.BOARD_WIDTH + 8)];
+        int count = 0;
+        for (int rot = 0; rot < 4; rot++) {
+            PieceGeometry g = PieceGeometry.of(shape, rot);
+            for (int x = -4; x < Board.BOARD_WIDTH + 4; x++) {
+                int y = TetrisAIBrain.SPAWN_Y;
+                if (!board.fits(g, x, y) && !board.fits(g, x, --y)) continue;
+                while (board.fits(g, x, y + 1)) y++;
+                long key = FinessePathOptimizer.footprintKey(g, x, y);
+                if (Arrays.binarySearch(reachable, key) >= 0) keys[count++] = key;
+            }
+        }
+        return Arrays.stream(keys, 0, count).sorted().distinct().toArray();
+    }
+
+    /** 列挙結果を占有セルの値 (FinessePathOptimizer.footprintKey) の昇順の配列にします。 */
+    private static long[] footprints(MoveGenerator generator, Board board, Shape.Tetrominoes shape, SearchArena arena) {
+        generator.generate(board, shape, false, arena);
+        MoveList moves = arena.moves;
+        long[] keys = new long[moves.count()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = FinessePathOptimizer.footprintKey(PieceGeometry.of(shape, moves.rot(i)), moves.x(i), moves.y(i));
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static void report(int index, Board board, Shape.Tetrominoes shape, MoveGenerator generator,
+                               long[] expected, long[] actual) {
+        System.out.printf("board %d, %s: %s found %d, %s found %d%n",
+                index, shape, FULL_SEARCH.name(), expected.length, generator.name(), actual.length);
+        for (int y = firstNonEmptyRow(board); y < ROWS; y++) {
+            StringBuilder line = new StringBuilder("  ");
+            for (int x = 0; x < Board.BOARD_WIDTH; x++) line.append((board.getRowBits(y) & (1 << x)) != 0 ? '#' : '.');
+            System.out.println(line.append(' ').append(y));
+        }
+        System.out.println("  only " + FULL_SEARCH.name() + ": " + describe(difference(expected, actual)));
+        System.out.println("  only " + generator.name() + ": " + describe(difference(actual, expected)));
+    }
+
+    private static long[] difference(long[] a, long[] b) {
+        return Arrays.stream(a).filter(k -> Arrays.binarySearch(b, k) < 0).toArray();
+    }
+
+    /** footprintKey を "(x,y)(x,y)(x,y)(x,y)" の形に戻します。 */
+    private static String describe(long[] keys) {
+        StringBuilder sb = new StringBuilder();
+        for (long key : keys) {
+            sb.append(' ');
+            for (int shift = 27; shift >= 0; shift -= 9) {
+                int cell = (int) ((key >>> shift) & 0x1FF);
+                sb.append('(').append(cell % Board.BOARD_WIDTH).append(',').append(cell / Board.BOARD_WIDTH).append(')');
+            }
+        }
+        return (sb.length() == 0) ? " -" : sb.toString();
+    }
+
+    private static int firstNonEmptyRow(Board board) {
+        for (int y = 0; y < ROWS; y++) {
+            if (board.getRowBits(y) != 0) return Math.max(0, y - 1);
+        }
+        return ROWS - 1;
+    }
+
+    // --- 速度 ---
+
+    private static void benchmark(MoveGenerator generator, List<Board> boards, int rounds) {
+        SearchArena arena = new SearchArena();
+        run(generator, boards, arena); // ウォームアップ
+        long placements = 0;
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) placements += run(generator, boards, arena);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long calls = (long) rounds * boards.size() * SHAPES.length;
+        System.out.printf("%-9s %10.0f placements/s  %8.0f calls/s  (%.2f us/call)%n",
+                generator.name(), placements / seconds, calls / seconds, seconds * 1e6 / calls);
+    }
+
+    private static long run(MoveGenerator generator, List<Board> boards, SearchArena arena) {
+        long placements = 0;
+        for (Board board : boards) {
+            for (Shape.Tetrominoes shape : SHAPES) {
+                generator.generate(board, shape, false, arena);
+                placements += arena.moves.count();
+            }
+        }
+        return placements;
+    }
+
+    // --- 盤面の生成 ---
+
+    /**
+     * 列ごとにでこぼこした地形に、ところどころ穴と張り出しを入れた盤面 (タッキングやスピンの入口ができる)。
+     */
+    static Board randomBoard(Random random) {
+        int[] rows = new int[ROWS];
+        int height = random.nextInt(12);
+        for (int x = 0; x < Board.BOARD_WIDTH; x++) {
+            height = Math.max(0, Math.min(16, height + random.nextInt(5) - 2));
+            for (int h = 0; h < height; h++) {
+                if (random.nextInt(8) != 0) rows[ROWS - 1 - h] |= 1 << x;
+            }
+            // 張り出し: 地形の少し上に浮いたブロック
+            if (height > 0 && random.nextInt(4) == 0) rows[ROWS - 2 - height - random.nextInt(2)] |= 1 << x;
+        }
+        return toBoard(rows, random);
+    }
+
+    /**
+     * おじゃまラインを積み上げ、その上にランダムな手で何個かミノを置いた盤面。
+     */
+    static Board garbageBoard(Random random) {
+        int[] rows = new int[ROWS];
+        int lines = 6 + random.nextInt(12);
+        int hole = random.nextInt(Board.BOARD_WIDTH);
+        for (int i = 0; i < lines; i++) {
+            if (random.nextInt(10) < 3) hole = random.nextInt(Board.BOARD_WIDTH);
+            rows[ROWS - 1 - i] = FULL_ROW & ~(1 << hole);
+        }
+        Board board = toBoard(rows, random);
+
+        SearchArena arena = new SearchArena();
+        int pieces = random.nextInt(6);
+        for (int i = 0; i < pieces; i++) {
+            Shape.Tetrominoes shape = SHAPES[random.nextInt(SHAPES.length)];
+            FULL_SEARCH.generate(board, shape, false, arena);
+            MoveList moves = arena.moves;
+            if (moves.count() == 0) break;
+            int k = random.nextInt(moves.count());
+            board.placePiece(PieceGeometry.of(shape, moves.rot(k)), moves.x(k), moves.y(k), shape.color);
+            board.clearLines();
+        }
+        return board;
+    }
+
+    /** 埋まりきった行は実際の対戦では残らないので、1マスずつ空けてから盤面にします。 */
+    private static Board toBoard(int[] rows, Random random) {
+        for (int y = 0; y < ROWS; y++) {
+            if (rows[y] == FULL_ROW) rows[y] &= ~(1 << random.nextInt(Board.BOARD_WIDTH));
+        }
+        Board board = new Board();
+        board.loadRowBits(rows, 0);
+        return board;
+    }
+}
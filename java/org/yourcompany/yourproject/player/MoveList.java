@@ -0,0 +1,61 @@
+package org.yourcompany.yourproject.player;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.yourcompany.yourproject.config.GameAction;
+
+/**
+ * MoveGenerator が書き込む着地点の列 (x, y, 回転, 操作列)。
+ * SearchArena が1つ持って使い回すので、定常状態では列挙のたびに配列を作らない。
+ */
+public final class MoveList {
+
+    private int count;
+    private int searchedStates;
+    private int[] x = new int[128];
+    private int[] y = new int[128];
+    private int[] rot = new int[128];
+    private List<GameAction>[] path = newPathArray(128);
+
+    public int count() { return count; }
+    public int x(int i) { return x[i]; }
+    public int y(int i) { return y[i]; }
+    public int rot(int i) { return rot[i]; }
+    /** i 番目の着地点への操作列 (withPaths を指定しなかったときは null)。 */
+    public List<GameAction> path(int i) { return path[i]; }
+    /** 列挙で訪れた (回転・位置の) 状態数。列の高さから直接求めたときは 0 (計測用)。 */
+    public int searchedStates() { return searchedStates; }
+
+    void clear() {
+        Arrays.fill(path, 0, count, null);
+        count = 0;
+        searchedStates = 0;
+    }
+
+    void setSearchedStates(int states) {
+        searchedStates = states;
+    }
+
+    void add(int px, int py, int prot, List<GameAction> movePath) {
+        if (count == x.length) grow();
+        x[count] = px;
+        y[count] = py;
+        rot[count] = prot;
+        path[count] = movePath;
+        count++;
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        rot = Arrays.copyOf(rot, capacity);
+        path = Arrays.copyOf(path, capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<GameAction>[] newPathArray(int capacity) {
+        return (List<GameAction>[]) new List<?>[capacity];
+    }
+}
@@ -0,0 +1,305 @@
+package org.yourcompany.yourproject.player;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.yourcompany.yourproject.model.Board;
+import org.yourcompany.yourproject.model.GameLogic;
+import org.yourcompany.yourproject.model.PieceGeometry;
+import org.yourcompany.yourproject.model.Shape;
+import org.yourcompany.yourproject.model.Tetromino;
+
+/**
+ * チェスの perft と同じ要領で、盤面とツモ順から depth 手先までの「置き方の列」を数えるツール。
+ * 着地点の列挙 (MoveGenerator / RotationSystem) とホールドの扱いの検証と、その速度の計測に使う。
+ *
+ * <p>1手ごとに占有セルの異なる着地点を1つずつ数える。ホールドありなら、ホールドして別のミノを置く手も数える
+ * (ホールド中のミノが今のミノと同じときは盤面も状態も変わらないので数えない)。
+ * 深さごとのノード数と、ノードの盤面とホールドから作るチェックサム (順序によらない和) を出すので、
+ * 版をまたいで同じ入力で比べれば列挙結果が変わっていないか分かる。1手目の枝ごとに並列に数える。
+ *
+ * 使い方: PlacementPerft [--seed S | --board file] [--queue TIOLJSZ] [--depth N] [--hold] [--threads T]
+ *   --board  盤面のファイル ('#' が埋まり、上から順の行を盤面の一番下に置く)。無ければ空盤面
+ *   --queue  ツモ順 (先頭が今のミノ)。無ければ --seed の GameLogic から今のミノ + ネクスト6個
+ *   --generator java|native を付けると列挙器を選べる (既定は -Dobseris.movegen に従う)
+ */
+public final class PlacementPerft {
+
+    private static final int DEFAULT_DEPTH = 3;
+
+    /** 数え上げの途中の状態。queueIndex が今のミノの位置。 */
+    private record Node(Board board, int queueIndex, Shape.Tetrominoes hold) {}
+
+    /** 深さごとのノード数とチェックサム (添字 1 が1手目)。 */
+    private record Counts(long[] nodes, long[] checksums) {
+        Counts(int depth) {
+            this(new long[depth + 1], new long[depth + 1]);
+        }
+
+        void add(Counts other) {
+            for (int d = 0; d < nodes.length; d++) {
+                nodes[d] += other.nodes[d];
+                checksums[d] += other.checksums[d];
+            }
+        }
+    }
+
+    private final Shape.Tetrominoes[] queue;
+    private final int depth;
+    private final boolean useHold;
+    private final MoveGenerator generator;
+
+    // 深さごとの作業用の盤面と列挙結果 (スレッドごと)
+    private final ThreadLocal<Board[]> boards;
+    private final ThreadLocal<SearchArena[]> arenas;
+
+    PlacementPerft(Shape.Tetrominoes[] queue, int depth, boolean useHold, MoveGenerator generator) {
+        this.queue = queue;
+        this.depth = depth;
+        this.useHold = useHold;
+        this.generator = generator;
+        this.boards = ThreadLocal.withInitial(() -> {
+            Board[] b = new Board[depth + 1];
+            for (int i = 0; i < b.length; i++) b[i] = new Board();
+            return b;
+        });
+        this.arenas = ThreadLocal.withInitial(() -> {
+            SearchArena[] a = new SearchArena[depth + 1];
+            for (int i = 0; i < a.length; i++) a[i] = new SearchArena(1, 1);
+            return a;
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        long seed = 1;
+        Path boardFile = null;
+        String queueText = null;
+        int depth = DEFAULT_DEPTH;
+        boolean hold = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String generatorName = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--board" -> boardFile = Path.of(args[++i]);
+                case "--queue" -> queueText = args[++i];
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--hold" -> hold = true;
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--generator" -> generatorName = args[++i];
+                default -> System.err.println("Unknown option: " + args[i]);
+            }
+        }
+        if (depth < 1) {
+            System.err.println("Depth must be at least 1, got " + depth);
+            return;
+        }
+
+        Board board = (boardFile != null) ? readBoard(boardFile) : new Board();
+        Shape.Tetrominoes[] queue = (queueText != null) ? parseQueue(queueText) : queueFromSeed(seed);
+        MoveGenerator generator = selectGenerator(generatorName);
+        int needed = depth + (hold ? 1 : 0);
+        if (queue.length < depth) {
+            System.err.println("Queue has " + queue.length + " pieces, depth " + depth + " needs at least " + depth);
+            return;
+        }
+
+        StringBuilder q = new StringBuilder();
+        for (Shape.Tetrominoes s : queue) q.append(letter(s));
+        System.out.printf("queue=%s depth=%d hold=%b generator=%s threads=%d%n",
+                q, depth, hold, generator.name(), threads);
+        if (queue.length < needed) {
+            System.out.println("(queue is shorter than depth + 1: the last hold branches have no piece to place)");
+        }
+
+        PlacementPerft perft = new PlacementPerft(queue, depth, hold, generator);
+        long start = System.nanoTime();
+        Counts counts = perft.run(board, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long total = 0;
+        System.out.println("depth            nodes  checksum");
+        for (int d = 1; d <= depth; d++) {
+            total += counts.nodes()[d];
+            System.out.printf("%5d %16d  %016x%n", d, counts.nodes()[d], counts.checksums()[d]);
+        }
+        System.out.printf("total nodes=%d time=%.3f s nodes/s=%.0f%n", total, seconds, total / seconds);
+    }
+
+    /**
+     * 1手目の枝ごとに threads 本のスレッドで数えます。
+     */
+    Counts run(Board root, int threads) throws Exception {
+        Counts total = new Counts(depth);
+        List<Node> firstLayer = new ArrayList<>();
+        expand(new Node(root, 0, null), 0, firstLayer, total);
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<Counts>> futures = new ArrayList<>(firstLayer.size());
+            for (Node node : firstLayer) {
+                futures.add(pool.submit(() -> {
+                    Counts counts = new Counts(depth);
+                    walk(node, 1, counts);
+                    return counts;
+                }));
+            }
+            for (Future<Counts> f : futures) total.add(f.get());
+        } finally {
+            pool.shutdown();
+        }
+        return total;
+    }
+
+    /** node (d 手置いた後) から先を深さ優先で数えます。 */
+    private void walk(Node node, int d, Counts counts) {
+        if (d == depth) return;
+        expand(node, d, null, counts);
+    }
+
+    /**
+     * node の子 (d + 1 手目) を数え、children があればそこに集め、無ければその場で先を数えます。
+     */
+    private void expand(Node node, int d, List<Node> children, Counts counts) {
+        Shape.Tetrominoes current = pieceAt(node.queueIndex());
+        if (current == null) return;
+
+        // 今のミノを置く
+        place(node, d, current, node.queueIndex() + 1, node.hold(), children, counts);
+
+        if (!useHold) return;
+        if (node.hold() == null) {
+            // 空のホールドに入れて、次のミノを置く
+            Shape.Tetrominoes next = pieceAt(node.queueIndex() + 1);
+            if (next != null) place(node, d, next, node.queueIndex() + 2, current, children, counts);
+        } else if (node.hold() != current) {
+            // ホールドと入れ替える (同じ形なら置かない手と同じ状態になる)
+            place(node, d, node.hold(), node.queueIndex() + 1, current, children, counts);
+        }
+    }
+
+    private void place(Node node, int d, Shape.Tetrominoes shape, int nextIndex, Shape.Tetrominoes nextHold,
+                       List<Node> children, Counts counts) {
+        SearchArena arena = arenas.get()[d];
+        Board child = boards.get()[d + 1];
+        generator.generate(node.board(), shape, false, arena);
+        MoveList moves = arena.moves;
+        for (int i = 0; i < moves.count(); i++) {
+            Board target = (children != null) ? new Board() : child;
+            target.copyFrom(node.board());
+            target.placePiece(PieceGeometry.of(shape, moves.rot(i)), moves.x(i), moves.y(i), shape.color);
+            target.clearLines();
+
+            counts.nodes()[d + 1]++;
+            counts.checksums()[d + 1] += hash(target, nextHold);
+
+            Node next = new Node(target, nextIndex, nextHold);
+            if (children != null) {
+                children.add(next);
+            } else {
+                walk(next, d + 1, counts);
+            }
+        }
+    }
+
+    private Shape.Tetrominoes pieceAt(int index) {
+        return (index < queue.length) ? queue[index] : null;
+    }
+
+    /** 盤面の行ビットとホールドのミノから作る 64bit のハッシュ (SplitMix64 の混ぜ方)。 */
+    static long hash(Board board, Shape.Tetrominoes hold) {
+        long h = (hold == null) ? 0x9E3779B97F4A7C15L : hold.ordinal() + 1;
+        for (int y = 0; y < Board.TOTAL_BOARD_HEIGHT; y++) {
+            h = mix(h + board.getRowBits(y) + 0x9E3779B97F4A7C15L * (y + 1));
+        }
+        return h;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // --- 入力 ---
+
+    private static MoveGenerator selectGenerator(String name) {
+        if (name == null) return MoveGenerator.select();
+        if (name.equals("native")) {
+            try {
+                return MoveGenerator.loadNative(true);
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+                System.err.println("Native move generator unavailable (" + cause + "), using the Java one");
+            }
+        }
+        return JavaMoveGenerator.INSTANCE;
+    }
+
+    /** GameLogic を種でリセットしたときの、今のミノ + ネクスト5個 + 6個目。 */
+    private static Shape.Tetrominoes[] queueFromSeed(long seed) {
+        GameLogic logic = new GameLogic();
+        logic.reset(seed);
+        List<Shape.Tetrominoes> shapes = new ArrayList<>();
+        shapes.add(logic.getCurrentTetromino().getPieceShape());
+        for (Tetromino t : logic.getNextQueue()) shapes.add(t.getPieceShape());
+        Tetromino sixth = logic.getSixthPiece();
+        if (sixth != null) shapes.add(sixth.getPieceShape());
+        return shapes.toArray(new Shape.Tetrominoes[0]);
+    }
+
+    private static Shape.Tetrominoes[] parseQueue(String text) {
+        Shape.Tetrominoes[] shapes = new Shape.Tetrominoes[text.length()];
+        for (int i = 0; i < shapes.length; i++) {
+            shapes[i] = switch (Character.toUpperCase(text.charAt(i))) {
+                case 'T' -> Shape.Tetrominoes.TShape;
+                case 'Z' -> Shape.Tetrominoes.ZShape;
+                case 'S' -> Shape.Tetrominoes.SShape;
+                case 'I' -> Shape.Tetrominoes.LineShape;
+                case 'O' -> Shape.Tetrominoes.SquareShape;
+                case 'L' -> Shape.Tetrominoes.LShape;
+                case 'J' -> Shape.Tetrominoes.MirroredLShape;
+                default -> throw new IllegalArgumentException("Unknown piece '" + text.charAt(i) + "' in queue");
+            };
+        }
+        return shapes;
+    }
+
+    private static char letter(Shape.Tetrominoes shape) {
+        return switch (shape) {
+            case TShape -> 'T';
+            case ZShape -> 'Z';
+            case SShape -> 'S';
+            case LineShape -> 'I';
+            case SquareShape -> 'O';
+            case LShape -> 'L';
+            case MirroredLShape -> 'J';
+            case NoShape -> '-';
+        };
+    }
+
+    /** '#' が埋まりの行を上から順に並べたファイルを、盤面の一番下に置きます。 */
+    private static Board readBoard(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (!line.isBlank()) lines.add(line);
+        }
+        int[] rows = new int[Board.TOTAL_BOARD_HEIGHT];
+        int first = Board.TOTAL_BOARD_HEIGHT - Math.min(lines.size(), Board.TOTAL_BOARD_HEIGHT);
+        for (int y = first; y < Board.TOTAL_BOARD_HEIGHT; y++) {
+            String line = lines.get(lines.size() - (Board.TOTAL_BOARD_HEIGHT - y));
+            for (int x = 0; x < Math.min(line.length(), Board.BOARD_WIDTH); x++) {
+                if (line.charAt(x) == '#') rows[y] |= 1 << x;
+            }
+        }
+        Board board = new Board();
+        board.loadRowBits(rows, 0);
+        return board;
+    }
+}
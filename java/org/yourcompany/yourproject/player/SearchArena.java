@@ -0,0 +1,214 @@
+package org.yourcompany.yourproject.player;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.yourcompany.yourproject.config.GameAction;
+import org.yourcompany.yourproject.model.Board;
+
+/**
+ * ビームサーチ1回分 (findBestMove 1回) の作業領域。
+ * ノードの盤面・累積報酬・親・スコアを平坦なプリミティブ配列に持ち、ノードは添字で表す。
+ * 探索のたびに reset() して使い回すので、定常状態では探索中にノードや盤面のオブジェクトを作らない
+ * (容量が足りなくなったときだけ配列を倍に広げる)。
+ *
+ * 1つの探索が使い終わるまで他から触らないこと (AIPlayer / AIEvaluator がそれぞれ1つずつ持つ)。
+ */
+public final class SearchArena {
+
+    private static final int ROWS = Board.TOTAL_BOARD_HEIGHT;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // --- ノード (添字 = ノード番号) ---
+    int size;
+    int[] rowBits;       // ノード i の盤面 = rowBits[i * ROWS .. i * ROWS + ROWS)
+    int[] parent;        // 親ノード (1手目は -1)
+    int[] firstMove;     // そのノードに至る1手目のノード
+    double[] reward;     // 累積報酬 (ライン消去点)
+    double[] heuristic;  // 手作り評価
+    double[] aiScore;    // 最終評価 (ONNX またはヒューリスティック)
+    double[] sortKey;    // 並べ替え用
+    int[] finalX, finalY, finalRot, linesCleared;
+    long[] scoreDelta;
+    boolean[] usedHold;
+    List<GameAction>[] path; // 1手目のみ使う (空盤面テーブルなどの既存リストを参照するだけ)
+
+    // --- 候補・ビーム (ノード番号の列) ---
+    int[] order;
+    final int[] beam;
+    int beamSize;
+
+    // --- 作業用の盤面 (中身を上書きして使い回す) ---
+    final Board root = new Board();
+    final Board parentBoard = new Board();
+    final Board child = new Board();
+    final int[] landingYs = new int[64];
+    final FinessePathOptimizer.Workspace finesse = new FinessePathOptimizer.Workspace();
+    // MoveGenerator の出力 (1回の列挙分)
+    final MoveList moves = new MoveList();
+
+    // 評価器は作業用の配列を持つので、アリーナごとに1つ持つ
+    final HeuristicEvaluator evaluator = new HeuristicEvaluator();
+
+    // 探索1回分の計測値と、探索の終わりにそれを足し込む先
+    final SearchMetrics.Tally tally = new SearchMetrics.Tally();
+    private volatile SearchMetrics metrics = SearchMetrics.named(SearchMetrics.DEFAULT_NAME);
+
+    private FloatBuffer boardBuffer;
+    private FloatBuffer featureBuffer;
+
+    public SearchArena() {
+        this(INITIAL_CAPACITY, 64);
+    }
+
+    @SuppressWarnings("unchecked")
+    public SearchArena(int capacity, int maxBeamWidth) {
+        rowBits = new int[capacity * ROWS];
+        parent = new int[capacity];
+        firstMove = new int[capacity];
+        reward = new double[capacity];
+        heuristic = new double[capacity];
+        aiScore = new double[capacity];
+        sortKey = new double[capacity];
+        finalX = new int[capacity];
+        finalY = new int[capacity];
+        finalRot = new int[capacity];
+        linesCleared = new int[capacity];
+        scoreDelta = new long[capacity];
+        usedHold = new boolean[capacity];
+        path = (List<GameAction>[]) new List<?>[capacity];
+        order = new int[capacity];
+        beam = new int[maxBeamWidth];
+    }
+
+    /** 次の探索のために空にする (配列はそのまま再利用)。 */
+    public void reset() {
+        Arrays.fill(path, 0, size, null);
+        size = 0;
+        beamSize = 0;
+        tally.reset();
+    }
+
+    /** このアリーナでの探索の計測値を記録する先 (既定は SearchMetrics.DEFAULT_NAME)。 */
+    public SearchMetrics getMetrics() { return metrics; }
+
+    public void setMetrics(SearchMetrics metrics) { this.metrics = metrics; }
+
+    /**
+     * ノードを1つ追加し、その番号を返します。盤面は board の占有ビットだけを写す。
+     * @param parentNode 親ノード (1手目なら -1)
+     */
+    int addNode(Board board, int parentNode, double cumulativeReward,
+                int x, int y, int rot, int lines, long delta, boolean hold, List<GameAction> movePath) {
+        if (size == parent.length) grow();
+        int i = size++;
+        board.copyRowBitsTo(rowBits, i * ROWS);
+        parent[i] = parentNode;
+        firstMove[i] = (parentNode < 0) ? i : firstMove[parentNode];
+        reward[i] = cumulativeReward;
+        heuristic[i] = 0;
+        aiScore[i] = Double.NEGATIVE_INFINITY;
+        finalX[i] = x;
+        finalY[i] = y;
+        finalRot[i] = rot;
+        linesCleared[i] = lines;
+        scoreDelta[i] = delta;
+        usedHold[i] = hold;
+        path[i] = (parentNode < 0) ? movePath : null;
+        return i;
+    }
+
+    /** ノードの盤面を board に組み立て直します。 */
+    void loadBoard(int node, Board board) {
+        board.loadRowBits(rowBits, node * ROWS);
+    }
+
+    /** ノード node の行 y の占有ビット。 */
+    int rowBitsOf(int node, int y) {
+        return rowBits[node * ROWS + y];
+    }
+
+    /**
+     * order[0..count) を sortKey の降順に並べ替えます。
+     * 同点は番号の小さい (先に生成された) ノードを先にするので、安定ソートと同じ並びになる。
+     */
+    void sortOrderByKeyDescending(int count) {
+        quickSort(0, count - 1);
+    }
+
+    /** ONNX 入力用の盤面バッファ (floats 要素、position 0 / limit floats で返す)。 */
+    FloatBuffer boardBuffer(int floats) {
+        if (boardBuffer == null || boardBuffer.capacity() < floats) boardBuffer = FloatBuffer.allocate(floats);
+        boardBuffer.clear();
+        boardBuffer.limit(floats);
+        return boardBuffer;
+    }
+
+    /** ONNX 入力用の特徴量バッファ (floats 要素、position 0 / limit floats で返す)。 */
+    FloatBuffer featureBuffer(int floats) {
+        if (featureBuffer == null || featureBuffer.capacity() < floats) featureBuffer = FloatBuffer.allocate(floats);
+        featureBuffer.clear();
+        featureBuffer.limit(floats);
+        return featureBuffer;
+    }
+
+    private void quickSort(int lo, int hi) {
+        while (hi - lo > 16) {
+            int mid = (lo + hi) >>> 1;
+            int pivot = order[mid];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (before(order[i], pivot)) i++;
+                while (before(pivot, order[j])) j--;
+                if (i <= j) {
+                    int t = order[i]; order[i] = order[j]; order[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            // 小さい側を再帰、大きい側はループで処理して再帰を浅く保つ
+            if (j - lo < hi - i) {
+                quickSort(lo, j);
+                lo = i;
+            } else {
+                quickSort(i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            int v = order[i];
+            int j = i - 1;
+            while (j >= lo && before(v, order[j])) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = v;
+        }
+    }
+
+    private boolean before(int a, int b) {
+        double ka = sortKey[a], kb = sortKey[b];
+        if (ka != kb) return ka > kb;
+        return a < b;
+    }
+
+    private void grow() {
+        int capacity = parent.length * 2;
+        rowBits = Arrays.copyOf(rowBits, capacity * ROWS);
+        parent = Arrays.copyOf(parent, capacity);
+        firstMove = Arrays.copyOf(firstMove, capacity);
+        reward = Arrays.copyOf(reward, capacity);
+        heuristic = Arrays.copyOf(heuristic, capacity);
+        aiScore = Arrays.copyOf(aiScore, capacity);
+        sortKey = Arrays.copyOf(sortKey, capacity);
+        finalX = Arrays.copyOf(finalX, capacity);
+        finalY = Arrays.copyOf(finalY, capacity);
+        finalRot = Arrays.copyOf(finalRot, capacity);
+        linesCleared = Arrays.copyOf(linesCleared, capacity);
+        scoreDelta = Arrays.copyOf(scoreDelta, capacity);
+        usedHold = Arrays.copyOf(usedHold, capacity);
+        path = Arrays.copyOf(path, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+}
@@ -0,0 +1,492 @@
+package org.yourcompany.yourproject.player;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.yourcompany.yourproject.model.Board;
+import org.yourcompany.yourproject.model.GameLogic;
+import org.yourcompany.yourproject.model.PieceGeometry;
+import org.yourcompany.yourproject.model.RotationSystem;
+import org.yourcompany.yourproject.model.Shape;
+import org.yourcompany.yourproject.model.Tetromino;
+
+/**
+ * 盤面操作・着地点の列挙・テンソル化・推論・探索全体のマイクロベンチマーク。
+ * JMH と同じ手順 (ウォームアップ → 計測を複数回、結果は平均 ± 99.9% 信頼区間) で測り、
+ * --out を付けると JMH の JSON 形式で書き出す (jmh-visualizer などでそのまま比べられる)。
+ *
+ * <p>入力は固定シードで作る盤面: empty / midgame (手作り評価で30手) / garbage (おじゃま12段) / tspin (TSD の形)。
+ *
+ * 使い方: SearchBenchmarks [--filter 正規表現] [--warmup N] [--iterations N] [--time ミリ秒]
+ *                          [--model file.onnx] [--out results.json]
+ */
+public final class SearchBenchmarks {
+
+    private static final long SEED = 20240601L;
+    private static final double Z_999 = 3.29; // 99.9% の両側区間
+    private static final int[] BATCH_SIZES = {1, 2, 4, 8, 16, 32, 64, 128, 256};
+    private static final Shape.Tetrominoes[] SHAPES = {
+            Shape.Tetrominoes.TShape, Shape.Tetrominoes.ZShape, Shape.Tetrominoes.SShape, Shape.Tetrominoes.LineShape,
+            Shape.Tetrominoes.SquareShape, Shape.Tetrominoes.LShape, Shape.Tetrominoes.MirroredLShape,
+    };
+
+    // 計測対象の戻り値をここに混ぜて、JIT に計算ごと消されないようにする (JMH の Blackhole の代わり)
+    private static volatile long sink;
+
+    /** 1回の呼び出しで opsPerInvocation 回分の処理をする計測対象。 */
+    private interface Op {
+        long run() throws Exception;
+    }
+
+    private record Benchmark(String name, Map<String, String> params, int opsPerInvocation, Op op) {}
+
+    private record Result(Benchmark benchmark, double[] scores) {
+        double mean() {
+            double sum = 0;
+            for (double s : scores) sum += s;
+            return sum / scores.length;
+        }
+
+        double error() {
+            if (scores.length < 2) return Double.NaN;
+            double m = mean(), sq = 0;
+            for (double s : scores) sq += (s - m) * (s - m);
+            return Z_999 * Math.sqrt(sq / (scores.length - 1)) / Math.sqrt(scores.length);
+        }
+    }
+
+    private SearchBenchmarks() {}
+
+    public static void main(String[] args) throws Exception {
+        Pattern filter = null;
+        int warmup = 3;
+        int iterations = 5;
+        long timeMillis = 500;
+        String model = null;
+        Path out = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--filter" -> filter = Pattern.compile(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--iterations" -> iterations = Integer.parseInt(args[i + 1]);
+                case "--time" -> timeMillis = Long.parseLong(args[i + 1]);
+                case "--model" -> model = args[i + 1];
+                case "--out" -> out = Path.of(args[i + 1]);
+                default -> System.err.println("Unknown option: " + args[i]);
+            }
+        }
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+        Map<String, Board> positions = positions();
+        addBoardBenchmarks(benchmarks, positions);
+        addMoveGenerationBenchmarks(benchmarks, positions);
+        addEncodingBenchmarks(benchmarks, positions);
+        addSearchBenchmarks(benchmarks, positions, model);
+
+        List<Result> results = new ArrayList<>();
+        for (Benchmark b : benchmarks) {
+            String id = id(b);
+            if (filter != null && !filter.matcher(id).find()) continue;
+            try {
+                Result r = measure(b, warmup, iterations, timeMillis * 1_000_000L);
+                results.add(r);
+                System.out.printf("%-60s %12.1f +- %8.1f ns/op%n", id, r.mean(), r.error());
+            } catch (Exception | LinkageError e) {
+                System.out.printf("%-60s skipped (%s)%n", id, e);
+            }
+        }
+        if (out != null) {
+            writeJson(out, results, warmup, iterations, timeMillis);
+            System.out.println("Wrote " + results.size() + " results to " + out);
+        }
+    }
+
+    // --- 計測 ---
+
+    private static Result measure(Benchmark b, int warmup, int iterations, long iterationNanos) throws Exception {
+        for (int i = 0; i < warmup; i++) iteration(b, iterationNanos);
+        double[] scores = new double[iterations];
+        for (int i = 0; i < iterations; i++) scores[i] = iteration(b, iterationNanos);
+        return new Result(b, scores);
+    }
+
+    /** iterationNanos のあいだ呼び続け、1操作あたりのナノ秒を返します。 */
+    private static double iteration(Benchmark b, long iterationNanos) throws Exception {
+        long acc = 0, calls = 0;
+        long start = System.nanoTime(), elapsed;
+        do {
+            acc += b.op().run();
+            calls++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        sink ^= acc;
+        return (double) elapsed / (calls * b.opsPerInvocation());
+    }
+
+    private static String id(Benchmark b) {
+        if (b.params().isEmpty()) return b.name();
+        StringBuilder sb = new StringBuilder(b.name()).append(' ');
+        b.params().forEach((k, v) -> sb.append(k).append('=').append(v).append(','));
+        sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    // --- 盤面操作 ---
+
+    private static void addBoardBenchmarks(List<Benchmark> out, Map<String, Board> positions) {
+        for (Map.Entry<String, Board> e : positions.entrySet()) {
+            Board board = e.getValue();
+            Map<String, String> p = Map.of("position", e.getKey());
+
+            // 全回転・全列・スポーン付近から床までの位置 (形ごと) をまとめて判定する
+            int[][][] shapes = new int[SHAPES.length * 4][][];
+            for (int i = 0; i < shapes.length; i++) shapes[i] = SHAPES[i / 4].allCoords.get(i % 4);
+            int queries = shapes.length * Board.BOARD_WIDTH * 4;
+            out.add(new Benchmark("board.isValidPosition", p, queries, () -> {
+                long valid = 0;
+                for (int[][] shape : shapes) {
+                    for (int x = 0; x < Board.BOARD_WIDTH; x++) {
+                        for (int y = 2; y < Board.TOTAL_BOARD_HEIGHT; y += 10) {
+                            if (board.isValidPosition(shape, x, y)) valid++;
+                        }
+                    }
+                }
+                return valid;
+            }));
+
+            out.add(new Benchmark("board.copyConstructor", p, 1, () -> new Board(board).getMaxHeight()));
+
+            Board work = new Board();
+            out.add(new Benchmark("board.copyFrom", p, 1, () -> {
+                work.copyFrom(board);
+                return work.getMaxHeight();
+            }));
+
+            // 下4段を埋めた盤面を写して消す (copyFrom の分は board.copyFrom と引き比べる)
+            Board filled = withFullBottomRows(board, 4);
+            out.add(new Benchmark("board.clearLines", p, 1, () -> {
+                work.copyFrom(filled);
+                return work.clearLines();
+            }));
+
+            for (int lines : new int[]{1, 4}) {
+                Map<String, String> gp = new LinkedHashMap<>(p);
+                gp.put("lines", Integer.toString(lines));
+                int[] hole = {0};
+                out.add(new Benchmark("board.addGarbageLines", gp, 1, () -> {
+                    work.copyFrom(board);
+                    hole[0] = (hole[0] + 3) % Board.BOARD_WIDTH;
+                    return work.addGarbageLines(lines, hole[0]) ? 1 : 0;
+                }));
+            }
+
+            // 着地点で、左右の回転を全形について試す
+            List<int[]> states = new ArrayList<>();
+            SearchArena arena = new SearchArena();
+            for (Shape.Tetrominoes shape : SHAPES) {
+                JavaMoveGenerator.INSTANCE.generate(board, shape, false, arena);
+                for (int i = 0; i < arena.moves.count(); i++) {
+                    states.add(new int[]{shape.ordinal(), arena.moves.x(i), arena.moves.y(i), arena.moves.rot(i)});
+                }
+            }
+            Shape.Tetrominoes[] all = Shape.Tetrominoes.values();
+            out.add(new Benchmark("rotation.simulateRotation", p, states.size() * 2, () -> {
+                long ok = 0;
+                for (int[] s : states) {
+                    if (RotationSystem.simulateRotation(s[1], s[2], s[3], all[s[0]], board, true).success()) ok++;
+                    if (RotationSystem.simulateRotation(s[1], s[2], s[3], all[s[0]], board, false).success()) ok++;
+                }
+                return ok;
+            }));
+            out.add(new Benchmark("rotation.simulateRotationPacked", p, states.size() * 2, () -> {
+                long acc = 0;
+                for (int[] s : states) {
+                    acc += RotationSystem.simulateRotationPacked(s[1], s[2], s[3], all[s[0]], board, true);
+                    acc += RotationSystem.simulateRotationPacked(s[1], s[2], s[3], all[s[0]], board, false);
+                }
+                return acc;
+            }));
+        }
+    }
+
+    // --- 着地点の列挙 (generateMovesForPieceInternal が呼ぶ MoveGenerator) ---
+
+    private static void addMoveGenerationBenchmarks(List<Benchmark> out, Map<String, Board> positions) {
+        List<MoveGenerator> generators = new ArrayList<>(List.of(JavaMoveGenerator.INSTANCE));
+        try {
+            generators.add(MoveGenerator.loadNative(true));
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // ネイティブが無い環境では Java だけ測る
+        }
+        for (MoveGenerator generator : generators) {
+            for (Map.Entry<String, Board> e : positions.entrySet()) {
+                for (boolean withPaths : new boolean[]{false, true}) {
+                    Board board = e.getValue();
+                    SearchArena arena = new SearchArena();
+                    Map<String, String> p = new LinkedHashMap<>();
+                    p.put("generator", generator.name());
+                    p.put("position", e.getKey());
+                    p.put("paths", Boolean.toString(withPaths));
+                    out.add(new Benchmark("movegen.generate", p, SHAPES.length, () -> {
+                        long count = 0;
+                        for (Shape.Tetrominoes shape : SHAPES) {
+                            generator.generate(board, shape, withPaths, arena);
+                            count += arena.moves.count();
+                        }
+                        return count;
+                    }));
+                }
+            }
+        }
+    }
+
+    // --- テンソル化 ---
+
+    private static void addEncodingBenchmarks(List<Benchmark> out, Map<String, Board> positions) {
+        FloatBuffer sample = FloatBuffer.allocate(BoardTensorEncoder.SAMPLE_SIZE);
+        FloatBuffer features = FloatBuffer.allocate(BoardTensorEncoder.FEATURE_SIZE);
+        List<Tetromino> queue = queue(new Random(SEED), 6);
+        out.add(new Benchmark("encode.queueFeatures", Map.of(), 1, () -> {
+            BoardTensorEncoder.encodeQueueFeatures(features, 0, queue);
+            return Float.floatToRawIntBits(features.get(0));
+        }));
+
+        for (Map.Entry<String, Board> e : positions.entrySet()) {
+            Board board = e.getValue();
+            Map<String, String> p = Map.of("position", e.getKey());
+            out.add(new Benchmark("encode.boardAndPieceMask", p, 1, () -> {
+                BoardTensorEncoder.encodeBoard(sample, 0, board);
+                BoardTensorEncoder.encodePieceMask(sample, BoardTensorEncoder.PLANE_SIZE, Shape.Tetrominoes.TShape, 4, 20, 0);
+                return Float.floatToRawIntBits(sample.get(BoardTensorEncoder.PLANE_SIZE - 1));
+            }));
+
+            // 探索の2手目以降と同じく、アリーナのノードをまとめて展開する
+            SearchArena arena = nodesFor(board);
+            int count = Math.min(arena.size, 64);
+            for (int i = 0; i < count; i++) arena.order[i] = i;
+            FloatBuffer batch = FloatBuffer.allocate(count * BoardTensorEncoder.SAMPLE_SIZE);
+            out.add(new Benchmark("encode.nodes", p, count, () -> {
+                batch.clear();
+                BoardTensorEncoder.encodeNodes(batch, arena, arena.order, count);
+                return Float.floatToRawIntBits(batch.get(batch.capacity() - 1));
+            }));
+        }
+    }
+
+    // --- 推論と探索全体 ---
+
+    private static void addSearchBenchmarks(List<Benchmark> out, Map<String, Board> positions, String model) {
+        List<TetrisAIBrain> brains = new ArrayList<>();
+        brains.add(new TetrisAIBrain());
+        if (model != null) {
+            try {
+                brains.add(new TetrisAIBrain(model));
+            } catch (RuntimeException e) {
+                System.err.println("Failed to load model " + model + ": " + e.getMessage() + " (inference benchmarks skipped)");
+            }
+        }
+
+        for (TetrisAIBrain brain : brains) {
+            if (!brain.hasModel()) continue;
+            for (int batchSize : BATCH_SIZES) {
+                // 1手先のノードを必要なだけ繰り返して並べる
+                SearchArena arena = nodesFor(positions.get("midgame"));
+                for (int i = 0; i < batchSize; i++) arena.order[i] = i % arena.size;
+                FloatBuffer boards = FloatBuffer.allocate(batchSize * BoardTensorEncoder.SAMPLE_SIZE);
+                BoardTensorEncoder.encodeNodes(boards, arena, arena.order, batchSize);
+                boards.clear();
+                FloatBuffer features = null;
+                if (brain.usesQueueFeatures()) {
+                    features = FloatBuffer.allocate(batchSize * BoardTensorEncoder.FEATURE_SIZE);
+                    List<Tetromino> queue = queue(new Random(SEED), 6);
+                    for (int i = 0; i < batchSize; i++) {
+                        BoardTensorEncoder.encodeQueueFeatures(features, i * BoardTensorEncoder.FEATURE_SIZE, queue);
+                    }
+                }
+                FloatBuffer feats = features;
+                out.add(new Benchmark("inference.sessionRun", Map.of("batch", Integer.toString(batchSize)), batchSize, () -> {
+                    brain.runSession(arena, boards, feats, batchSize);
+                    return Double.doubleToRawLongBits(arena.aiScore[arena.order[0]]);
+                }));
+            }
+        }
+
+        for (TetrisAIBrain brain : brains) {
+            String evaluator = brain.hasModel() ? "model" : "heuristic";
+            for (Map.Entry<String, Board> e : positions.entrySet()) {
+                GameLogic myLogic = new GameLogic();
+                GameLogic opponent = new GameLogic();
+                myLogic.reset(SEED);
+                opponent.reset(SEED + 1);
+                myLogic.getBoard().copyFrom(e.getValue());
+                SearchArena arena = new SearchArena();
+                Map<String, String> p = new LinkedHashMap<>();
+                p.put("evaluator", evaluator);
+                p.put("position", e.getKey());
+                out.add(new Benchmark("search.findBestMove", p, 1, () -> {
+                    TetrisAIBrain.LandingSpot spot = brain.findBestMove(myLogic, opponent, arena);
+                    return (spot == null) ? 0 : spot.finalX;
+                }));
+            }
+        }
+    }
+
+    // --- 入力 ---
+
+    /** 固定シードで作った盤面 (並びは結果の表示順)。 */
+    static Map<String, Board> positions() {
+        Map<String, Board> positions = new LinkedHashMap<>();
+        positions.put("empty", new Board());
+        positions.put("midgame", play(new Board(), new Random(SEED), 30));
+        Board garbage = play(new Board(), new Random(SEED + 1), 8);
+        Random holes = new Random(SEED + 2);
+        int hole = holes.nextInt(Board.BOARD_WIDTH);
+        for (int i = 0; i < 12; i++) {
+            if (holes.nextInt(10) < 3) hole = holes.nextInt(Board.BOARD_WIDTH);
+            garbage.addGarbageLines(1, hole);
+        }
+        positions.put("garbage", garbage);
+        positions.put("tspin", parse(
+                "##..##....",
+                "##...#####",
+                "###.######",
+                "####.#####",
+                "#.########"));
+        return positions;
+    }
+
+    /** 7種1巡の袋から引いたミノを、手作り評価が最も高い着地点に置いていきます。 */
+    private static Board play(Board board, Random random, int pieces) {
+        SearchArena arena = new SearchArena();
+        Board child = new Board();
+        List<Shape.Tetrominoes> bag = new ArrayList<>();
+        for (int n = 0; n < pieces; n++) {
+            if (bag.isEmpty()) {
+                bag.addAll(List.of(SHAPES));
+                Collections.shuffle(bag, random);
+            }
+            Shape.Tetrominoes shape = bag.remove(bag.size() - 1);
+            JavaMoveGenerator.INSTANCE.generate(board, shape, false, arena);
+            MoveList moves = arena.moves;
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < moves.count(); i++) {
+                child.copyFrom(board);
+                child.placePiece(PieceGeometry.of(shape, moves.rot(i)), moves.x(i), moves.y(i), shape.color);
+                int lines = child.clearLines();
+                double score = arena.evaluator.evaluateLanding(child, shape, lines);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+            if (best < 0) break;
+            board.placePiece(PieceGeometry.of(shape, moves.rot(best)), moves.x(best), moves.y(best), shape.color);
+            board.clearLines();
+        }
+        return board;
+    }
+
+    /** 上から順に並べた行 ('#' が埋まり) を盤面の一番下に置きます。 */
+    private static Board parse(String... lines) {
+        int[] rows = new int[Board.TOTAL_BOARD_HEIGHT];
+        for (int i = 0; i < lines.length; i++) {
+            int y = Board.TOTAL_BOARD_HEIGHT - lines.length + i;
+            for (int x = 0; x < Board.BOARD_WIDTH; x++) {
+                if (lines[i].charAt(x) == '#') rows[y] |= 1 << x;
+            }
+        }
+        Board board = new Board();
+        board.loadRowBits(rows, 0);
+        return board;
+    }
+
+    private static Board withFullBottomRows(Board board, int count) {
+        int[] rows = new int[Board.TOTAL_BOARD_HEIGHT];
+        board.copyRowBitsTo(rows, 0);
+        for (int y = Board.TOTAL_BOARD_HEIGHT - count; y < Board.TOTAL_BOARD_HEIGHT; y++) {
+            rows[y] = (1 << Board.BOARD_WIDTH) - 1;
+        }
+        Board filled = new Board();
+        filled.loadRowBits(rows, 0);
+        return filled;
+    }
+
+    /** 盤面の1手先の全ノード (T ミノ) を積んだアリーナ。 */
+    private static SearchArena nodesFor(Board board) {
+        SearchArena arena = new SearchArena();
+        Board child = new Board();
+        JavaMoveGenerator.INSTANCE.generate(board, Shape.Tetrominoes.TShape, false, arena);
+        MoveList moves = arena.moves;
+        for (int i = 0; i < moves.count(); i++) {
+            child.copyFrom(board);
+            child.placePiece(PieceGeometry.of(Shape.Tetrominoes.TShape, moves.rot(i)), moves.x(i), moves.y(i),
+                    Shape.Tetrominoes.TShape.color);
+            int lines = child.clearLines();
+            arena.addNode(child, -1, 0, moves.x(i), moves.y(i), moves.rot(i), lines, 0, false, null);
+        }
+        return arena;
+    }
+
+    private static List<Tetromino> queue(Random random, int length) {
+        List<Tetromino> queue = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) queue.add(new Tetromino(SHAPES[random.nextInt(SHAPES.length)]));
+        return queue;
+    }
+
+    // --- JMH 形式の JSON ---
+
+    private static void writeJson(Path out, List<Result> results, int warmup, int iterations, long timeMillis)
+            throws IOException {
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result r = results.get(i);
+            Benchmark b = r.benchmark();
+            sb.append("  {\n");
+            sb.append("    \"benchmark\": \"").append(SearchBenchmarks.class.getName()).append('.').append(b.name()).append("\",\n");
+            sb.append("    \"mode\": \"avgt\",\n");
+            sb.append("    \"threads\": 1,\n");
+            sb.append("    \"forks\": 1,\n");
+            sb.append("    \"jdkVersion\": \"").append(System.getProperty("java.version")).append("\",\n");
+            sb.append("    \"warmupIterations\": ").append(warmup).append(",\n");
+            sb.append("    \"warmupTime\": \"").append(timeMillis).append(" ms\",\n");
+            sb.append("    \"measurementIterations\": ").append(iterations).append(",\n");
+            sb.append("    \"measurementTime\": \"").append(timeMillis).append(" ms\",\n");
+            sb.append("    \"params\": {");
+            int k = 0;
+            for (Map.Entry<String, String> p : b.params().entrySet()) {
+                sb.append(k++ == 0 ? " " : ", ").append('"').append(p.getKey()).append("\": \"").append(p.getValue()).append('"');
+            }
+            sb.append(k > 0 ? " },\n" : "},\n");
+            sb.append("    \"primaryMetric\": {\n");
+            sb.append("      \"score\": ").append(number(r.mean())).append(",\n");
+            sb.append("      \"scoreError\": ").append(number(r.error())).append(",\n");
+            sb.append("      \"scoreUnit\": \"ns/op\",\n");
+            sb.append("      \"rawData\": [[");
+            for (int j = 0; j < r.scores().length; j++) {
+                sb.append(j == 0 ? "" : ", ").append(number(r.scores()[j]));
+            }
+            sb.append("]]\n");
+            sb.append("    }\n");
+            sb.append(i + 1 < results.size() ? "  },\n" : "  }\n");
+        }
+        sb.append("]\n");
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        Files.writeString(out, sb.toString(), StandardCharsets.UTF_8);
+    }
+
+    private static String number(double v) {
+        return Double.isFinite(v) ? String.format(Locale.ROOT, "%.3f", v) : "\"NaN\"";
+    }
+}
@@ -0,0 +1,257 @@
+package org.yourcompany.yourproject.player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * findBestMove の計測値 (探索した状態数・着地点数・層ごとのノード数と時間・推論のバッチサイズ・時間の内訳)。
+ * 名前ごとに1つ登録され、UI やヘッドレスの実行側は named() / all() で取り出して snapshot() をポーリングする。
+ *
+ * <p>探索中は SearchArena が持つ Tally (ただの long) に数え、探索の終わりに record() で1回だけ足し込む。
+ * なので探索の内側のループでは共有の変数に触らない。
+ */
+public final class SearchMetrics {
+
+    /** SearchArena が既定で記録する先。 */
+    public static final String DEFAULT_NAME = "search";
+    /** 層ごとのノード数と時間を数える最大の深さ。 */
+    public static final int MAX_LAYERS = 8;
+    /** 1回の探索で覚えておく推論の呼び出し回数 (超えた分はバッチサイズの分布に入れない)。 */
+    private static final int MAX_BATCHES_PER_SEARCH = 16;
+
+    private static final ConcurrentMap<String, SearchMetrics> REGISTRY = new ConcurrentHashMap<>();
+    // 実行中の探索とモデル呼び出しの数 (すべての脳をまとめて)
+    private static final AtomicInteger SEARCHES_IN_FLIGHT = new AtomicInteger();
+    private static final AtomicInteger INFERENCE_IN_FLIGHT = new AtomicInteger();
+
+    private final String name;
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchedStates = new LongAdder();
+    private final LongAdder landings = new LongAdder();
+    private final LongAdder[] layerNodes = new LongAdder[MAX_LAYERS];
+    private final LongAdder[] layerNanos = new LongAdder[MAX_LAYERS];
+    private final LongHistogram[] layerMicros = new LongHistogram[MAX_LAYERS];
+    private final LongAdder inferenceCalls = new LongAdder();
+    private final LongAdder inferenceSamples = new LongAdder();
+    private final LongAdder moveGenNanos = new LongAdder();
+    private final LongAdder inferenceNanos = new LongAdder();
+    private final LongAdder thinkNanos = new LongAdder();
+    private final LongHistogram thinkMicros = new LongHistogram();
+    private final LongHistogram batchSizes = new LongHistogram();
+    private volatile long lastThinkNanos;
+    private volatile LongConsumer thinkListener;
+
+    private SearchMetrics(String name) {
+        this.name = name;
+        for (int d = 0; d < MAX_LAYERS; d++) {
+            layerNodes[d] = new LongAdder();
+            layerNanos[d] = new LongAdder();
+            layerMicros[d] = new LongHistogram();
+        }
+    }
+
+    /** name の計測値を返します (無ければ登録する)。 */
+    public static SearchMetrics named(String name) {
+        return REGISTRY.computeIfAbsent(name, SearchMetrics::new);
+    }
+
+    /** 登録されているすべての計測値 (名前順)。 */
+    public static List<SearchMetrics> all() {
+        List<SearchMetrics> list = new ArrayList<>(REGISTRY.values());
+        list.sort((a, b) -> a.name.compareTo(b.name));
+        return list;
+    }
+
+    public String name() { return name; }
+
+    /** いま実行中の findBestMove の数。 */
+    public static int searchesInFlight() { return SEARCHES_IN_FLIGHT.get(); }
+
+    /**
+     * いま ONNX の呼び出しを待っているか実行中の評価の数 (推論の待ち行列の長さ)。
+     * 脳はモデルごとに共有されるので、同じセッションを同時に叩いている探索の数になる。
+     */
+    public static int inferenceInFlight() { return INFERENCE_IN_FLIGHT.get(); }
+
+    static void searchStarted() { SEARCHES_IN_FLIGHT.incrementAndGet(); }
+    static void searchFinished() { SEARCHES_IN_FLIGHT.decrementAndGet(); }
+    static void inferenceStarted() { INFERENCE_IN_FLIGHT.incrementAndGet(); }
+    static void inferenceFinished() { INFERENCE_IN_FLIGHT.decrementAndGet(); }
+
+    /** 直前の探索1回の所要時間 (ナノ秒)。まだ探索していなければ 0。 */
+    public long lastThinkNanos() { return lastThinkNanos; }
+
+    /**
+     * 探索1回ごとの所要時間 (ナノ秒) を受け取る先を設定します (null で外す)。
+     * snapshot() の分位点は累計なので、直近の分布が欲しい側 (性能表示) はここから自分の窓に記録する。
+     * 探索したスレッドから呼ばれるので、listener はすぐに返すこと。
+     */
+    public void setThinkListener(LongConsumer listener) { thinkListener = listener; }
+
+    /**
+     * 探索1回分の集計を足し込みます (findBestMove の終わりに1回だけ呼ぶ)。
+     */
+    void record(Tally t) {
+        searches.increment();
+        searchedStates.add(t.searchedStates);
+        landings.add(t.landings);
+        for (int d = 0; d < MAX_LAYERS; d++) {
+            if (t.layerNodes[d] != 0) layerNodes[d].add(t.layerNodes[d]);
+        }
+        for (int d = 0; d < t.timedLayers; d++) {
+            layerNanos[d].add(t.layerNanos[d]);
+            layerMicros[d].record(t.layerNanos[d] / 1000);
+        }
+        inferenceCalls.add(t.inferenceCalls);
+        inferenceSamples.add(t.inferenceSamples);
+        for (int i = 0; i < Math.min(t.inferenceCalls, MAX_BATCHES_PER_SEARCH); i++) batchSizes.record(t.batchSizes[i]);
+        moveGenNanos.add(t.moveGenNanos);
+        inferenceNanos.add(t.inferenceNanos);
+        thinkNanos.add(t.thinkNanos);
+        thinkMicros.record(t.thinkNanos / 1000);
+        lastThinkNanos = t.thinkNanos;
+        LongConsumer listener = thinkListener;
+        if (listener != null) listener.accept(t.thinkNanos);
+    }
+
+    public Snapshot snapshot() {
+        long n = searches.sum();
+        long[] layers = new long[MAX_LAYERS];
+        long[] layerTimes = new long[MAX_LAYERS];
+        long[] layerP50 = new long[MAX_LAYERS];
+        long[] layerP99 = new long[MAX_LAYERS];
+        for (int d = 0; d < MAX_LAYERS; d++) {
+            layers[d] = layerNodes[d].sum();
+            layerTimes[d] = layerNanos[d].sum();
+            layerP50[d] = layerMicros[d].percentile(0.50);
+            layerP99[d] = layerMicros[d].percentile(0.99);
+        }
+        return new Snapshot(name, n, searchedStates.sum(), landings.sum(), layers, layerTimes, layerP50, layerP99,
+                inferenceCalls.sum(), inferenceSamples.sum(), batchSizes.max(),
+                moveGenNanos.sum(), inferenceNanos.sum(), thinkNanos.sum(),
+                thinkMicros.percentile(0.50), thinkMicros.percentile(0.90), thinkMicros.percentile(0.99),
+                thinkMicros.max());
+    }
+
+    public void reset() {
+        searches.reset();
+        searchedStates.reset();
+        landings.reset();
+        for (LongAdder a : layerNodes) a.reset();
+        for (LongAdder a : layerNanos) a.reset();
+        for (LongHistogram h : layerMicros) h.reset();
+        inferenceCalls.reset();
+        inferenceSamples.reset();
+        moveGenNanos.reset();
+        inferenceNanos.reset();
+        thinkNanos.reset();
+        thinkMicros.reset();
+        batchSizes.reset();
+        lastThinkNanos = 0;
+    }
+
+    /**
+     * ある時点の計測値 (累計)。時間はナノ秒、思考時間の分位点はマイクロ秒。
+     * @param layerNodes 深さ (0 が1手目) ごとに生成したノード数の累計
+     * @param layerNanos 深さごとの時間 (生成と評価と絞り込み) の累計
+     * @param layerP50Micros 深さごとの1回分の時間の中央値 (マイクロ秒)
+     * @param layerP99Micros 深さごとの1回分の時間の 99% 点 (マイクロ秒)
+     */
+    public record Snapshot(String name, long searches, long searchedStates, long landings, long[] layerNodes,
+                           long[] layerNanos, long[] layerP50Micros, long[] layerP99Micros,
+                           long inferenceCalls, long inferenceSamples, long maxBatch,
+                           long moveGenNanos, long inferenceNanos, long thinkNanos,
+                           long thinkP50Micros, long thinkP90Micros, long thinkP99Micros, long thinkMaxMicros) {
+
+        public double meanThinkMillis() { return (searches == 0) ? 0 : thinkNanos / 1e6 / searches; }
+        public double meanBatch() { return (inferenceCalls == 0) ? 0 : (double) inferenceSamples / inferenceCalls; }
+
+        /** 探索全体で1秒あたりに生成したノード数 (全層のノード数 / 思考時間)。 */
+        public double nodesPerSecond() {
+            long nodes = 0;
+            for (long n : layerNodes) nodes += n;
+            return (thinkNanos == 0) ? 0 : nodes * 1e9 / thinkNanos;
+        }
+
+        /** 深さ depth の層だけで見た、1秒あたりに生成したノード数。 */
+        public double layerNodesPerSecond(int depth) {
+            return (layerNanos[depth] == 0) ? 0 : layerNodes[depth] * 1e9 / layerNanos[depth];
+        }
+
+        /** ログ1行分の要約。 */
+        public String format() {
+            StringBuilder layers = new StringBuilder();
+            StringBuilder times = new StringBuilder();
+            for (int d = 0; d < layerNodes.length && layerNodes[d] != 0; d++) {
+                if (d > 0) {
+                    layers.append('/');
+                    times.append('/');
+                }
+                layers.append(searches == 0 ? 0 : layerNodes[d] / searches);
+                times.append(String.format("%.2f", layerP50Micros[d] / 1e3));
+            }
+            double perSearch = Math.max(1, searches);
+            return String.format(
+                    "%s: searches=%d think=%.2fms (p50 %.2f, p90 %.2f, p99 %.2f, max %.2f) movegen=%.2fms infer=%.2fms"
+                            + " states=%.0f landings=%.0f nodes/layer=%s layer p50 ms=%s nodes/s=%.0f batch=%.1f (max %d)",
+                    name, searches, meanThinkMillis(), thinkP50Micros / 1e3, thinkP90Micros / 1e3,
+                    thinkP99Micros / 1e3, thinkMaxMicros / 1e3, moveGenNanos / 1e6 / perSearch,
+                    inferenceNanos / 1e6 / perSearch, searchedStates / perSearch, landings / perSearch,
+                    (layers.length() == 0) ? "-" : layers, (times.length() == 0) ? "-" : times,
+                    nodesPerSecond(), meanBatch(), maxBatch);
+        }
+    }
+
+    /**
+     * 探索1回分の集計 (SearchArena ごとに1つ、探索スレッドだけが触る)。
+     */
+    static final class Tally {
+        long searchedStates;
+        long landings;
+        final long[] layerNodes = new long[MAX_LAYERS];
+        final long[] layerNanos = new long[MAX_LAYERS];
+        int timedLayers; // layerNanos に書いた層の数
+        int inferenceCalls;
+        long inferenceSamples;
+        final int[] batchSizes = new int[MAX_BATCHES_PER_SEARCH];
+        long moveGenNanos;
+        long inferenceNanos;
+        long thinkNanos;
+
+        void reset() {
+            searchedStates = 0;
+            landings = 0;
+            Arrays.fill(layerNodes, 0);
+            Arrays.fill(layerNanos, 0);
+            timedLayers = 0;
+            inferenceCalls = 0;
+            inferenceSamples = 0;
+            moveGenNanos = 0;
+            inferenceNanos = 0;
+            thinkNanos = 0;
+        }
+
+        void layer(int depth, int nodes) {
+            if (depth < MAX_LAYERS) layerNodes[depth] += nodes;
+        }
+
+        void layerTime(int depth, long nanos) {
+            if (depth >= MAX_LAYERS) return;
+            layerNanos[depth] += nanos;
+            timedLayers = Math.max(timedLayers, depth + 1);
+        }
+
+        void inference(int batch, long nanos) {
+            if (inferenceCalls < MAX_BATCHES_PER_SEARCH) batchSizes[inferenceCalls] = batch;
+            inferenceCalls++;
+            inferenceSamples += batch;
+            inferenceNanos += nanos;
+        }
+    }
+}
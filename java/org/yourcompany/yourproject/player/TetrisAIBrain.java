@@ -9,18 +9,15 @@ import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 
 import org.yourcompany.yourproject.config.GameAction;
 import org.yourcompany.yourproject.config.SpinType;
 import org.yourcompany.yourproject.model.Board;
 import org.yourcompany.yourproject.model.GameLogic;
-import org.yourcompany.yourproject.model.RotationSystem;
+import org.yourcompany.yourproject.model.PieceGeometry;
 import org.yourcompany.yourproject.model.Shape;
 import org.yourcompany.yourproject.model.Tetromino;
 
@@ -29,14 +26,28 @@ import ai.onnxruntime.OrtEnvironment;
 import ai.onnxruntime.OrtException;
 import ai.onnxruntime.OrtLoggingLevel;
 import ai.onnxruntime.OrtSession;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
 
 public class TetrisAIBrain {
     
     // --- 定数 ---
     private static final double AI_MEAN = -5432.1; 
     private static final double AI_STD  = 1234.5;
-    private static final int FEATURE_INPUT_SIZE = 72;
+    private static final int FEATURE_INPUT_SIZE = BoardTensorEncoder.FEATURE_SIZE;
     private static final int NUM_SHAPE_TYPES = 7;
+    // 2手目以降の探索上のスポーン位置 (1手目は操作中のミノの今の位置から探索する)
+    static final int SPAWN_X = 4;
+    static final int SPAWN_Y = 2;
+    // 手作り評価で1層あたりに残す候補数 (この数だけ ONNX に渡す)
+    private static final int PREFILTER_TOP_K = 64;
+
+    // 着地点の列挙器 (起動時に obseris.movegen で選ぶ)
+    private static final MoveGenerator MOVE_GENERATOR = MoveGenerator.select();
     
     private final boolean isSimpleModel;
     private final OrtEnvironment env;
@@ -44,30 +55,39 @@ public class TetrisAIBrain {
     private final String inputNameBoard;
     private final String inputNameFeature;
 
-    private static final Map<Shape.Tetrominoes, Integer> SHAPE_TO_INDEX = Map.of(
-        Shape.Tetrominoes.TShape, 0, Shape.Tetrominoes.ZShape, 1,
-        Shape.Tetrominoes.SShape, 2, Shape.Tetrominoes.LineShape, 3,
-        Shape.Tetrominoes.SquareShape, 4, Shape.Tetrominoes.LShape, 5,
-        Shape.Tetrominoes.MirroredLShape, 6, Shape.Tetrominoes.NoShape, -1
-    );
+    // --- JFR イベント (記録していなければ commit は何もしない) ---
+    /** ビームサーチ1層分 (着地点の生成・絞り込み・評価・ビームの更新)。 */
+    @Name("obseris.SearchLayer")
+    @Label("Search Layer")
+    @Category({"Obseris", "AI"})
+    @Description("One layer of TetrisAIBrain.findBestMove")
+    @StackTrace(false)
+    static final class SearchLayerEvent extends Event {
+        @Label("Depth")
+        int depth;
+        @Label("Parents")
+        int parents;
+        @Label("Nodes")
+        int nodes;
+        @Label("Evaluated")
+        int evaluated;
+    }
 
-    // --- 内部構造 ---
-    private record SearchState(int x, int y, int rot, boolean isGrounded) {}
-
-    public static class BeamNode {
-        public final Board board;
-        public final double cumulativeReward;
-        public final LandingSpot firstMove;
-        public double aiScore = 0;
-
-        public BeamNode(Board board, double reward, LandingSpot firstMove) {
-            this.board = board;
-            this.cumulativeReward = reward;
-            this.firstMove = firstMove;
-        }
-        public double getTotalScore() { return cumulativeReward + aiScore; }
+    /** 候補をまとめて評価する1回分 (テンソルへの展開と ONNX の呼び出し)。 */
+    @Name("obseris.Evaluate")
+    @Label("Evaluate Batch")
+    @Category({"Obseris", "AI"})
+    @Description("evaluateLandingSpots / evaluateBeamNodes: encoding a batch and running the model")
+    @StackTrace(false)
+    static final class EvaluateEvent extends Event {
+        @Label("Method")
+        String method;
+        @Label("Batch Size")
+        int batchSize;
     }
 
+    // --- 内部構造 ---
+    // (★) 探索ノードは SearchArena の添字で表す。呼び出し側に返すのは選ばれた1手目の LandingSpot だけ
     public static class LandingSpot {
         public final List<GameAction> path;
         public final Board futureBoard;
@@ -76,6 +96,9 @@ public class TetrisAIBrain {
         public final boolean usedHold;
         public final int finalX, finalY, finalRot;
         public double aiScore = Double.NEGATIVE_INFINITY;
+        public double heuristicScore = 0;
+        /** 探索したときに操作中だったミノ (HOLD する前)。path はこのミノの探索したときの位置から始まる。 */
+        public Shape.Tetrominoes startShape = Shape.Tetrominoes.NoShape;
         public final List<Tetromino> futureNextQueue;
 
         public LandingSpot(List<GameAction> path, Board futureBoard, int linesCleared,
@@ -94,6 +117,18 @@ public class TetrisAIBrain {
     }
 
     // --- コンストラクタ ---
+    /**
+     * モデルを使わず、手作り評価 (HeuristicEvaluator) だけで探索する脳を作ります。
+     */
+    public TetrisAIBrain() {
+        this.env = null;
+        this.session = null;
+        this.inputNameBoard = null;
+        this.inputNameFeature = null;
+        this.isSimpleModel = true;
+        System.out.println("AI Loaded: (heuristic) | Mode: Heuristic | MoveGen: " + MOVE_GENERATOR.name());
+    }
+
     public TetrisAIBrain(String modelResourceName) {
         String dataResourceName = modelResourceName + ".data";
         try {
@@ -117,227 +152,283 @@ public class TetrisAIBrain {
                 this.inputNameFeature = "feature_tensor_input";
                 this.isSimpleModel = false;
             }
-            System.out.println("AI Loaded: " + modelResourceName + " | Mode: " + (isSimpleModel ? "Simple" : "Multi"));
+            System.out.println("AI Loaded: " + modelResourceName + " | Mode: " + (isSimpleModel ? "Simple" : "Multi") + " | MoveGen: " + MOVE_GENERATOR.name());
         } catch (Exception e) {
             throw new RuntimeException("Model Load Error", e);
         }
     }
 
     // --- メインロジック: ビームサーチ ---
+    /**
+     * 使い捨てのアリーナで探索します。繰り返し呼ぶ側は SearchArena を持って 3 引数版を使うこと。
+     */
     public LandingSpot findBestMove(GameLogic myLogic, GameLogic opponentLogic) {
+        return findBestMove(myLogic, opponentLogic, new SearchArena());
+    }
+
+    /**
+     * @param arena 探索の作業領域。呼び出しのたびに reset() して使い回す (同時に2つの探索で共有しないこと)
+     */
+    public LandingSpot findBestMove(GameLogic myLogic, GameLogic opponentLogic, SearchArena arena) {
+        arena.reset();
+        long start = System.nanoTime();
+        SearchMetrics.searchStarted();
+        try {
+            return search(myLogic, arena);
+        } finally {
+            SearchMetrics.searchFinished();
+            // (★) 計測値は探索の終わりに1回だけ共有の SearchMetrics に足し込む
+            arena.tally.thinkNanos = System.nanoTime() - start;
+            arena.getMetrics().record(arena.tally);
+        }
+    }
+
+    private LandingSpot search(GameLogic myLogic, SearchArena arena) {
         final int BEAM_WIDTH = 15;
         final int SEARCH_DEPTH = 5;
-        List<BeamNode> beam = new ArrayList<>();
-        List<LandingSpot> firstLayer = new ArrayList<>();
+
+        // (★) ゲーム側の盤面は別スレッドで書き換わるので、一度だけ作業用の盤面に写してから探索の根にする
+        Board root = arena.root;
+        root.copyFrom(myLogic.getBoard());
 
         // 1手目の生成
-        generateMovesForPieceInternal(myLogic.getBoard(), myLogic.getCurrentTetromino().getPieceShape(), false, firstLayer);
-        if (myLogic.getCanHold()) {
-            generateMovesForPieceInternal(myLogic.getBoard(), getHoldShape(myLogic), true, firstLayer);
+        SearchLayerEvent layer = new SearchLayerEvent();
+        layer.begin();
+        long layerStart = System.nanoTime();
+        // (★) 1手目は操作中のミノの今の位置・向きから探索する (HOLD するならホールド後に GameLogic が出す位置から)。
+        // 考えている間に重力で落ちたミノや、置けずに戻された計画の続きでも、実際に届く着地点だけを返す
+        Tetromino piece = myLogic.getCurrentTetromino();
+        if (piece == null) {
+            endLayer(arena, layer, layerStart, 0, 1, 0, 0);
+            return null;
+        }
+        Shape.Tetrominoes currentShape = piece.getPieceShape();
+        Shape.Tetrominoes holdShape = getHoldShape(myLogic);
+        generateRootMoves(arena, root, currentShape, false, piece.getX(), piece.getY(), piece.getRotationState());
+        if (myLogic.getCanHold() && holdShape != Shape.Tetrominoes.NoShape) {
+            int holdY = GameLogic.spawnYAfterHold(root, holdShape, myLogic.getHoldTetromino() != null);
+            generateRootMoves(arena, root, holdShape, true, Tetromino.SPAWN_X, holdY, 0);
         }
 
-        if (firstLayer.isEmpty()) return null;
+        int firstCount = arena.size;
+        arena.tally.layer(0, firstCount);
+        if (firstCount == 0) {
+            endLayer(arena, layer, layerStart, 0, 1, 0, 0);
+            return null;
+        }
 
-        // 1手目の評価
-        try { evaluateLandingSpots(firstLayer, myLogic, opponentLogic); } catch (OrtException e) { return null; }
-        
-        firstLayer.sort((a, b) -> Double.compare(b.aiScore, a.aiScore));
-        for (int i = 0; i < Math.min(BEAM_WIDTH, firstLayer.size()); i++) {
-            LandingSpot m = firstLayer.get(i);
-            beam.add(new BeamNode(m.futureBoard, (double)m.scoreDelta, m));
+        // 1手目の評価 (手作り評価で絞り込んでから ONNX)
+        int count = selectCandidates(arena, 0, firstCount, false);
+        if (session == null) {
+            for (int i = 0; i < count; i++) arena.aiScore[arena.order[i]] = arena.heuristic[arena.order[i]];
+        } else {
+            try { evaluateLandingSpots(arena, count, root, currentShape, holdShape); } catch (OrtException e) { return null; }
         }
+        for (int i = 0; i < count; i++) arena.sortKey[arena.order[i]] = arena.aiScore[arena.order[i]];
+        arena.sortOrderByKeyDescending(count);
+        fillBeam(arena, count, BEAM_WIDTH);
+        endLayer(arena, layer, layerStart, 0, 1, firstCount, count);
 
         // 2手目以降の先読み
         for (int d = 1; d < SEARCH_DEPTH; d++) {
             if (d - 1 >= myLogic.getNextQueue().size()) break;
             Shape.Tetrominoes nextShape = myLogic.getNextQueue().get(d - 1).getPieceShape();
-            List<BeamNode> nextCandidates = new ArrayList<>();
-
-            for (BeamNode node : beam) {
-                List<LandingSpot> children = new ArrayList<>();
-                generateMovesForPieceInternal(node.board, nextShape, false, children);
-                for (LandingSpot cm : children) {
-                    nextCandidates.add(new BeamNode(cm.futureBoard, node.cumulativeReward + cm.scoreDelta, node.firstMove));
-                }
+
+            layer = new SearchLayerEvent();
+            layer.begin();
+            layerStart = System.nanoTime();
+            int parents = arena.beamSize;
+            int firstNode = arena.size;
+            for (int b = 0; b < arena.beamSize; b++) {
+                int node = arena.beam[b];
+                arena.loadBoard(node, arena.parentBoard);
+                generateMovesForPieceInternal(arena, arena.parentBoard, node, nextShape, false);
             }
+            arena.tally.layer(d, arena.size - firstNode);
+            if (arena.size == firstNode) {
+                endLayer(arena, layer, layerStart, d, parents, 0, 0);
+                break;
+            }
+
+            count = selectCandidates(arena, firstNode, arena.size, true);
+            if (session == null) {
+                for (int i = 0; i < count; i++) arena.aiScore[arena.order[i]] = arena.heuristic[arena.order[i]];
+            } else {
+                try { evaluateBeamNodes(arena, count, myLogic); } catch (OrtException e) { break; }
+            }
+            for (int i = 0; i < count; i++) {
+                int n = arena.order[i];
+                arena.sortKey[n] = arena.reward[n] + arena.aiScore[n];
+            }
+            arena.sortOrderByKeyDescending(count);
+            fillBeam(arena, count, BEAM_WIDTH);
+            endLayer(arena, layer, layerStart, d, parents, arena.size - firstNode, count);
+        }
 
-            if (nextCandidates.isEmpty()) break;
+        return (arena.beamSize == 0) ? null : toLandingSpot(arena, arena.firstMove[arena.beam[0]], currentShape);
+    }
 
-            try { evaluateBeamNodes(nextCandidates, myLogic, opponentLogic); } catch (OrtException e) { break; }
-            nextCandidates.sort((a, b) -> Double.compare(b.getTotalScore(), a.getTotalScore()));
-            
-            beam.clear();
-            for (int i = 0; i < Math.min(BEAM_WIDTH, nextCandidates.size()); i++) beam.add(nextCandidates.get(i));
+    /**
+     * [from, to) のノードを arena.order に並べ、ONNX を使うときは手作り評価の上位 PREFILTER_TOP_K 件に絞ります。
+     * @param withReward 絞り込みの基準に累積報酬を足すか (2手目以降)
+     * @return 残った候補数
+     */
+    private int selectCandidates(SearchArena arena, int from, int to, boolean withReward) {
+        int count = to - from;
+        for (int i = 0; i < count; i++) arena.order[i] = from + i;
+        if (session == null) return count;
+        for (int n = from; n < to; n++) {
+            arena.sortKey[n] = withReward ? arena.reward[n] + arena.heuristic[n] : arena.heuristic[n];
         }
+        arena.sortOrderByKeyDescending(count);
+        return Math.min(count, PREFILTER_TOP_K);
+    }
+
+    /** 1層分の時間を集計に足し、JFR イベントを書きます。 */
+    private static void endLayer(SearchArena arena, SearchLayerEvent event, long startNanos,
+                                 int depth, int parents, int nodes, int evaluated) {
+        arena.tally.layerTime(depth, System.nanoTime() - startNanos);
+        if (!event.shouldCommit()) return;
+        event.depth = depth;
+        event.parents = parents;
+        event.nodes = nodes;
+        event.evaluated = evaluated;
+        event.commit();
+    }
 
-        return beam.isEmpty() ? null : beam.get(0).firstMove;
+    private void fillBeam(SearchArena arena, int count, int beamWidth) {
+        arena.beamSize = Math.min(beamWidth, count);
+        System.arraycopy(arena.order, 0, arena.beam, 0, arena.beamSize);
+    }
+
+    /** 1手目のノードを呼び出し側に返す LandingSpot にします (探索1回につきここだけがオブジェクトを作る)。 */
+    private LandingSpot toLandingSpot(SearchArena arena, int node, Shape.Tetrominoes startShape) {
+        Board futureBoard = new Board();
+        arena.loadBoard(node, futureBoard);
+        List<GameAction> path = (arena.path[node] != null) ? arena.path[node] : new ArrayList<>();
+        LandingSpot spot = new LandingSpot(path, futureBoard, arena.linesCleared[node], arena.scoreDelta[node],
+                arena.usedHold[node], arena.finalX[node], arena.finalY[node], arena.finalRot[node], null);
+        spot.aiScore = arena.aiScore[node];
+        spot.heuristicScore = arena.heuristic[node];
+        spot.startShape = startShape;
+        return spot;
     }
 
     // --- 探索・評価用メソッド ---
-    private void generateMovesForPieceInternal(Board board, Shape.Tetrominoes shape, boolean isHold, List<LandingSpot> results) {
+    /** 1手目: (x, y, rot) にいるミノから届く着地点を、操作列付きで根の子にします。 */
+    private void generateRootMoves(SearchArena arena, Board board, Shape.Tetrominoes shape, boolean isHold, int x, int y, int rot) {
         if (shape == null || shape == Shape.Tetrominoes.NoShape) return;
-    
-        Set<SearchState> visited = new HashSet<>();
-        Queue<SearchState> queue = new LinkedList<>();
-        Map<SearchState, SearchState> parentMap = new HashMap<>(); // 親ノードを記録
-        Map<SearchState, GameAction> actionMap = new HashMap<>();   // どのアクションで来たか記録
-        Set<String> foundLandings = new HashSet<>();
-    
-        Tetromino piece = new Tetromino(shape);
-        // 開始位置の設定
-        int startX = 4;
-        int startY = 2; 
-        SearchState startState = new SearchState(startX, startY, 0, false);
-        
-        queue.add(startState);
-        visited.add(startState);
-        parentMap.put(startState, null);
-        actionMap.put(startState, GameAction.NONE);
-    
-        while (!queue.isEmpty()) {
-            SearchState curr = queue.poll();
-            int[][] coords = piece.getCoordsForRotation(curr.rot());
-    
-            // --- 着地点の記録 (1手目のために path を復元) ---
-            if (curr.isGrounded()) {
-                String key = curr.x() + "," + curr.y() + "," + curr.rot();
-                if (foundLandings.add(key)) {
-                    List<GameAction> path = reconstructPath(parentMap, curr, actionMap);
-                    results.add(calculateLandingResultFromBoard(board, shape, curr.x(), curr.y(), curr.rot(), isHold, path));
-                }
-            } else {
-                int finalY = dropPiece(board, coords, curr.x(), curr.y());
-                String key = curr.x() + "," + finalY + "," + curr.rot();
-                if (foundLandings.add(key)) {
-                    List<GameAction> path = reconstructPath(parentMap, curr, actionMap);
-                    results.add(calculateLandingResultFromBoard(board, shape, curr.x(), finalY, curr.rot(), isHold, path));
-                }
-            }
-    
-            // --- 次の状態への遷移 ---
-            for (GameAction action : new GameAction[]{GameAction.MOVE_LEFT, GameAction.MOVE_RIGHT, GameAction.SOFT_DROP, GameAction.ROTATE_LEFT, GameAction.ROTATE_RIGHT}) {
-                if (curr.isGrounded() && action == GameAction.SOFT_DROP) continue;
-    
-                SearchState next = null;
-                if (action == GameAction.MOVE_LEFT && board.isValidPosition(coords, curr.x() - 1, curr.y())) 
-                    next = new SearchState(curr.x() - 1, curr.y(), curr.rot(), false);
-                else if (action == GameAction.MOVE_RIGHT && board.isValidPosition(coords, curr.x() + 1, curr.y())) 
-                    next = new SearchState(curr.x() + 1, curr.y(), curr.rot(), false);
-                else if (action == GameAction.SOFT_DROP && board.isValidPosition(coords, curr.x(), curr.y() + 1)) 
-                    next = new SearchState(curr.x(), curr.y() + 1, curr.rot(), false);
-                else if (action == GameAction.ROTATE_LEFT || action == GameAction.ROTATE_RIGHT) {
-                    RotationSystem.RotationResult rr = RotationSystem.simulateRotation(curr.x(), curr.y(), curr.rot(), shape, board, action == GameAction.ROTATE_RIGHT);
-                    if (rr.success()) next = new SearchState(rr.newX(), rr.newY(), rr.newRot(), false);
-                }
-    
-                if (next != null) {
-                    boolean grounded = !board.isValidPosition(piece.getCoordsForRotation(next.rot()), next.x(), next.y() + 1);
-                    SearchState finalNext = new SearchState(next.x(), next.y(), next.rot(), grounded);
-                    
-                    if (!visited.contains(finalNext)) {
-                        visited.add(finalNext);
-                        parentMap.put(finalNext, curr); // ここで親を記録
-                        actionMap.put(finalNext, action); // ここでアクションを記録
-                        queue.add(finalNext);
-                    }
-                }
-            }
-        }
+        long start = System.nanoTime();
+        JavaMoveGenerator.generateFrom(board, shape, x, y, rot, arena);
+        addGeneratedMoves(arena, board, -1, shape, isHold, start);
     }
-    
 
-    private void evaluateBeamNodes(List<BeamNode> nodes, GameLogic myLogic, GameLogic opponentLogic) throws OrtException {
-        int batchSize = nodes.size();
-        FloatBuffer boardBuf = FloatBuffer.allocate(batchSize * 800);
-        FloatBuffer featBuf = isSimpleModel ? null : FloatBuffer.allocate(batchSize * FEATURE_INPUT_SIZE);
+    /** 2手目以降: スポーン位置から届く着地点を parentNode の子にします (操作列は作らない)。 */
+    private void generateMovesForPieceInternal(SearchArena arena, Board board, int parentNode, Shape.Tetrominoes shape, boolean isHold) {
+        if (shape == null || shape == Shape.Tetrominoes.NoShape) return;
+        long start = System.nanoTime();
+        MOVE_GENERATOR.generate(board, shape, false, arena);
+        addGeneratedMoves(arena, board, parentNode, shape, isHold, start);
+    }
 
-        for (int i = 0; i < batchSize; i++) {
-            fillBoardBuffer(boardBuf, nodes.get(i).board, i * 800);
-            if (featBuf != null) fillQueueBuffer(featBuf, myLogic.getNextQueue(), i * FEATURE_INPUT_SIZE);
+    private void addGeneratedMoves(SearchArena arena, Board board, int parentNode, Shape.Tetrominoes shape, boolean isHold, long start) {
+        MoveList moves = arena.moves;
+        arena.tally.moveGenNanos += System.nanoTime() - start;
+        arena.tally.searchedStates += moves.searchedStates();
+        arena.tally.landings += moves.count();
+        for (int i = 0; i < moves.count(); i++) {
+            addLanding(arena, board, parentNode, shape, moves.x(i), moves.y(i), moves.rot(i), isHold, moves.path(i));
         }
+    }
+
+    private void evaluateBeamNodes(SearchArena arena, int count, GameLogic myLogic) throws OrtException {
+        EvaluateEvent event = new EvaluateEvent();
+        event.begin();
+        FloatBuffer boardBuf = arena.boardBuffer(count * BoardTensorEncoder.SAMPLE_SIZE);
+        FloatBuffer featBuf = isSimpleModel ? null : arena.featureBuffer(count * FEATURE_INPUT_SIZE);
 
-        boardBuf.rewind();
-        OnnxTensor bTensor = OnnxTensor.createTensor(env, boardBuf, new long[]{batchSize, 2, 40, 10});
-        Map<String, OnnxTensor> inputs = new HashMap<>();
-        inputs.put(inputNameBoard, bTensor);
+        // (★) 行ビットから表引きでまとめて展開する (ミノのマスクのチャンネルは 0)
+        BoardTensorEncoder.encodeNodes(boardBuf, arena, arena.order, count);
         if (featBuf != null) {
-            featBuf.rewind();
-            inputs.put(inputNameFeature, OnnxTensor.createTensor(env, featBuf, new long[]{batchSize, FEATURE_INPUT_SIZE}));
+            for (int i = 0; i < count; i++) BoardTensorEncoder.encodeQueueFeatures(featBuf, i * FEATURE_INPUT_SIZE, myLogic.getNextQueue());
         }
 
-        try (OrtSession.Result res = session.run(inputs)) {
-            float[][] vals = (float[][]) res.get(0).getValue();
-            for (int i = 0; i < batchSize; i++) nodes.get(i).aiScore = (vals[i][0] * AI_STD) + AI_MEAN;
-        } finally { bTensor.close(); }
-    }
-
-    private void evaluateLandingSpots(List<LandingSpot> moves, GameLogic myLogic, GameLogic opponentLogic) throws OrtException {
-        int batchSize = moves.size();
-        FloatBuffer boardBuf = FloatBuffer.allocate(batchSize * 800);
-        for (int i = 0; i < batchSize; i++) {
-            fillBoardBuffer(boardBuf, myLogic.getBoard(), i * 800);
-            fillPieceMaskBuffer(boardBuf, (moves.get(i).usedHold ? getHoldShape(myLogic) : myLogic.getCurrentTetromino().getPieceShape()), 
-                               moves.get(i).finalX, moves.get(i).finalY, moves.get(i).finalRot, (i * 800) + 400);
-        }
-        boardBuf.rewind();
-        OnnxTensor bTensor = OnnxTensor.createTensor(env, boardBuf, new long[]{batchSize, 2, 40, 10});
-        Map<String, OnnxTensor> inputs = new HashMap<>();
-        inputs.put(inputNameBoard, bTensor);
-        
-        try (OrtSession.Result res = session.run(inputs)) {
-            float[][] vals = (float[][]) res.get(0).getValue();
-            for (int i = 0; i < batchSize; i++) moves.get(i).aiScore = (vals[i][0] * AI_STD) + AI_MEAN;
-        } finally { bTensor.close(); }
+        runSession(arena, boardBuf, featBuf, count);
+        commitEvaluate(event, "evaluateBeamNodes", count);
     }
 
-    // --- ユーティリティ ---
-    private void fillBoardBuffer(FloatBuffer buf, Board board, int offset) {
-        for (int y = 0; y < 40; y++) {
-            for (int x = 0; x < 10; x++) {
-                buf.put(offset + (y * 10) + x, (board.getGridAt(x, y) != null ? 1.0f : 0.0f));
-            }
+    private void evaluateLandingSpots(SearchArena arena, int count, Board root,
+                                      Shape.Tetrominoes currentShape, Shape.Tetrominoes holdShape) throws OrtException {
+        EvaluateEvent event = new EvaluateEvent();
+        event.begin();
+        FloatBuffer boardBuf = arena.boardBuffer(count * BoardTensorEncoder.SAMPLE_SIZE);
+        for (int i = 0; i < count; i++) {
+            int n = arena.order[i];
+            int offset = i * BoardTensorEncoder.SAMPLE_SIZE;
+            BoardTensorEncoder.encodeBoard(boardBuf, offset, root);
+            BoardTensorEncoder.encodePieceMask(boardBuf, offset + BoardTensorEncoder.PLANE_SIZE,
+                    arena.usedHold[n] ? holdShape : currentShape, arena.finalX[n], arena.finalY[n], arena.finalRot[n]);
         }
+        runSession(arena, boardBuf, null, count);
+        commitEvaluate(event, "evaluateLandingSpots", count);
     }
 
-    private void fillPieceMaskBuffer(FloatBuffer buf, Shape.Tetrominoes shape, int x, int y, int rot, int offset) {
-        for (int i = 0; i < 400; i++) buf.put(offset + i, 0.0f);
-        Tetromino temp = new Tetromino(shape);
-        for (int[] p : temp.getCoordsForRotation(rot)) {
-            int cx = x + p[0], cy = y + p[1];
-            if (cx >= 0 && cx < 10 && cy >= 0 && cy < 40) buf.put(offset + (cy * 10) + cx, 1.0f);
-        }
+    private static void commitEvaluate(EvaluateEvent event, String method, int batchSize) {
+        if (!event.shouldCommit()) return;
+        event.method = method;
+        event.batchSize = batchSize;
+        event.commit();
     }
 
-    private void fillQueueBuffer(FloatBuffer buf, List<Tetromino> queue, int offset) {
-        for (int i = 0; i < 35; i++) {
-            if (queue != null && i / 7 < queue.size()) {
-                int idx = SHAPE_TO_INDEX.getOrDefault(queue.get(i / 7).getPieceShape(), -1);
-                buf.put(offset + i, (i % 7 == idx ? 1.0f : 0.0f));
+    /**
+     * boardBuf (と featBuf) に並べた count 件をモデルに通し、arena.aiScore[arena.order[i]] に書き込みます。
+     * @param featBuf ネクストの特徴量 (渡さないときは null)
+     */
+    void runSession(SearchArena arena, FloatBuffer boardBuf, FloatBuffer featBuf, int count) throws OrtException {
+        long start = System.nanoTime();
+        // (★) 入力のテンソルはネイティブのメモリを持つので、特徴量の分も必ず閉じる
+        try (OnnxTensor bTensor = OnnxTensor.createTensor(env, boardBuf, new long[]{count, 2, 40, 10});
+             OnnxTensor fTensor = (featBuf != null)
+                     ? OnnxTensor.createTensor(env, featBuf, new long[]{count, FEATURE_INPUT_SIZE}) : null) {
+            Map<String, OnnxTensor> inputs = new HashMap<>();
+            inputs.put(inputNameBoard, bTensor);
+            if (fTensor != null) inputs.put(inputNameFeature, fTensor);
+
+            SearchMetrics.inferenceStarted();
+            try (OrtSession.Result res = session.run(inputs)) {
+                float[][] vals = (float[][]) res.get(0).getValue();
+                for (int i = 0; i < count; i++) arena.aiScore[arena.order[i]] = (vals[i][0] * AI_STD) + AI_MEAN;
+            } finally {
+                SearchMetrics.inferenceFinished();
             }
+        } finally {
+            arena.tally.inference(count, System.nanoTime() - start);
         }
     }
 
-    private LandingSpot calculateLandingResultFromBoard(Board boardBefore, Shape.Tetrominoes shape, int x, int y, int rot, boolean isHold, List<GameAction> path) {
-        Board futureBoard = new Board(boardBefore);
-        Tetromino piece = new Tetromino(shape);
-        piece.setSimulatedState(x, y, rot);
-        
-        futureBoard.placeTetromino(piece);
-        int linesCleared = futureBoard.countFullLines();
-        if (linesCleared > 0) futureBoard.clearLines();
+    /** ONNX モデルを読み込んでいるか (false なら手作り評価だけで探索する)。 */
+    boolean hasModel() { return session != null; }
+
+    /** モデルがネクストの特徴量も入力に取るか。 */
+    boolean usesQueueFeatures() { return !isSimpleModel; }
+
+    // --- ユーティリティ ---
+    /**
+     * 作業用の盤面にミノを置いてラインを消し、結果をノードとしてアリーナに積みます。
+     */
+    private void addLanding(SearchArena arena, Board boardBefore, int parentNode, Shape.Tetrominoes shape,
+                            int x, int y, int rot, boolean isHold, List<GameAction> path) {
+        Board futureBoard = arena.child;
+        futureBoard.copyFrom(boardBefore);
+        futureBoard.placePiece(PieceGeometry.of(shape, rot), x, y, shape.color);
+        int linesCleared = futureBoard.clearLines();
     
         long scoreDelta = calculateScore(linesCleared, SpinType.NONE); 
+        double parentReward = (parentNode < 0) ? 0 : arena.reward[parentNode];
     
-        // path が null なら空リストにする（NPE対策）
-        List<GameAction> finalPath = (path != null) ? path : new ArrayList<>();
-    
-        return new LandingSpot(finalPath, futureBoard, linesCleared, scoreDelta, isHold, x, y, rot, null);
-    }
-
-    private int dropPiece(Board b, int[][] coords, int x, int y) {
-        int targetY = y;
-        while (b.isValidPosition(coords, x, targetY + 1)) targetY++;
-        return targetY;
+        int node = arena.addNode(futureBoard, parentNode, parentReward + scoreDelta,
+                                 x, y, rot, linesCleared, scoreDelta, isHold, path);
+        arena.heuristic[node] = arena.evaluator.evaluateLanding(futureBoard, shape, linesCleared);
     }
 
     private Shape.Tetrominoes getHoldShape(GameLogic logic) {
@@ -354,18 +445,4 @@ public class TetrisAIBrain {
             Files.copy(in, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }
     }
-    private List<GameAction> reconstructPath(Map<SearchState, SearchState> parentMap, SearchState endState, Map<SearchState, GameAction> actionMap) {
-        LinkedList<GameAction> path = new LinkedList<>();
-        SearchState curr = endState;
-        // 開始地点 (parentMap.get(curr) == null) に到達するまで遡る
-        while (curr != null && parentMap.get(curr) != null) {
-            GameAction action = actionMap.get(curr);
-            if (action != null && action != GameAction.NONE) {
-                path.addFirst(action);
-            }
-            curr = parentMap.get(curr);
-        }
-        return path;
-    }
 }
-
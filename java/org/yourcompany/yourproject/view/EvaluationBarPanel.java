@@ -6,11 +6,12 @@ import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
+import java.util.function.Supplier;
 
 import javax.swing.JPanel;
 
+import org.yourcompany.yourproject.controller.FrameSnapshot;
 import org.yourcompany.yourproject.model.Board;
-import org.yourcompany.yourproject.model.GameLogic;
 
 /**
  * AIの評価値 (-100 ～ +100) を
@@ -18,17 +19,15 @@ import org.yourcompany.yourproject.model.GameLogic;
  */
 public class EvaluationBarPanel extends JPanel {
 
-    private GameLogic myLogic;
-    private GameLogic opponentLogic;
+    private final Supplier<FrameSnapshot> frame;
     private static final double EVAL_SCALE_FACTOR = 200.0;
     private static final double BASELINE_COST = -120.0;
     private static final double DANGER_COST = -250.0;
     private static final double MAX_SENSITIVITY_MULTIPLIER = 8.0;
 
 
-    public EvaluationBarPanel(GameLogic myLogic, GameLogic opponentLogic) {
-        this.myLogic = myLogic;
-        this.opponentLogic = opponentLogic;
+    public EvaluationBarPanel(Supplier<FrameSnapshot> frame) {
+        this.frame = frame;
         setPreferredSize(new Dimension(Board.BOARD_WIDTH * 30*2+30, 50)); // (幅はTetrisPanelと合わせ、高さは25px)
         setBackground(Color.BLACK);
     }
@@ -41,8 +40,9 @@ public class EvaluationBarPanel extends JPanel {
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        double myRawScore = myLogic.getAiEvaluationScore();
-        double oppRawScore = opponentLogic.getAiEvaluationScore(); // -100 ～ +100
+        FrameSnapshot snapshot = frame.get();
+        double myRawScore = snapshot.player1().getAiEvaluationScore();
+        double oppRawScore = snapshot.player2().getAiEvaluationScore(); // -100 ～ +100
         double averageCost = (myRawScore + oppRawScore) / 2.0;
         double scoreDiff = myRawScore - oppRawScore;
         double progressRatio = (averageCost - BASELINE_COST) / (DANGER_COST - BASELINE_COST);
@@ -90,9 +90,4 @@ public class EvaluationBarPanel extends JPanel {
         g2d.drawString(scoreText, textX, panelHeight / 2 + 5);
     }
 
-    public void setGameLogics(GameLogic myLogic, GameLogic opponentLogic) {
-        this.myLogic = myLogic;
-        this.opponentLogic = opponentLogic;
-    }
-
 }
\ No newline at end of file
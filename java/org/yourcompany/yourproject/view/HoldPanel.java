@@ -7,25 +7,26 @@ import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
+import java.util.function.Supplier;
 
 import javax.swing.BorderFactory;
 import javax.swing.JPanel;
 import javax.swing.Timer;
 
 import org.yourcompany.yourproject.config.ClearInfo;
-import org.yourcompany.yourproject.model.GameLogic;
-import org.yourcompany.yourproject.model.Tetromino;
+import org.yourcompany.yourproject.model.GameSnapshot;
+import org.yourcompany.yourproject.model.Shape;
 
 public class HoldPanel extends JPanel {
     private final InfoPanel infoPanel;
     private final HoldMinoPanel holdMinoPanel;
 
-    public HoldPanel(GameLogic gameLogic) {
+    public HoldPanel(Supplier<GameSnapshot> snapshot) {
         setLayout(new BorderLayout());
         setPreferredSize(new Dimension(120, 0));
         setOpaque(false);
 
-        holdMinoPanel = new HoldMinoPanel(gameLogic);
+        holdMinoPanel = new HoldMinoPanel(snapshot);
         holdMinoPanel.setBorder(BorderFactory.createTitledBorder("HOLD"));
         holdMinoPanel.setPreferredSize(new Dimension(120, 120));
         holdMinoPanel.setOpaque(false);
@@ -43,14 +44,14 @@ public class HoldPanel extends JPanel {
     }
     
     private class HoldMinoPanel extends JPanel {
-        private final GameLogic gameLogic;
-        public HoldMinoPanel(GameLogic gameLogic) { this.gameLogic = gameLogic; }
+        private final Supplier<GameSnapshot> snapshot;
+        public HoldMinoPanel(Supplier<GameSnapshot> snapshot) { this.snapshot = snapshot; }
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            Tetromino holdTetromino = gameLogic.getHoldTetromino();
-            if (holdTetromino == null) return;
-            drawCenteredMino(g, holdTetromino, 20);
+            Shape.Tetrominoes hold = snapshot.get().getHoldShape();
+            if (hold == null) return;
+            drawCenteredMino(g, hold, 20);
         }
     }
     
@@ -92,8 +93,8 @@ public class HoldPanel extends JPanel {
     }
 
     // --- 描画ヘルパーメソッド ---
-    static void drawCenteredMino(Graphics g, Tetromino tetromino, int blockSize) {
-        int[][] coords = tetromino.getCoords();
+    static void drawCenteredMino(Graphics g, Shape.Tetrominoes shape, int blockSize) {
+        int[][] coords = shape.allCoords.get(0); // ホールドとネクストはスポーン時の向きで描く
         int minX = 0, maxX = 0, minY = 0, maxY = 0;
         for (int[] p : coords) {
             minX = Math.min(minX, p[0]); maxX = Math.max(maxX, p[0]);
@@ -104,14 +105,14 @@ public class HoldPanel extends JPanel {
         int offsetX = (g.getClipBounds().width - shapeWidth) / 2;
         int offsetY = (g.getClipBounds().height - shapeHeight) / 2;
         
-        g.setColor(tetromino.getColor());
+        g.setColor(shape.color);
         for (int[] p : coords) {
             int drawX = offsetX + (p[0] - minX) * blockSize;
             int drawY = offsetY + (p[1] - minY) * blockSize;
             g.fillRect(drawX, drawY, blockSize, blockSize);
             g.setColor(Color.DARK_GRAY);
             g.drawRect(drawX, drawY, blockSize, blockSize);
-            g.setColor(tetromino.getColor());
+            g.setColor(shape.color);
         }
     }
     static void drawText(Graphics2D g2d, String text, int y, int size, Color color) {
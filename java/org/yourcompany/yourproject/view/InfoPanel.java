@@ -6,21 +6,22 @@ import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
+import java.util.function.Supplier;
 
 import javax.swing.BorderFactory;
 import javax.swing.JPanel;
 import javax.swing.Timer;
 
 import org.yourcompany.yourproject.config.ClearInfo;
-import org.yourcompany.yourproject.model.GameLogic;
+import org.yourcompany.yourproject.model.GameSnapshot;
 
 public class InfoPanel extends JPanel {
-    private final GameLogic gameLogic;
+    private final Supplier<GameSnapshot> snapshot;
     private ClearInfo currentInfo = null;
     private final Timer displayTimer;
 
-    public InfoPanel(GameLogic gameLogic) {
-        this.gameLogic = gameLogic;
+    public InfoPanel(Supplier<GameSnapshot> snapshot) {
+        this.snapshot = snapshot;
         setPreferredSize(new Dimension(120, 100));
         setBorder(BorderFactory.createTitledBorder("INFO"));
         //setOpaque(false);
@@ -34,7 +35,7 @@ public class InfoPanel extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        ClearInfo newInfo = gameLogic.getLastClearInfo();
+        ClearInfo newInfo = snapshot.get().getLastClearInfo();
 
         // 新しい情報が来たらタイマーをリスタート
         if (newInfo != null && newInfo.getLinesCleared() > 0 && newInfo != currentInfo) {
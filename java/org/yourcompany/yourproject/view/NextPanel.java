@@ -2,20 +2,21 @@ package org.yourcompany.yourproject.view;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.util.List;
+import java.util.function.Supplier;
 
 import javax.swing.BorderFactory;
 import javax.swing.JPanel;
 
-import org.yourcompany.yourproject.model.GameLogic;
-import org.yourcompany.yourproject.model.Tetromino;
+import org.yourcompany.yourproject.model.GameSnapshot;
+import org.yourcompany.yourproject.model.Shape;
 
 public class NextPanel extends JPanel {
-    private final GameLogic gameLogic;
+    private final Supplier<GameSnapshot> snapshot;
     private static final int BLOCK_SIZE = 18;
     private static final int SLOT_HEIGHT = 90;
 
-    public NextPanel(GameLogic gameLogic) {
-        this.gameLogic = gameLogic;
+    public NextPanel(Supplier<GameSnapshot> snapshot) {
+        this.snapshot = snapshot;
         setPreferredSize(new Dimension(120, SLOT_HEIGHT * 5));
         setBorder(BorderFactory.createTitledBorder("NEXT"));
         setOpaque(false);
@@ -24,7 +25,7 @@ public class NextPanel extends JPanel {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        List<Tetromino> nextQueue = gameLogic.getNextQueue();
+        List<Shape.Tetrominoes> nextQueue = snapshot.get().getNextShapes();
         for (int i = 0; i < nextQueue.size(); i++) {
             Graphics slotGraphics = g.create(0, i * SLOT_HEIGHT, getWidth(), SLOT_HEIGHT);
             HoldPanel.drawCenteredMino(slotGraphics, nextQueue.get(i), BLOCK_SIZE);
@@ -0,0 +1,117 @@
+package org.yourcompany.yourproject.view;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.swing.JComponent;
+
+import org.yourcompany.yourproject.player.SearchMetrics;
+
+/**
+ * 対戦画面に重ねる性能表示 (F3 で切り替え)。
+ * ゲームループの間隔・更新時間・描画時間と、プレイヤーごとの AI の思考時間の直近の分位点、推論の待ち行列を出す。
+ *
+ * <p>計測値は RollingRecorder / SearchMetrics にロックなしで記録され、ここでは表示中に読むだけ。
+ * 思考時間は SearchMetrics の累計ではなく、setThinkListener で受け取った直近 THINK_WINDOW 回分から求める。
+ * 非表示のあいだは記録のコストしかかからない。
+ */
+public class PerformanceOverlay extends JComponent {
+
+    /** 起動時から表示するか (-Dobseris.overlay=true)。 */
+    public static final String PROPERTY = "obseris.overlay";
+    private static final int WINDOW = 240; // 約4秒分 (60FPS)
+    private static final int THINK_WINDOW = 64; // 探索の回数
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    private static final Color TEXT = new Color(180, 255, 180);
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+    // (★) 書き込みはシミュレーションスレッド (更新) と EDT (描画) から、読むのは表示中の paintComponent だけ
+    private final RollingRecorder frameIntervals = new RollingRecorder(WINDOW);
+    private final RollingRecorder updateTimes = new RollingRecorder(WINDOW);
+    private final RollingRecorder paintTimes = new RollingRecorder(WINDOW);
+    // (★) 書き込みは探索したスレッドから (SearchMetrics の think listener)
+    private final Map<SearchMetrics, RollingRecorder> thinkTimes = new ConcurrentHashMap<>();
+    private volatile long lastTickNanos;
+
+    public PerformanceOverlay() {
+        setOpaque(false);
+        for (SearchMetrics metrics : SearchMetrics.all()) thinkRecorder(metrics);
+    }
+
+    public void toggle() {
+        setVisible(!isVisible());
+    }
+
+    /**
+     * シミュレーションの1フレーム分 (入力の反映と VersusManager.update) を記録します。
+     * 間隔は前のフレームの開始からで、遅れを取り戻している間は短くなる。
+     */
+    public void recordUpdate(long startNanos, long endNanos) {
+        if (lastTickNanos != 0) frameIntervals.record(startNanos - lastTickNanos);
+        lastTickNanos = startNanos;
+        updateTimes.record(endNanos - startNanos);
+    }
+
+    /** 画面 (オーバーレイ以外) の描画1回分の時間を記録します。 */
+    public void recordPaint(long nanos) {
+        paintTimes.record(nanos);
+    }
+
+    /** metrics の思考時間を記録する窓 (初めてなら作って listener に登録する)。 */
+    private RollingRecorder thinkRecorder(SearchMetrics metrics) {
+        return thinkTimes.computeIfAbsent(metrics, m -> {
+            RollingRecorder recorder = new RollingRecorder(THINK_WINDOW);
+            m.setThinkListener(recorder::record);
+            return recorder;
+        });
+    }
+
+    /** 再戦などで時間が飛ぶときに、間隔の記録を切ります (シミュレーションが止まっている間に呼ぶこと)。 */
+    public void resetTimeline() {
+        lastTickNanos = 0;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        List<String> lines = new ArrayList<>();
+        long[] frames = frameIntervals.sortedSnapshot();
+        long p50 = RollingRecorder.percentile(frames, 0.50);
+        lines.add(String.format("frame  %s  (%.0f fps)", percentiles(frames), (p50 == 0) ? 0 : 1e9 / p50));
+        lines.add("update " + percentiles(updateTimes.sortedSnapshot()));
+        lines.add("paint  " + percentiles(paintTimes.sortedSnapshot()));
+        for (SearchMetrics metrics : SearchMetrics.all()) {
+            long[] thinks = thinkRecorder(metrics).sortedSnapshot();
+            if (thinks.length == 0) continue;
+            lines.add(String.format("%-12s last %6.1f  p50 %6.1f  p99 %6.1f ms  (last %d)",
+                    metrics.name(), metrics.lastThinkNanos() / 1e6, RollingRecorder.percentile(thinks, 0.50) / 1e6,
+                    RollingRecorder.percentile(thinks, 0.99) / 1e6, thinks.length));
+        }
+        lines.add(String.format("searches in flight %d, inference queue %d",
+                SearchMetrics.searchesInFlight(), SearchMetrics.inferenceInFlight()));
+
+        g.setFont(FONT);
+        FontMetrics fm = g.getFontMetrics();
+        int width = 0;
+        for (String line : lines) width = Math.max(width, fm.stringWidth(line));
+        int lineHeight = fm.getHeight();
+        g.setColor(BACKGROUND);
+        g.fillRect(8, 8, width + 12, lineHeight * lines.size() + 8);
+        g.setColor(TEXT);
+        for (int i = 0; i < lines.size(); i++) {
+            g.drawString(lines.get(i), 14, 12 + fm.getAscent() + lineHeight * i);
+        }
+    }
+
+    /** "p50 / p90 / p99 / max" をミリ秒で。 */
+    private static String percentiles(long[] sorted) {
+        return String.format("p50 %6.2f  p90 %6.2f  p99 %6.2f  max %6.2f ms",
+                RollingRecorder.percentile(sorted, 0.50) / 1e6, RollingRecorder.percentile(sorted, 0.90) / 1e6,
+                RollingRecorder.percentile(sorted, 0.99) / 1e6, RollingRecorder.percentile(sorted, 1.0) / 1e6);
+    }
+}
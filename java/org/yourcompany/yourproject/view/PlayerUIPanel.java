@@ -2,12 +2,13 @@ package org.yourcompany.yourproject.view;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.util.function.Supplier;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JPanel;
 
-import org.yourcompany.yourproject.model.GameLogic;
+import org.yourcompany.yourproject.model.GameSnapshot;
 
 /**
  * 一人のプレイヤーのUIコンポーネント（HOLD, 盤面, NEXT/SCORE）をまとめるパネル。
@@ -15,20 +16,26 @@ import org.yourcompany.yourproject.model.GameLogic;
  */
 public class PlayerUIPanel extends JPanel {
 
-    public PlayerUIPanel(GameLogic gameLogic) {
-        setupPanel(gameLogic);
+    private final Supplier<GameSnapshot> snapshot;
+
+    /**
+     * @param snapshot このプレイヤーの最新のスナップショット (描画のたびに呼ばれる)
+     */
+    public PlayerUIPanel(Supplier<GameSnapshot> snapshot) {
+        this.snapshot = snapshot;
+        setupPanel();
     }
 
-    private void setupPanel(GameLogic gameLogic) {
+    private void setupPanel() {
         // メインのレイアウト
         setLayout(new BorderLayout(5, 5));
 
         // --- 中央 ---
-        TetrisPanel tetrisPanel = new TetrisPanel(gameLogic);
+        TetrisPanel tetrisPanel = new TetrisPanel(snapshot);
         add(tetrisPanel, BorderLayout.CENTER);
 
         // --- 右側 ---
-        SidePanel sidePanel = new SidePanel(gameLogic);
+        SidePanel sidePanel = new SidePanel(snapshot);
         add(sidePanel, BorderLayout.EAST);
 
         // --- 左側 (HoldとInfoをまとめる) ---
@@ -36,8 +43,8 @@ public class PlayerUIPanel extends JPanel {
         westPanel.setLayout(new BoxLayout(westPanel, BoxLayout.Y_AXIS));
         westPanel.setOpaque(false); 
 
-        HoldPanel holdPanel = new HoldPanel(gameLogic);
-        InfoPanel infoPanel = new InfoPanel(gameLogic);
+        HoldPanel holdPanel = new HoldPanel(snapshot);
+        InfoPanel infoPanel = new InfoPanel(snapshot);
         
         infoPanel.setBackground(Color.BLACK);
 
@@ -49,12 +56,12 @@ public class PlayerUIPanel extends JPanel {
         add(westPanel, BorderLayout.WEST);
     }
 
-    public void resetGameLogic(GameLogic newLogic) {
-        // 既存のコンポーネントをすべて削除
+    public void resetPanels() {
+        // 既存のコンポーネントをすべて削除 (INFO の表示なども消える)
         removeAll();
         
-        // 新しいGameLogicでコンポーネントを再構築
-        setupPanel(newLogic);
+        // コンポーネントを再構築 (読むスナップショットは同じ Supplier から)
+        setupPanel();
 
         // コンポーネントの変更をUIに反映させる
         revalidate();
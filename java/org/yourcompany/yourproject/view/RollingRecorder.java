@@ -0,0 +1,51 @@
+package org.yourcompany.yourproject.view;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 直近 capacity 件の値を覚えておくリングバッファ (ロックなし)。
+ * record() は添字を1つ進めて1要素書くだけなので、描画やゲームループの途中から呼んでも測る対象をほとんど乱さない。
+ * 分位点は読む側 (オーバーレイの描画) で写しを並べ替えて求める。
+ */
+public final class RollingRecorder {
+
+    private final AtomicLongArray values;
+    private final AtomicLong written = new AtomicLong();
+    private final int mask;
+
+    /**
+     * @param capacity 覚えておく件数 (2 の冪に切り上げる)
+     */
+    public RollingRecorder(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.values = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    public void record(long value) {
+        long i = written.getAndIncrement();
+        values.set((int) (i & mask), value);
+    }
+
+    /** 直近の値を昇順に並べた写し (まだ何も無ければ空の配列)。 */
+    public long[] sortedSnapshot() {
+        int n = (int) Math.min(written.get(), mask + 1);
+        long[] copy = new long[n];
+        for (int i = 0; i < n; i++) copy[i] = values.get(i);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    /** sortedSnapshot() の p (0〜1) 分位点。空なら 0。 */
+    public static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public void clear() {
+        written.set(0);
+    }
+}
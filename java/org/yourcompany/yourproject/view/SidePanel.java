@@ -3,6 +3,7 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
+import java.util.function.Supplier;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -10,18 +11,18 @@ import javax.swing.BoxLayout;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
-import org.yourcompany.yourproject.model.GameLogic;
+import org.yourcompany.yourproject.model.GameSnapshot;
 
 public class SidePanel extends JPanel {
     private final JLabel scoreLabel;
-    private final GameLogic gameLogic;
+    private final Supplier<GameSnapshot> snapshot;
 
-    public SidePanel(GameLogic gameLogic) {
-        this.gameLogic = gameLogic;
+    public SidePanel(Supplier<GameSnapshot> snapshot) {
+        this.snapshot = snapshot;
         setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
         setPreferredSize(new Dimension(120, 600)); 
 
-        NextPanel nextPanel = new NextPanel(gameLogic);
+        NextPanel nextPanel = new NextPanel(snapshot);
         
         
         scoreLabel = new JLabel("0");
@@ -49,13 +50,14 @@ public class SidePanel extends JPanel {
         
         // 現在のラベルのテキストを取得
         String currentScoreText = scoreLabel.getText();
-        // GameLogic から最新のスコアを取得して文字列に変換
-        String newScoreText = String.valueOf(gameLogic.getScore());
+        // 最新のスナップショットのスコアを文字列に変換
+        long score = snapshot.get().getScore();
+        String newScoreText = String.valueOf(score);
         
         // スコアが変更されている場合のみ updateScore を呼び出す
         // (paintComponent 内での不要なsetText呼び出しによる無限ループやパフォーマンス低下を防ぐため)
         if (!currentScoreText.equals(newScoreText)) {
-            updateScore(gameLogic.getScore());
+            updateScore(score);
         }
     }
 }
\ No newline at end of file
@@ -4,19 +4,21 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.util.function.Supplier;
 
 import javax.swing.JPanel;
 
 import org.yourcompany.yourproject.model.Board;
-import org.yourcompany.yourproject.model.GameLogic;
+import org.yourcompany.yourproject.model.GameSnapshot;
 import org.yourcompany.yourproject.model.Tetromino;
 
 public class TetrisPanel extends JPanel {
-    private final GameLogic gameLogic;
+    // (★) 描くのはシミュレーションスレッドが公開した最新のスナップショットだけ
+    private final Supplier<GameSnapshot> snapshot;
     private static final int HIDDEN_ROW_VISIBLE_HEIGHT = 10;
 
-    public TetrisPanel(GameLogic gameLogic) {
-        this.gameLogic = gameLogic;
+    public TetrisPanel(Supplier<GameSnapshot> snapshot) {
+        this.snapshot = snapshot;
         // パネルの推奨サイズは「見える」高さで設定
         setPreferredSize(new Dimension(Board.BOARD_WIDTH * 30, Board.VISIBLE_BOARD_HEIGHT * 30 + HIDDEN_ROW_VISIBLE_HEIGHT));
         setBackground(Color.BLACK);
@@ -26,16 +28,18 @@ public class TetrisPanel extends JPanel {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        // (★) 1回の描画では同じスナップショットを使う (途中でフレームが進んでも混ざらない)
+        GameSnapshot state = snapshot.get();
         g.translate(0, HIDDEN_ROW_VISIBLE_HEIGHT);
 
         // 描画順序: グリッド → 設置済みブロック → ゴースト → 操作中ブロック
         drawGrid(g);
-        drawBoard(g);
+        drawBoard(g, state);
 
-        Tetromino current = gameLogic.getCurrentTetromino();
-        if (gameLogic.isGameOver()) {
+        Tetromino current = state.getCurrentTetromino();
+        if (state.isGameOver()) {
             // (★) 1. ゲームオーバー時の処理
-            Tetromino gameOverPiece = gameLogic.getGameOverTetromino();
+            Tetromino gameOverPiece = state.getGameOverTetromino();
             
             if (gameOverPiece != null) {
                 // (★) 2.「スポーン失敗」または「ロックアウト」したミノを描画する
@@ -47,16 +51,16 @@ public class TetrisPanel extends JPanel {
             drawGameOver(g);
         
         }else if (current != null) {
-            drawGhostPiece(g, current);
+            drawGhostPiece(g, current, state.getGhostY());
             drawTetromino(g, current);
         }
 
         g.translate(0, -HIDDEN_ROW_VISIBLE_HEIGHT);
-        drawHiddenRow(g, HIDDEN_ROW_VISIBLE_HEIGHT);
+        drawHiddenRow(g, HIDDEN_ROW_VISIBLE_HEIGHT, state);
         g.setColor(new Color(200, 200, 200, 150));
         g.fillRect(0, HIDDEN_ROW_VISIBLE_HEIGHT - 2, getWidth(), 2);
 
-        drawGarbageBar(g);
+        drawGarbageBar(g, state.getPendingGarbage());
     }
 
     private int getCellWidth() {
@@ -80,8 +84,7 @@ public class TetrisPanel extends JPanel {
         }
     }
 
-    private void drawBoard(Graphics g) {
-        Board board = gameLogic.getBoard();
+    private void drawBoard(Graphics g, GameSnapshot board) {
         int hiddenRows = Board.TOTAL_BOARD_HEIGHT - Board.VISIBLE_BOARD_HEIGHT;
 
         // visibleYは画面上の行 (0~19)
@@ -121,12 +124,7 @@ public class TetrisPanel extends JPanel {
         }
     }
 
-    private void drawGhostPiece(Graphics g, Tetromino tetromino) {
-        int ghostY = tetromino.getY();
-        while (gameLogic.getBoard().isValidPosition(tetromino.getCoords(), tetromino.getX(), ghostY + 1)) {
-            ghostY++;
-        }
-
+    private void drawGhostPiece(Graphics g, Tetromino tetromino, int ghostY) {
         if (ghostY <= tetromino.getY()) return;
 
         int[][] coords = tetromino.getCoords();
@@ -155,8 +153,7 @@ public class TetrisPanel extends JPanel {
         g.drawRect(x, y, getCellWidth() - 1, getCellHeight() - 1);
     }
     
-    private void drawGarbageBar(Graphics g) {
-        int pendingGarbage = gameLogic.getPendingGarbage();
+    private void drawGarbageBar(Graphics g, int pendingGarbage) {
         if (pendingGarbage <= 0) return;
 
         g.setColor(new Color(255, 50, 50));
@@ -182,8 +179,7 @@ public class TetrisPanel extends JPanel {
         g.setFont(font);
         g.drawString(msg, (getWidth() - metrics.stringWidth(msg)) / 2, getHeight() / 2);
     }
-    private void drawHiddenRow(Graphics g, int clipHeight) {
-        Board board = gameLogic.getBoard();
+    private void drawHiddenRow(Graphics g, int clipHeight, GameSnapshot board) {
         int cellWidth = getCellWidth();
         int cellHeight = getCellHeight(); // 1セルの「完全な」高さ (e.g., 30px)
         
@@ -207,7 +203,7 @@ public class TetrisPanel extends JPanel {
         }
         
         // 2. 現在操作中のミノも描画 (gridY = 19 にある部分)
-        Tetromino current = gameLogic.getCurrentTetromino();
+        Tetromino current = board.getCurrentTetromino();
         if (current != null) {
             int[][] coords = current.getCoords();
             Color color = current.getColor();
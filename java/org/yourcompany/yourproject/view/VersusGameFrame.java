@@ -1,7 +1,16 @@
 package org.yourcompany.yourproject.view;
 
 import java.awt.BorderLayout;
+import java.awt.Graphics;
 import java.awt.GridLayout;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -10,7 +19,10 @@ import javax.swing.JFrame; // (★)
 import javax.swing.JPanel; // (★)
 
 import org.yourcompany.yourproject.config.PlayerType;
+import org.yourcompany.yourproject.controller.FrameSnapshot;
 import org.yourcompany.yourproject.controller.GameController;
+import org.yourcompany.yourproject.controller.ReplayReader;
+import org.yourcompany.yourproject.controller.ReplayRecorder;
 import org.yourcompany.yourproject.controller.VersusManager;
 import org.yourcompany.yourproject.model.GameLogic;
 import org.yourcompany.yourproject.player.AIEvaluator;
@@ -28,6 +40,15 @@ public class VersusGameFrame extends JFrame {
     private static final String EVALUATION_BRAIN_MODEL_NAME = "tetris_value_final.onnx";
     // (★) AIの脳をモデル名ごとにキャッシュする (ONNXロードを1回にする)
     private final Map<String, TetrisAIBrain> brainCache = new HashMap<>();
+    // (★) 対戦はすべて replays/ に記録する (開けなければ記録せずに続ける)
+    private static final String REPLAY_DIR = "replays";
+    /** AI 同士の対戦で、探索結果を DAS/ARR を待たずに1フレームで置かせるか (-Dobseris.instantInput=true)。 */
+    public static final String INSTANT_INPUT_PROPERTY = "obseris.instantInput";
+    // (★) F3 で切り替える性能表示 (ガラスペインに重ねる)
+    private final PerformanceOverlay performanceOverlay = new PerformanceOverlay();
+    // (★) シミュレーションスレッドが公開した最新のフレーム。パネルはこれだけを読んで描く
+    private volatile FrameSnapshot latestFrame;
+    private final GameController gameController;
 
     public VersusGameFrame(PlayerType player1Type, PlayerType player2Type,String player1modelResourceName,
     String player2modelResourceName,int p1SpeedPercent, int p2SpeedPercent) {
@@ -43,9 +64,11 @@ public class VersusGameFrame extends JFrame {
         getBrain(player2modelResourceName) : null;
         TetrisAIBrain evaluationBrain = getBrain(EVALUATION_BRAIN_MODEL_NAME);
         
-        // (★) 3. モードに応じて Player と Evaluator を作成
-        Player player1 = createPlayer(player1Type, logic1, logic2, brain1,p1SpeedPercent,1);
-        Player player2 = createPlayer(player2Type, logic2, logic1, brain2,p2SpeedPercent,2);
+        // (★) 3. モードに応じて Player と Evaluator を作成 (即時入力は AI 同士のときだけ)
+        boolean instantInput = player1Type == PlayerType.AI && player2Type == PlayerType.AI
+                && Boolean.getBoolean(INSTANT_INPUT_PROPERTY);
+        Player player1 = createPlayer(player1Type, logic1, logic2, brain1,p1SpeedPercent,1, instantInput);
+        Player player2 = createPlayer(player2Type, logic2, logic1, brain2,p2SpeedPercent,2, instantInput);
         
         // (★) 4. HumanPlayer の場合は「裏AI」を起動
         if (evaluationBrain != null) {
@@ -53,21 +76,68 @@ public class VersusGameFrame extends JFrame {
             new AIEvaluator(logic2, logic1, evaluationBrain,2);
         }
         
-        // (★) 5. VersusManager を作成 (修正版コンストラクタ)
-        this.versusManager = new VersusManager(logic1, logic2, player1, player2);
+        // (★) 5. VersusManager を作成 (入力はリプレイとして記録)
+        this.versusManager = new VersusManager(logic1, logic2, player1, player2, openReplayRecorder());
+        this.latestFrame = FrameSnapshot.of(versusManager);
         
         // (★) 6. UIコンポーネントを生成 (PlayerUIPanel が Bar を内蔵)
-        this.player1UI = new PlayerUIPanel(logic1);
-        this.player2UI = new PlayerUIPanel(logic2);
+        this.player1UI = new PlayerUIPanel(() -> latestFrame.player1());
+        this.player2UI = new PlayerUIPanel(() -> latestFrame.player2());
         
         // (★) 7. Controllerを生成
-        GameController gameController = new GameController(versusManager, this, player1, player2);
+        this.gameController = new GameController(versusManager, this, player1, player2);
 
-        // --- ウィンドウのセットアップ ---
-        setTitle("Tetris Versus [" + player1Type + " vs " + player2Type + "]");
+        this.evaluationBar = new EvaluationBarPanel(() -> latestFrame);
+        setupWindow("Tetris Versus [" + player1Type + " vs " + player2Type + "]");
+        gameController.startGame();
+    }
+
+    /**
+     * (★) リプレイ再生用。記録された入力で試合を再現して表示する。
+     */
+    public VersusGameFrame(ReplayReader replay) {
+        GameLogic logic1 = new GameLogic();
+        GameLogic logic2 = new GameLogic();
+        TetrisAIBrain evaluationBrain = getBrain(EVALUATION_BRAIN_MODEL_NAME);
+        if (evaluationBrain != null) {
+            new AIEvaluator(logic1, logic2, evaluationBrain,1);
+            new AIEvaluator(logic2, logic1, evaluationBrain,2);
+        }
+
+        replay.applyRules();
+        this.versusManager = new VersusManager(logic1, logic2, replay.getGames());
+        this.latestFrame = FrameSnapshot.of(versusManager);
+        this.player1UI = new PlayerUIPanel(() -> latestFrame.player1());
+        this.player2UI = new PlayerUIPanel(() -> latestFrame.player2());
+        this.gameController = new GameController(versusManager, this, null, null);
+
+        this.evaluationBar = new EvaluationBarPanel(() -> latestFrame);
+        setupWindow("Tetris Replay");
+        gameController.startGame();
+    }
+
+    // --- ウィンドウのセットアップ ---
+    private void setupWindow(String title) {
+        setTitle(title);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setResizable(false);
-        setLayout(new BorderLayout());
+        // (★) オーバーレイに出す描画時間は、ガラスペインを除いた画面全体の paint を測る
+        setContentPane(new JPanel(new BorderLayout()) {
+            @Override
+            public void paint(Graphics g) {
+                long start = System.nanoTime();
+                super.paint(g);
+                performanceOverlay.recordPaint(System.nanoTime() - start);
+            }
+        });
+        setGlassPane(performanceOverlay);
+        performanceOverlay.setVisible(Boolean.getBoolean(PerformanceOverlay.PROPERTY));
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_F3) performanceOverlay.toggle();
+            }
+        });
 
         JPanel mainPanel = new JPanel(new GridLayout(1, 2, 10, 10));
         mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -75,14 +145,53 @@ public class VersusGameFrame extends JFrame {
         mainPanel.add(player2UI);
         add(mainPanel, BorderLayout.CENTER);
 
-        this.evaluationBar = new EvaluationBarPanel(logic1, logic2);
         add(evaluationBar, BorderLayout.SOUTH);
 
+        // (★) 閉じるときはシミュレーションを止めてから、リプレイを書き切る
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) { shutdown(); }
+            @Override
+            public void windowClosed(WindowEvent e) { shutdown(); }
+        });
+
         pack();
         setLocationRelativeTo(null);
         
         setVisible(true);
-        gameController.startGame();
+    }
+
+    /**
+     * シミュレーションスレッドから、進めたフレームのスナップショットを渡します。
+     * 描画は repaint で EDT に頼むだけで、ここでは待たない。
+     */
+    public void publishFrame(FrameSnapshot frame) {
+        latestFrame = frame;
+        repaint();
+    }
+
+    /** 閉じるボタンと dispose の両方から呼ばれる (2回目は何もしない)。 */
+    private void shutdown() {
+        gameController.stop();
+        versusManager.closeRecorder();
+    }
+
+    /** GameController がゲームループの時間を記録する先。 */
+    public PerformanceOverlay getPerformanceOverlay() {
+        return performanceOverlay;
+    }
+
+    private static ReplayRecorder openReplayRecorder() {
+        String stamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        Path file = Path.of(REPLAY_DIR, "replay_" + stamp + ".obr");
+        try {
+            ReplayRecorder recorder = new ReplayRecorder(file);
+            System.out.println("Recording replay: " + file);
+            return recorder;
+        } catch (IOException e) {
+            System.err.println("Failed to open replay file " + file + ": " + e.getMessage() + " (not recording)");
+            return null;
+        }
     }
 
     /**
@@ -104,7 +213,14 @@ public class VersusGameFrame extends JFrame {
         
         // (★) なければロードしてキャッシュに保存
         System.out.println("Loading AI Brain: " + modelName);
-        TetrisAIBrain brain = new TetrisAIBrain(modelName);
+        TetrisAIBrain brain;
+        try {
+            brain = new TetrisAIBrain(modelName);
+        } catch (RuntimeException e) {
+            // (★) モデルが読めなければ手作り評価だけで動く脳にフォールバック
+            System.err.println("Failed to load model " + modelName + ": " + e.getMessage() + " (falling back to heuristic)");
+            brain = new TetrisAIBrain();
+        }
         brainCache.put(modelName, brain);
         return brain;
     }
@@ -112,13 +228,14 @@ public class VersusGameFrame extends JFrame {
     /**
      * (★) PlayerTypeに応じてPlayerインスタンスを返す (修正版)
      */
-    private Player createPlayer(PlayerType type, GameLogic myLogic, GameLogic opponentLogic, TetrisAIBrain brain,int speedPercent,int offset) {
+    private Player createPlayer(PlayerType type, GameLogic myLogic, GameLogic opponentLogic, TetrisAIBrain brain,int speedPercent,int offset,
+                                boolean instantInput) {
         if (type == PlayerType.HUMAN) {
             return new HumanPlayer();
         } else {
             // (★) AIPlayer は Logic と Brain を受け取る
             int delay = (int)Math.max(0, (100.0 / (double)speedPercent) - 1.0);
-            return new AIPlayer(myLogic, opponentLogic, brain, 2 *delay,offset);
+            return new AIPlayer(myLogic, opponentLogic, brain, 2 *delay,offset, instantInput);
         }
     }
 
@@ -127,11 +244,13 @@ public class VersusGameFrame extends JFrame {
      * resetGame() は VersusManager に移動
      */
     public void resetUI() {
-        // (★) Manager にリセットを指示 (Logic のリセット)
+        // (★) Manager にリセットを指示 (Logic のリセット)。シミュレーションが止まっている間に呼ぶこと
         versusManager.resetGame();
+        latestFrame = FrameSnapshot.of(versusManager);
         
         // (★) UI にもリセットを指示 (View のリセット)
-        player1UI.resetGameLogic(versusManager.getPlayer1Logic());
-        player2UI.resetGameLogic(versusManager.getPlayer2Logic());
+        player1UI.resetPanels();
+        player2UI.resetPanels();
+        performanceOverlay.resetTimeline();
     }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package org.yourcompany.yourproject.player;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Path;
+
+import org.yourcompany.yourproject.model.Board;
+import org.yourcompany.yourproject.model.PieceGeometry;
+import org.yourcompany.yourproject.model.Shape;
+
+/**
+ * C++ エンジンの obs_enumerate_placements (tetris_capi.cpp) を Foreign Function &amp; Memory API で呼ぶ列挙器。
+ * 盤面は40行の行ビットをそのままネイティブのセグメントに一括コピーして渡す (セル単位の変換はしない)。
+ *
+ * <p>JDK 22 以上が必要なので、このクラスだけ java22/ に置いている。
+ * MoveGenerator.select() が名前で読み込むので、無くても java/ 側はそのままビルドできる。
+ * 実行時は -Dobseris.movegen=native と --enable-native-access=ALL-UNNAMED を付け、
+ * ライブラリは -Dobseris.movegen.lib=/path/to/libobseris_movegen.so か、ローダーの検索パスに置く。
+ *
+ * <p>エンジンの BFS は DAS やフレーム数を考えないので、操作列が要るとき (1手目) は Java の列挙器に任せる。
+ * 開けた盤面も Java 側の近道 (DropPlacementEnumerator) の方が速いのでそちらを使う。
+ *
+ * <p>searchLandings() は代わりに Python エンジンの探索の列挙 (obs_enumerate_search_landings) を呼ぶ、突き合わせ専用の列挙器。
+ */
+public final class NativeMoveGenerator implements MoveGenerator {
+
+    public static final String LIBRARY_PROPERTY = "obseris.movegen.lib";
+    private static final String LIBRARY_NAME = "obseris_movegen";
+    private static final int CAPI_VERSION = 1;
+
+    private static final int ROWS = Board.TOTAL_BOARD_HEIGHT;
+    // 占有セルで重複を除いた着地点の数はこれを超えない (FinessePathOptimizer の footprint 表と同じ上限)
+    private static final int MAX_PLACEMENTS = 4096;
+
+    private final String name;
+    private final String function;
+    private final MethodHandle enumerate;
+    // 訪れた状態数 (計測用)。古いライブラリには無いので、無ければ null
+    private final MethodHandle lastStateCount;
+    private final boolean openBoardShortcut;
+
+    // スレッドごとのネイティブ側の作業領域 (GC に任せて解放する)
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private static final class Scratch {
+        final MemorySegment rows;
+        final MemorySegment out;
+        final int[] rowBits = new int[ROWS];
+        final int[] placements = new int[MAX_PLACEMENTS * 3];
+
+        Scratch() {
+            Arena arena = Arena.ofAuto();
+            rows = arena.allocate(ValueLayout.JAVA_INT.byteSize() * ROWS, ValueLayout.JAVA_INT.byteAlignment());
+            out = arena.allocate(ValueLayout.JAVA_INT.byteSize() * MAX_PLACEMENTS * 3, ValueLayout.JAVA_INT.byteAlignment());
+        }
+    }
+
+    public NativeMoveGenerator() {
+        this(true);
+    }
+
+    /**
+     * @param openBoardShortcut 開けた盤面を Java 側の近道で済ませるか (false は突き合わせ用に常にネイティブで全探索)
+     */
+    public NativeMoveGenerator(boolean openBoardShortcut) {
+        this(openBoardShortcut, "native", "obs_enumerate_placements");
+    }
+
+    /**
+     * Python エンジンの探索 (tetris_search.cpp の enumerate_landings) が返す着地点を列挙する、突き合わせ用の列挙器。
+     * スポーンの高さから真下に落とした位置だけなので、全探索の部分集合になる。
+     */
+    public static NativeMoveGenerator searchLandings() {
+        return new NativeMoveGenerator(false, "cpp-search", "obs_enumerate_search_landings");
+    }
+
+    private NativeMoveGenerator(boolean openBoardShortcut, String name, String function) {
+        this.openBoardShortcut = openBoardShortcut;
+        this.name = name;
+        this.function = function;
+        Linker linker = Linker.nativeLinker();
+        String path = System.getProperty(LIBRARY_PROPERTY);
+        SymbolLookup lookup = (path != null)
+                ? SymbolLookup.libraryLookup(Path.of(path), Arena.global())
+                : SymbolLookup.libraryLookup(System.mapLibraryName(LIBRARY_NAME), Arena.global());
+
+        MethodHandle version = linker.downcallHandle(
+                lookup.find("obs_capi_version").orElseThrow(),
+                FunctionDescriptor.of(ValueLayout.JAVA_INT));
+        int v;
+        try {
+            v = (int) version.invokeExact();
+        } catch (Throwable t) {
+            throw new IllegalStateException("obs_capi_version failed", t);
+        }
+        if (v != CAPI_VERSION) {
+            throw new IllegalStateException("Unsupported " + LIBRARY_NAME + " version " + v);
+        }
+
+        enumerate = linker.downcallHandle(
+                lookup.find(function).orElseThrow(),
+                FunctionDescriptor.of(ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        lastStateCount = lookup.find("obs_last_state_count")
+                .map(symbol -> linker.downcallHandle(symbol, FunctionDescriptor.of(ValueLayout.JAVA_INT)))
+                .orElse(null);
+    }
+
+    @Override
+    public String name() { return name; }
+
+    @Override
+    public void generate(Board board, Shape.Tetrominoes shape, boolean withPaths, SearchArena arena) {
+        if (withPaths) {
+            JavaMoveGenerator.INSTANCE.generate(board, shape, true, arena);
+            return;
+        }
+        MoveList moves = arena.moves;
+        moves.clear();
+        if (shape == null || shape == Shape.Tetrominoes.NoShape) return;
+        // 開けた盤面は列の高さから直接求める方が速いので、全探索が要る盤面だけ呼び出す
+        if (openBoardShortcut && JavaMoveGenerator.enumerateOpenBoard(board, shape, false, arena)) return;
+
+        Scratch s = scratch.get();
+        board.copyRowBitsTo(s.rowBits, 0);
+        MemorySegment.copy(s.rowBits, 0, s.rows, ValueLayout.JAVA_INT, 0, ROWS);
+
+        // (★) 回転中心の取り方が O だけ C++ と違うので、位置は占有セルの左端・上端で受け渡す
+        PieceGeometry spawn = PieceGeometry.of(shape, 0);
+        int count;
+        try {
+            count = (int) enumerate.invokeExact(s.rows, pieceType(shape),
+                    TetrisAIBrain.SPAWN_X + spawn.left(), TetrisAIBrain.SPAWN_Y + spawn.top(), s.out, MAX_PLACEMENTS);
+            if (lastStateCount != null) moves.setSearchedStates((int) lastStateCount.invokeExact());
+        } catch (Throwable t) {
+            throw new IllegalStateException(function + " failed", t);
+        }
+        if (count < 0) throw new IllegalArgumentException("Unsupported shape " + shape);
+        count = Math.min(count, MAX_PLACEMENTS);
+
+        MemorySegment.copy(s.out, ValueLayout.JAVA_INT, 0, s.placements, 0, count * 3);
+        for (int i = 0; i < count; i++) {
+            int rot = s.placements[i * 3 + 2];
+            PieceGeometry g = PieceGeometry.of(shape, rot);
+            moves.add(s.placements[i * 3] - g.left(), s.placements[i * 3 + 1] - g.top(), rot, null);
+        }
+    }
+
+    /** C++ 側の PieceType (I, O, T, S, Z, J, L) の値。 */
+    private static int pieceType(Shape.Tetrominoes shape) {
+        return switch (shape) {
+            case LineShape -> 0;
+            case SquareShape -> 1;
+            case TShape -> 2;
+            case SShape -> 3;
+            case ZShape -> 4;
+            case MirroredLShape -> 5;
+            case LShape -> 6;
+            case NoShape -> -1;
+        };
+    }
+}
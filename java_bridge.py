@@ -0,0 +1,138 @@
+# java_bridge.py
+# Java 側の SharedMemoryBridge と共有メモリ (メモリマップしたファイル) でやりとりするクライアント。
+#
+#   java ... org.yourcompany.yourproject.controller.SharedMemoryBridge /tmp/obseris.bridge 256
+#
+#   from java_bridge import JavaBridge
+#   env = JavaBridge("/tmp/obseris.bridge")
+#   env.reset(np.arange(env.num_envs))
+#   env.step(np.zeros(env.num_envs, dtype=np.int32))
+#   env.boards        # (N, 2, 40, 10) float32。共有メモリをそのまま見ている (コピーなし)
+import mmap
+import os
+import time
+
+import numpy as np
+
+MAGIC = 0x4253424F  # "OBSB"
+VERSION = 1
+
+CMD_RESET = 1
+CMD_STEP = 2
+CMD_SUGGEST = 3
+CMD_RESET_ENV = 4
+CMD_SHUTDOWN = 255
+
+HEADER_FIELDS = [
+    "seeds", "actions", "observations", "placementCounts", "placementX", "placementY", "placementRot",
+    "placementHold", "rewards", "attacks", "linesCleared", "dones", "suggestions", "requestRing", "responseRing",
+]
+REQ_HEAD, REQ_TAIL, RESP_HEAD, RESP_TAIL = 128, 192, 256, 320
+SLOT_SIZE = 16
+BOARD_SIZE = 2 * 40 * 10
+
+
+class JavaBridge:
+    """
+    Java の BatchEnvironment を1手ずつ動かす。観測・合法手・報酬は共有メモリ上の numpy 配列。
+    step / reset の戻り値の配列は次の呼び出しで上書きされるので、残すならコピーすること。
+    """
+
+    def __init__(self, path: str, timeout: float = 30.0):
+        deadline = time.time() + timeout
+        while True:
+            if os.path.exists(path) and os.path.getsize(path) >= 4096:
+                self._file = open(path, "r+b")
+                self._mm = mmap.mmap(self._file.fileno(), 0)
+                if np.frombuffer(self._mm, dtype="<i4", count=1)[0] == MAGIC:
+                    break
+                self._mm.close()
+                self._file.close()
+            if time.time() > deadline:
+                raise TimeoutError(f"bridge file {path} was not initialized")
+            time.sleep(0.05)
+
+        head = np.frombuffer(self._mm, dtype="<i4", count=6 + len(HEADER_FIELDS))
+        if head[1] != VERSION:
+            raise RuntimeError(f"unsupported bridge version {head[1]}")
+        self.num_envs, self.obs_size, self.max_placements, self.ring_slots = map(int, head[2:6])
+        off = dict(zip(HEADER_FIELDS, map(int, head[6:])))
+        n, mp = self.num_envs, self.max_placements
+
+        def view(name, dtype, count, shape=None):
+            a = np.frombuffer(self._mm, dtype=dtype, count=count, offset=off[name])
+            return a.reshape(shape) if shape else a
+
+        self._seeds = view("seeds", "<i8", n)
+        self._actions = view("actions", "<i4", n)
+        self.observations = view("observations", "<f4", n * self.obs_size, (n, self.obs_size))
+        self.boards = self.observations[:, :BOARD_SIZE].reshape(n, 2, 40, 10)
+        self.features = self.observations[:, BOARD_SIZE:]
+        self.placement_counts = view("placementCounts", "<i4", n)
+        self.placement_x = view("placementX", "<i4", n * mp, (n, mp))
+        self.placement_y = view("placementY", "<i4", n * mp, (n, mp))
+        self.placement_rot = view("placementRot", "<i4", n * mp, (n, mp))
+        self.placement_hold = view("placementHold", "<i4", n * mp, (n, mp))
+        self.rewards = view("rewards", "<f4", n)
+        self.attacks = view("attacks", "<i4", n)
+        self.lines_cleared = view("linesCleared", "<i4", n)
+        self.dones = view("dones", "<i4", n)
+        self.suggestions = view("suggestions", "<i4", n)
+        self._req = view("requestRing", "<i4", self.ring_slots * 4, (self.ring_slots, 4))
+        self._resp = view("responseRing", "<i4", self.ring_slots * 4, (self.ring_slots, 4))
+        self._counters = np.frombuffer(self._mm, dtype="<i8", count=RESP_TAIL // 8 + 1)
+        self._seq = 0
+
+    # --- リング ---
+    def _call(self, cmd: int, arg: int = 0) -> None:
+        c = self._counters
+        req_head = int(c[REQ_HEAD // 8])
+        while req_head - int(c[REQ_TAIL // 8]) >= self.ring_slots:
+            time.sleep(0)
+        self._seq += 1
+        slot = self._req[req_head % self.ring_slots]
+        slot[0] = cmd
+        slot[1] = self._seq
+        slot[2:4] = np.array([arg], dtype="<i8").view("<i4")
+        c[REQ_HEAD // 8] = req_head + 1  # 中身を書いてから head を進める
+
+        resp_tail = int(c[RESP_TAIL // 8])
+        spins = 0
+        while int(c[RESP_HEAD // 8]) == resp_tail:
+            spins += 1
+            if spins > 1000:
+                time.sleep(0)
+        resp = self._resp[resp_tail % self.ring_slots]
+        status = int(resp[2])
+        c[RESP_TAIL // 8] = resp_tail + 1
+        if status != 0:
+            raise RuntimeError(f"bridge command {cmd} failed")
+
+    # --- API ---
+    def reset(self, seeds):
+        self._seeds[:] = np.asarray(seeds, dtype=np.int64)
+        self._call(CMD_RESET)
+        return self.observations
+
+    def reset_env(self, i: int, seed: int):
+        self._seeds[i] = seed
+        self._call(CMD_RESET_ENV, i)
+
+    def step(self, placement_indices):
+        self._actions[:] = np.asarray(placement_indices, dtype=np.int32)
+        self._call(CMD_STEP)
+        return self.observations, self.rewards, self.dones
+
+    def suggest(self):
+        """各環境で Java の AI (TetrisAIBrain) が選ぶ合法手の番号。見つからなければ -1。"""
+        self._call(CMD_SUGGEST)
+        return self.suggestions
+
+    def close(self, shutdown: bool = True):
+        if shutdown:
+            self._call(CMD_SHUTDOWN)
+        for name in list(vars(self)):
+            if isinstance(getattr(self, name), np.ndarray):
+                setattr(self, name, None)
+        self._mm.close()
+        self._file.close()
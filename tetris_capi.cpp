@@ -0,0 +1,175 @@
+// tetris_capi.cpp
+#include "tetris_capi.h"
+#include "tetris_core.h"
+#include "tetris_rules.h"
+#include "tetris_search.h"
+
+#include <algorithm>
+#include <array>
+#include <unordered_set>
+#include <vector>
+
+namespace {
+
+// 探索する状態の範囲 (C++ 側の座標。ミノの中心は盤面の少し外まで出られる)
+constexpr int X_MIN = -4;
+constexpr int X_SPAN = BOARD_WIDTH + 8;
+constexpr int Y_MIN = -4;
+constexpr int Y_SPAN = TOTAL_BOARD_HEIGHT + 8;
+constexpr int STATE_COUNT = 4 * Y_SPAN * X_SPAN;
+
+// Java は y=0 が最上段、C++ は y=0 が最下段
+inline int flip_y(int y) { return TOTAL_BOARD_HEIGHT - 1 - y; }
+
+inline int state_index(int x, int y, int rot) {
+    return (rot * Y_SPAN + (y - Y_MIN)) * X_SPAN + (x - X_MIN);
+}
+
+inline bool in_range(int x, int y) {
+    return x >= X_MIN && x < X_MIN + X_SPAN && y >= Y_MIN && y < Y_MIN + Y_SPAN;
+}
+
+// 占有する4セルを (Java の行 * 幅 + 列) の昇順に詰めた値 (回転によらず同じ置き方なら同じ値)
+uint64_t footprint(const Coords& shape, int x, int y) {
+    std::array<int, 4> cells{};
+    for (int i = 0; i < 4; ++i) {
+        cells[i] = flip_y(y + shape[i].second) * BOARD_WIDTH + (x + shape[i].first);
+    }
+    std::sort(cells.begin(), cells.end());
+    uint64_t key = 0;
+    for (int c : cells) key = (key << 9) | static_cast<uint64_t>(c);
+    return key;
+}
+
+struct State { int x, y, rot; };
+
+void load_rows(Board& board, const int32_t* rows) {
+    for (int row = 0; row < TOTAL_BOARD_HEIGHT; ++row) {
+        const int bits = rows[row];
+        std::vector<int>& line = board[flip_y(row)];
+        for (int x = 0; x < BOARD_WIDTH; ++x) line[x] = (bits >> x) & 1;
+    }
+}
+
+// 外接矩形の左上 (Java の座標) から、C++ 側の回転中心の位置 (回転0) に直す
+std::pair<int, int> spawn_center(PieceType p, int spawn_left, int spawn_top) {
+    int min_dx = 4, max_dy = -4;
+    for (auto [dx, dy] : get_shape(p, 0)) {
+        min_dx = std::min(min_dx, dx);
+        max_dy = std::max(max_dy, dy);
+    }
+    return {spawn_left - min_dx, flip_y(spawn_top) - max_dy};
+}
+
+// 着地点を {左端の列, 最上段の行 (Java の座標), rot} で out に書く
+void write_placement(int32_t* out, int32_t index, const Coords& shape, int x, int y, int rot) {
+    int left = BOARD_WIDTH, top = TOTAL_BOARD_HEIGHT;
+    for (auto [dx, dy] : shape) {
+        left = std::min(left, x + dx);
+        top = std::min(top, flip_y(y + dy));
+    }
+    out[index * 3]     = left;
+    out[index * 3 + 1] = top;
+    out[index * 3 + 2] = rot;
+}
+
+// 直前の obs_enumerate_placements で BFS が訪れた状態数 (呼び出したスレッドごと)
+thread_local int32_t last_state_count = 0;
+
+} // namespace
+
+OBS_API int32_t obs_capi_version(void) { return 1; }
+
+OBS_API int32_t obs_enumerate_placements(const int32_t* rows,
+                                         int32_t piece,
+                                         int32_t spawn_left, int32_t spawn_top,
+                                         int32_t* out, int32_t max_out)
+{
+    last_state_count = 0;
+    if (piece < 0 || piece >= PIECE_COUNT) return -1;
+    const PieceType p = static_cast<PieceType>(piece);
+
+    // 呼び出しのたびに確保し直さないよう、作業領域はスレッドごとに使い回す
+    thread_local Board board(TOTAL_BOARD_HEIGHT, std::vector<int>(BOARD_WIDTH, 0));
+    thread_local std::vector<uint8_t> visited(STATE_COUNT, 0);
+    thread_local std::vector<State> queue;
+    thread_local std::unordered_set<uint64_t> seen;
+
+    load_rows(board, rows);
+    const auto [sx, sy] = spawn_center(p, spawn_left, spawn_top);
+    if (!is_valid_position(board, get_shape(p, 0), sx, sy)) return 0;
+
+    // 到達できる状態を BFS で広げ、下に動けない状態を着地点として記録する
+    std::fill(visited.begin(), visited.end(), 0);
+    queue.clear();
+    seen.clear();
+    int32_t found = 0;
+
+    visited[state_index(sx, sy, 0)] = 1;
+    queue.push_back({sx, sy, 0});
+
+    auto visit = [&](int x, int y, int rot) {
+        if (!in_range(x, y)) return;
+        int s = state_index(x, y, rot);
+        if (visited[s]) return;
+        if (!is_valid_position(board, get_shape(p, rot), x, y)) return;
+        visited[s] = 1;
+        queue.push_back({x, y, rot});
+    };
+
+    for (size_t head = 0; head < queue.size(); ++head) {
+        const State cur = queue[head];
+        const Coords& shape = get_shape(p, cur.rot);
+
+        if (!is_valid_position(board, shape, cur.x, cur.y - 1)) {
+            if (seen.insert(footprint(shape, cur.x, cur.y)).second) {
+                if (found < max_out) write_placement(out, found, shape, cur.x, cur.y, cur.rot);
+                ++found;
+            }
+        } else {
+            visit(cur.x, cur.y - 1, cur.rot);
+        }
+        visit(cur.x - 1, cur.y, cur.rot);
+        visit(cur.x + 1, cur.y, cur.rot);
+
+        // 回転 (SRS キック: 最初に置けたキックだけが有効)
+        for (int dir = 0; dir < 2; ++dir) {
+            int next_rot = (cur.rot + (dir == 0 ? 1 : 3)) % 4;
+            const Coords& next_shape = get_shape(p, next_rot);
+            for (auto [kx, ky] : get_kicks(p, cur.rot, next_rot)) {
+                if (is_valid_position(board, next_shape, cur.x + kx, cur.y + ky)) {
+                    visit(cur.x + kx, cur.y + ky, next_rot);
+                    break;
+                }
+            }
+        }
+    }
+    last_state_count = static_cast<int32_t>(queue.size());
+    return found;
+}
+
+OBS_API int32_t obs_last_state_count(void) { return last_state_count; }
+
+OBS_API int32_t obs_enumerate_search_landings(const int32_t* rows,
+                                              int32_t piece,
+                                              int32_t spawn_left, int32_t spawn_top,
+                                              int32_t* out, int32_t max_out)
+{
+    if (piece < 0 || piece >= PIECE_COUNT) return -1;
+    const PieceType p = static_cast<PieceType>(piece);
+
+    Board board(TOTAL_BOARD_HEIGHT, std::vector<int>(BOARD_WIDTH, 0));
+    load_rows(board, rows);
+    const auto [sx, sy] = spawn_center(p, spawn_left, spawn_top);
+    if (!is_valid_position(board, get_shape(p, 0), sx, sy)) return 0;
+
+    std::unordered_set<uint64_t> seen;
+    int32_t found = 0;
+    for (const Landing& l : enumerate_landings(board, p, sx, sy, -1, false)) {
+        const Coords& shape = get_shape(p, l.final_rot);
+        if (!seen.insert(footprint(shape, l.final_x, l.final_y)).second) continue;
+        if (found < max_out) write_placement(out, found, shape, l.final_x, l.final_y, l.final_rot);
+        ++found;
+    }
+    return found;
+}
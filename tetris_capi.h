@@ -0,0 +1,46 @@
+// tetris_capi.h
+// Java (Foreign Function & Memory API) から呼ぶための C ABI。
+// 盤面は Java の Board.copyRowBitsTo と同じ「40行の行ビット」で受け取り、セル単位のコピーはしない。
+//
+// ビルド:
+//   g++ -std=c++17 -O3 -shared -fPIC -o libobseris_movegen.so tetris_capi.cpp tetris_core.cpp tetris_rules.cpp tetris_search.cpp tetris_path.cpp tetris_step.cpp tetris_attack.cpp
+#pragma once
+#include <cstdint>
+
+#ifdef _WIN32
+#define OBS_API extern "C" __declspec(dllexport)
+#else
+#define OBS_API extern "C" __attribute__((visibility("default")))
+#endif
+
+// ABI の版。Java 側はロード時にこれを確かめる
+OBS_API int32_t obs_capi_version(void);
+
+// スポーン位置から (移動・ソフトドロップ・SRS回転で) 届く着地点を、占有セルの重複を除いてすべて列挙する。
+//
+// rows    : 40行の行ビット。rows[0] が最上段、bit x が列 x (Java の Board と同じ向き)
+// piece   : PieceType の値 (I=0, O=1, T=2, S=3, Z=4, J=5, L=6)
+// spawn_left, spawn_top : 回転0のスポーン時に占有セルが来る左端の列と最上段の行 (y は上から数えた行)
+// out     : 着地点ごとに {左端の列, 最上段の行, rot} を書く
+// max_out : out に書ける着地点の数
+//
+// 回転中心の取り方は Java と C++ で O だけ違うので、位置はどちらも占有セルの外接矩形で受け渡す。
+// 回転番号 (0=スポーン向き, 1=右回転 …) と SRS のキックは共通。
+//
+// 戻り値: 見つかった着地点の数 (max_out を超えた分は書かない)。piece が不正なら -1。
+//         スポーン位置に置けなければ 0。
+OBS_API int32_t obs_enumerate_placements(const int32_t* rows,
+                                         int32_t piece,
+                                         int32_t spawn_left, int32_t spawn_top,
+                                         int32_t* out, int32_t max_out);
+
+// 同じスレッドで直前に呼んだ obs_enumerate_placements が BFS で訪れた状態数 (計測用)。
+OBS_API int32_t obs_last_state_count(void);
+
+// Python エンジンの探索が使う enumerate_landings (tetris_search.cpp) の着地点を、同じ形式で返す (突き合わせ用)。
+// こちらは回転・列ごとにスポーンの高さから真下に落とした位置を find_path で確かめたものだけで、
+// タッキングやスピンで入る位置は含まない。引数と戻り値は obs_enumerate_placements と同じ。
+OBS_API int32_t obs_enumerate_search_landings(const int32_t* rows,
+                                              int32_t piece,
+                                              int32_t spawn_left, int32_t spawn_top,
+                                              int32_t* out, int32_t max_out);
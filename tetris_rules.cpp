@@ -16,9 +16,9 @@ static const std::array<Coords,4> SHAPE_T = {{
 }};
 static const std::array<Coords,4> SHAPE_I = {{
     {{-1,0},{0,0},{1,0},{2,0}},
-    {{1,-1},{1,0},{1,1},{1,2}},
-    {{-1,1},{0,1},{1,1},{2,1}},
-    {{0,-1},{0,0},{0,1},{0,2}},
+    {{1,1},{1,0},{1,-1},{1,-2}},
+    {{-1,-1},{0,-1},{1,-1},{2,-1}},
+    {{0,1},{0,0},{0,-1},{0,-2}},
 }};
 static const std::array<Coords,4> SHAPE_O = {{
     {{0,0},{1,0},{0,1},{1,1}},
@@ -48,7 +48,7 @@ static const std::array<Coords,4> SHAPE_Z = {{
     {{-1,1},{0,1},{0,0},{1,0}},
     {{1,1},{1,0},{0,0},{0,-1}},
     {{-1,0},{0,0},{0,-1},{1,-1}},
-    {{-1,1},{-1,0},{0,0},{0,-1}},
+    {{0,1},{0,0},{-1,0},{-1,-1}},
 }};
 
 const Coords& get_shape(PieceType p, int rot){
@@ -0,0 +1,78 @@
+// tetris_rules_test.cpp
+// 形状表 (tetris_rules.cpp の get_shape) の検査。
+// 回転 r+1 の形は、回転 r の形を SRS の回転中心のまわりに右へ90度回したものと一致しなければならない
+// (y は上向き。右回転は (x, y) -> (y, -x))。
+//
+// ビルドと実行:
+//   g++ -std=c++17 -O2 -o tetris_rules_test tetris_rules_test.cpp tetris_rules.cpp tetris_core.cpp && ./tetris_rules_test
+#include "tetris_rules.h"
+
+#include <algorithm>
+#include <cstdio>
+#include <utility>
+#include <vector>
+
+namespace {
+
+const char* piece_name(PieceType p) {
+    switch (p) {
+        case PieceType::I: return "I";
+        case PieceType::O: return "O";
+        case PieceType::T: return "T";
+        case PieceType::S: return "S";
+        case PieceType::Z: return "Z";
+        case PieceType::J: return "J";
+        case PieceType::L: return "L";
+    }
+    return "?";
+}
+
+// 回転中心を2倍した座標 (I は (0.5, -0.5)、O は (0.5, 0.5)、他は (0, 0))
+std::pair<int, int> doubled_center(PieceType p) {
+    if (p == PieceType::I) return {1, -1};
+    if (p == PieceType::O) return {1, 1};
+    return {0, 0};
+}
+
+std::vector<std::pair<int, int>> sorted_cells(const Coords& shape) {
+    std::vector<std::pair<int, int>> cells(shape.begin(), shape.end());
+    std::sort(cells.begin(), cells.end());
+    return cells;
+}
+
+// shape を中心のまわりに右へ90度回した形 (2倍の座標で計算してから戻す)
+std::vector<std::pair<int, int>> rotate_right(PieceType p, const Coords& shape) {
+    auto [cx, cy] = doubled_center(p);
+    std::vector<std::pair<int, int>> cells;
+    for (auto [x, y] : shape) {
+        int dx = 2 * x - cx, dy = 2 * y - cy;
+        cells.push_back({(cx + dy) / 2, (cy - dx) / 2});
+    }
+    std::sort(cells.begin(), cells.end());
+    return cells;
+}
+
+} // namespace
+
+int main() {
+    int failures = 0;
+    for (PieceType p : ALL_PIECES) {
+        for (int rot = 0; rot < 4; ++rot) {
+            auto expected = rotate_right(p, get_shape(p, rot));
+            auto actual = sorted_cells(get_shape(p, rot + 1));
+            if (expected == actual) continue;
+            ++failures;
+            std::printf("%s: rotation %d is not rotation %d turned right\n  expected", piece_name(p), (rot + 1) % 4, rot);
+            for (auto [x, y] : expected) std::printf(" (%d,%d)", x, y);
+            std::printf("\n  actual  ");
+            for (auto [x, y] : actual) std::printf(" (%d,%d)", x, y);
+            std::printf("\n");
+        }
+    }
+    if (failures > 0) {
+        std::printf("%d shape rotation(s) wrong\n", failures);
+        return 1;
+    }
+    std::printf("all shape tables consistent\n");
+    return 0;
+}